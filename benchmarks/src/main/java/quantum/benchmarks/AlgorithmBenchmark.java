@@ -0,0 +1,56 @@
+package quantum.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import quantum.algorithms.DeutschJosza;
+import quantum.algorithms.GroversAlgorithm;
+import quantum.core.QuantumRegister;
+import quantum.gates.ControlledGate;
+import quantum.gates.IQuantumGate;
+import quantum.gates.composit.QFTGate;
+import quantum.gates.unary.PauliXGate;
+
+import java.util.concurrent.TimeUnit;
+
+// End-to-end runs on a fresh register, including circuit construction and compilation
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "--add-modules", "jdk.incubator.vector", "-Xmx6g"})
+@State(Scope.Thread)
+public class AlgorithmBenchmark {
+    @Param({"4", "6", "8", "10", "12"})
+    public int numQubits;
+
+    private IQuantumGate oracle;
+    private int[] allQubits;
+    private long marked;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Deutsch-Josza only needs some n-qubit oracle to be timed; a multi-controlled X stays one gate at any size
+        oracle = new ControlledGate(new PauliXGate(), numQubits - 1);
+        marked = (1L << numQubits) / 3;
+        allQubits = new int[numQubits];
+        for (int i = 0; i < numQubits; i++) {
+            allQubits[i] = i;
+        }
+    }
+
+    @Benchmark
+    public boolean deutschJosza() {
+        return DeutschJosza.run(new QuantumRegister(numQubits, 1), oracle);
+    }
+
+    @Benchmark
+    public int grover() {
+        return GroversAlgorithm.run(new QuantumRegister(numQubits, 1), x -> x == marked);
+    }
+
+    @Benchmark
+    public QuantumRegister qft() {
+        QuantumRegister register = new QuantumRegister(numQubits, 1);
+        register.applyGate(new QFTGate(numQubits), allQubits);
+        return register;
+    }
+}
@@ -0,0 +1,78 @@
+package quantum.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import quantum.core.QuantumRegister;
+import quantum.gates.IQuantumGate;
+import quantum.gates.binary.CNOTGate;
+import quantum.gates.binary.SwapGate;
+import quantum.gates.composit.CCNOTGate;
+import quantum.gates.composit.UniversalGate;
+import quantum.gates.unary.*;
+
+import java.util.concurrent.TimeUnit;
+
+// One gate application on a register in uniform superposition, for every gate at every register size.
+// The gates are unitary, so applying them over and over keeps the state normalized.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "--add-modules", "jdk.incubator.vector", "-Xmx6g"})
+@State(Scope.Thread)
+public class GateBenchmark {
+    @Param({"4", "8", "12", "16", "20", "24", "26"})
+    public int numQubits;
+
+    @Param({"Hadamard", "Identity", "PauliX", "PauliY", "PauliZ", "RX", "RY", "RZ", "S", "T", "TDagger", "Universal",
+            "CNOT", "Swap", "CCNOT"})
+    public String gate;
+
+    private QuantumRegister register;
+    private IQuantumGate instance;
+    private int[] qubits;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        register = new QuantumRegister(numQubits, 1);
+        for (int i = 0; i < numQubits; i++) {
+            register.applyGate(new HadamardGate(), i);
+        }
+
+        instance = switch (gate) {
+            case "Hadamard" -> new HadamardGate();
+            case "Identity" -> new IdentityGate();
+            case "PauliX" -> new PauliXGate();
+            case "PauliY" -> new PauliYGate();
+            case "PauliZ" -> new PauliZGate();
+            case "RX" -> new RXGate(0.3);
+            case "RY" -> new RYGate(0.3);
+            case "RZ" -> new RZGate(0.3);
+            case "S" -> new SGate();
+            case "T" -> new TGate();
+            case "TDagger" -> new TDaggerGate();
+            case "Universal" -> new UniversalGate(0.3, 0.5, 0.7);
+            case "CNOT" -> new CNOTGate();
+            case "Swap" -> new SwapGate();
+            case "CCNOT" -> new CCNOTGate();
+            default -> throw new IllegalArgumentException("Unknown gate: " + gate);
+        };
+
+        // Spread the inputs over the register so that both low and high bit positions are exercised
+        qubits = switch (instance.getInputSize()) {
+            case 1 -> new int[]{numQubits / 2};
+            case 2 -> new int[]{0, numQubits - 1};
+            default -> new int[]{0, numQubits / 2, numQubits - 1};
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        register.close();
+    }
+
+    @Benchmark
+    public QuantumRegister apply() {
+        register.applyGate(instance, qubits);
+        return register;
+    }
+}
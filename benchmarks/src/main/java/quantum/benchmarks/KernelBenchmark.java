@@ -0,0 +1,70 @@
+package quantum.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import quantum.core.QuantumRegister;
+import quantum.gates.GateKernels;
+import quantum.gates.IQuantumGate;
+import quantum.gates.MatrixGate;
+import quantum.gates.composit.UniversalGate;
+import quantum.gates.unary.HadamardGate;
+import quantum.gates.unary.TGate;
+
+import java.util.concurrent.TimeUnit;
+
+// The dense single-qubit, two-qubit and diagonal kernels with and without the Vector API, by storage bit
+// position of the (lower) target. Positions below log2 of the amplitudes per vector stay scalar even with
+// simd=true, since both amplitudes of a pair would share one vector and need shuffles.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "--add-modules", "jdk.incubator.vector", "-Xmx6g"})
+@State(Scope.Thread)
+public class KernelBenchmark {
+    @Param({"20", "24"})
+    public int numQubits;
+
+    @Param({"single", "two", "diagonal"})
+    public String kernel;
+
+    @Param({"0", "1", "2", "3", "8", "16"})
+    public int bitPosition;
+
+    @Param({"false", "true"})
+    public boolean simd;
+
+    private QuantumRegister register;
+    private IQuantumGate instance;
+    private int[] qubits;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GateKernels.setSimdEnabled(simd);
+        register = new QuantumRegister(numQubits, 1);
+        for (int i = 0; i < numQubits; i++) {
+            register.applyGate(new HadamardGate(), i);
+        }
+
+        // Qubit q is stored at bit numQubits - 1 - q
+        int target = numQubits - 1 - bitPosition;
+        instance = switch (kernel) {
+            case "single" -> new UniversalGate(0.3, 0.5, 0.7);
+            case "two" -> new MatrixGate(new UniversalGate(0.3, 0.5, 0.7).getMatrix().tensorProduct(new HadamardGate().getMatrix()));
+            case "diagonal" -> new TGate();
+            default -> throw new IllegalArgumentException("Unknown kernel: " + kernel);
+        };
+        // The partner of a two-qubit gate sits at the top bit, so the benchmarked position is the lower one
+        qubits = instance.getInputSize() == 1 ? new int[]{target} : new int[]{target, 0};
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        register.close();
+    }
+
+    @Benchmark
+    public QuantumRegister apply() {
+        register.applyGate(instance, qubits);
+        return register;
+    }
+}
@@ -0,0 +1,53 @@
+package quantum.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import quantum.math.ComplexNumber;
+import quantum.math.Matrix;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "--add-modules", "jdk.incubator.vector", "-Xmx6g"})
+@State(Scope.Thread)
+public class MatrixBenchmark {
+    // Matrices act on this many qubits, i.e. they are 2^numQubits square
+    @Param({"1", "2", "3", "4", "5", "6", "7"})
+    public int numQubits;
+
+    private Matrix left;
+    private Matrix right;
+    private Matrix single;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(1);
+        left = randomMatrix(1 << numQubits, random);
+        right = randomMatrix(1 << numQubits, random);
+        single = randomMatrix(2, random);
+    }
+
+    private static Matrix randomMatrix(int size, Random random) {
+        ComplexNumber[][] elements = new ComplexNumber[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                elements[row][column] = new ComplexNumber(random.nextGaussian(), random.nextGaussian());
+            }
+        }
+        return new Matrix(elements);
+    }
+
+    @Benchmark
+    public Matrix multiply() {
+        return left.multiply(right);
+    }
+
+    // Growing an n-qubit operator by one qubit, the common case when gates are lifted to a larger register
+    @Benchmark
+    public Matrix tensorProduct() {
+        return left.tensorProduct(single);
+    }
+}
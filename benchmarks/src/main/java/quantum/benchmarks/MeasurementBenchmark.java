@@ -0,0 +1,62 @@
+package quantum.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import quantum.core.MeasurementResult;
+import quantum.core.QuantumRegister;
+import quantum.gates.unary.HadamardGate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Measurement collapses the state, so every benchmark puts the measured qubits back into superposition
+// with Hadamards afterwards; the hadamardOnly baseline gives the share of that restoring step.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "--add-modules", "jdk.incubator.vector", "-Xmx6g"})
+@State(Scope.Thread)
+public class MeasurementBenchmark {
+    @Param({"4", "8", "12", "16", "20", "24", "26"})
+    public int numQubits;
+
+    private QuantumRegister register;
+    private HadamardGate hadamard;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        register = new QuantumRegister(numQubits, 1);
+        hadamard = new HadamardGate();
+        for (int i = 0; i < numQubits; i++) {
+            register.applyGate(hadamard, i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        register.close();
+    }
+
+    @Benchmark
+    public MeasurementResult measure() {
+        int qubit = numQubits / 2;
+        MeasurementResult result = register.measure(qubit);
+        register.applyGate(hadamard, qubit);
+        return result;
+    }
+
+    @Benchmark
+    public List<MeasurementResult> measureAll() {
+        List<MeasurementResult> results = register.measureAll();
+        for (int i = 0; i < numQubits; i++) {
+            register.applyGate(hadamard, i);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public QuantumRegister hadamardOnly() {
+        register.applyGate(hadamard, numQubits / 2);
+        return register;
+    }
+}
@@ -2,12 +2,45 @@ package quantum.algorithms;
 
 import quantum.core.QuantumCircuit;
 import quantum.core.QuantumRegister;
+import quantum.core.ShotHistogram;
 import quantum.gates.IQuantumGate;
+import quantum.gates.PermutationOracle;
 import quantum.gates.unary.HadamardGate;
 import quantum.gates.unary.PauliXGate;
 
+import java.util.function.LongPredicate;
+
 public class DeutschJosza {
     public static boolean run(QuantumRegister register, IQuantumGate oracle) {
+        QuantumCircuit circuit = buildCircuit(register, oracle);
+
+        circuit.execute();
+
+        return circuit.getMeasurementResults().stream()
+                .limit(oracle.getInputSize() - 1)
+                .allMatch(result -> result.value() == 0);
+    }
+
+    // Decides whether f, a function of the first n - 1 qubits, is constant or balanced. It is evaluated through
+    // the oracle |x⟩|y⟩ -> |x⟩|y ⊕ f(x)⟩ on the last qubit, applied as a permutation of the amplitudes.
+    public static boolean run(QuantumRegister register, LongPredicate function) {
+        return run(register, oracle(register, function));
+    }
+
+    public static ShotHistogram sample(QuantumRegister register, LongPredicate function, long shots) {
+        return sample(register, oracle(register, function), shots);
+    }
+
+    private static PermutationOracle oracle(QuantumRegister register, LongPredicate function) {
+        return PermutationOracle.xor(register.getNumQubits() - 1, 1, x -> function.test(x) ? 1 : 0);
+    }
+
+    // The oracle is constant exactly when every shot reads outcome 0
+    public static ShotHistogram sample(QuantumRegister register, IQuantumGate oracle, long shots) {
+        return buildCircuit(register, oracle).sample(shots);
+    }
+
+    private static QuantumCircuit buildCircuit(QuantumRegister register, IQuantumGate oracle) {
         int oracleInputSize = oracle.getInputSize();
         if (register.getNumQubits() != oracleInputSize) {
             throw new IllegalArgumentException("DeutschJosza requires " + oracleInputSize + " qubits in the register.");
@@ -35,10 +68,6 @@ public class DeutschJosza {
             circuit.addMeasurement(i);
         }
 
-        circuit.execute();
-
-        return circuit.getMeasurementResults().stream()
-                .limit(oracleInputSize - 1)
-                .allMatch(result -> result.value() == 0);
+        return circuit;
     }
 }
@@ -2,39 +2,58 @@ package quantum.algorithms;
 
 import quantum.core.*;
 import quantum.gates.*;
+import quantum.gates.composit.DiffusionGate;
 import quantum.gates.unary.*;
 
 import java.util.List;
+import java.util.function.LongPredicate;
 
 public class GroversAlgorithm {
 
+    // Searches for a value accepted by the predicate; bit k of the value is qubit k. The solutions are
+    // counted up front so that the optimal number of iterations is used.
+    public static int run(QuantumRegister register, LongPredicate isSolution) {
+        PhaseOracle oracle = new PhaseOracle(register.getNumQubits(), isSolution);
+        return execute(buildCircuit(register, oracle, allQubits(register), oracle.countSolutions()));
+    }
+
+    public static ShotHistogram sample(QuantumRegister register, LongPredicate isSolution, long shots) {
+        PhaseOracle oracle = new PhaseOracle(register.getNumQubits(), isSolution);
+        return buildCircuit(register, oracle, allQubits(register), oracle.countSolutions()).sample(shots);
+    }
+
+    // The oracle is assumed to mark exactly one state. It is given qubits 0..n-1 if it takes n inputs and
+    // applied to the register as a whole otherwise.
     public static int run(QuantumRegister register, IQuantumGate oracle) {
-        int n = register.getNumQubits();
-        QuantumCircuit circuit = new QuantumCircuit(register);
+        return run(register, oracle, 1);
+    }
 
-        for (int i = 0; i < n; i++) {
-            circuit.addGate(new HadamardGate(), i);
-        }
+    public static int run(QuantumRegister register, IQuantumGate oracle, long numSolutions) {
+        return execute(buildCircuit(register, oracle, oracleQubits(register, oracle), numSolutions));
+    }
 
-        int iterations = (int) Math.ceil(Math.sqrt(Math.pow(2, n)));
-        for (int i = 0; i < iterations; i++) {
-            circuit.addGate(oracle);
+    // Simulates the search once and draws the given number of shots; outcomes decode like run()
+    public static ShotHistogram sample(QuantumRegister register, IQuantumGate oracle, long shots) {
+        return sample(register, oracle, 1, shots);
+    }
 
-            for (int j = 0; j < n; j++) {
-                circuit.addGate(new HadamardGate(), j);
-                circuit.addGate(new PauliXGate(), j);
-            }
+    public static ShotHistogram sample(QuantumRegister register, IQuantumGate oracle, long numSolutions, long shots) {
+        return buildCircuit(register, oracle, oracleQubits(register, oracle), numSolutions).sample(shots);
+    }
 
-            for (int j = 0; j < n; j++) {
-                circuit.addGate(new PauliXGate(), j);
-                circuit.addGate(new HadamardGate(), j);
-            }
+    // ⌊π/4 · √(N/M)⌋, which leaves the register closest to the uniform superposition of the M solutions
+    public static int optimalIterations(int numQubits, long numSolutions) {
+        if (numSolutions < 0) {
+            throw new IllegalArgumentException("Number of solutions cannot be negative.");
         }
-
-        for (int i = 0; i < n; i++) {
-            circuit.addMeasurement(i);
+        if (numSolutions == 0) {
+            return 0;
         }
+        double searchSpace = Math.pow(2, numQubits);
+        return (int) Math.floor(Math.PI / 4 * Math.sqrt(searchSpace / numSolutions));
+    }
 
+    private static int execute(QuantumCircuit circuit) {
         circuit.execute();
         List<MeasurementResult> results = circuit.getMeasurementResults();
 
@@ -45,4 +64,39 @@ public class GroversAlgorithm {
 
         return solution;
     }
+
+    private static QuantumCircuit buildCircuit(QuantumRegister register, IQuantumGate oracle, int[] oracleQubits, long numSolutions) {
+        int n = register.getNumQubits();
+        QuantumCircuit circuit = new QuantumCircuit(register);
+
+        for (int i = 0; i < n; i++) {
+            circuit.addGate(new HadamardGate(), i);
+        }
+
+        int iterations = optimalIterations(n, numSolutions);
+        DiffusionGate diffusion = new DiffusionGate(n);
+        int[] qubits = allQubits(register);
+        for (int i = 0; i < iterations; i++) {
+            circuit.addGate(oracle, oracleQubits);
+            circuit.addGate(diffusion, qubits);
+        }
+
+        for (int i = 0; i < n; i++) {
+            circuit.addMeasurement(i);
+        }
+
+        return circuit;
+    }
+
+    private static int[] oracleQubits(QuantumRegister register, IQuantumGate oracle) {
+        return oracle.getInputSize() == register.getNumQubits() ? allQubits(register) : new int[0];
+    }
+
+    private static int[] allQubits(QuantumRegister register) {
+        int[] qubits = new int[register.getNumQubits()];
+        for (int i = 0; i < qubits.length; i++) {
+            qubits[i] = i;
+        }
+        return qubits;
+    }
 }
@@ -0,0 +1,268 @@
+package quantum.core;
+
+import quantum.core.QuantumCircuit.GateOperation;
+import quantum.core.QuantumCircuit.MeasurementOperation;
+import quantum.core.QuantumCircuit.Operation;
+import quantum.gates.GateKernel;
+import quantum.gates.IQuantumGate;
+import quantum.gates.QuantumGate;
+import quantum.gates.binary.SwapGate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// An immutable execution plan. Gates are fused, qubit ids are resolved to storage bit positions and
+// each gate's kernel is chosen once at compile time; swaps are folded into that resolution. The plan
+// holds no per-run state, so it can be executed on many registers, also concurrently from several
+// threads as long as each thread uses its own register.
+public final class CompiledCircuit {
+    private final int numQubits;
+    // The fused circuit, for registers that must see every gate themselves
+    private final List<Operation> operations;
+    private final List<Step> steps;
+    private final int[] finalIndices;
+    private final FusionReport fusionReport;
+    // Set when every measurement comes after the last gate, so that shots can be sampled from one simulation
+    private final int gateStepCount;
+    private final int[] measuredQubitIds;
+    private final int[] measuredBitPositions;
+
+    CompiledCircuit(int numQubits, List<Operation> operations, int maxFusedQubits) {
+        List<Operation> fusedOperations = GateFusion.fuse(operations, maxFusedQubits);
+        this.numQubits = numQubits;
+        this.operations = List.copyOf(fusedOperations);
+        this.fusionReport = new FusionReport(GateFusion.countGates(operations), GateFusion.countGates(fusedOperations));
+
+        // indices[id] is the storage index of qubit id at this point of the circuit
+        List<Step> compiledSteps = new ArrayList<>();
+        int[] indices = identity(numQubits);
+
+        for (Operation operation : fusedOperations) {
+            if (operation instanceof MeasurementOperation measurement) {
+                int qubitId = measurement.qubitId();
+                validateQubitIds(qubitId);
+                compiledSteps.add(new MeasurementStep(qubitId, numQubits - 1 - indices[qubitId]));
+                continue;
+            }
+
+            GateOperation gateOperation = (GateOperation) operation;
+            IQuantumGate gate = gateOperation.gate();
+            int[] qubitIds = gateOperation.qubitIds().clone();
+            validateQubitIds(qubitIds);
+
+            if (gate instanceof QuantumGate quantumGate) {
+                if (quantumGate.getInputSize() != qubitIds.length) {
+                    throw new IllegalArgumentException(gate.getClass().getSimpleName() + " requires exactly " +
+                            quantumGate.getInputSize() + " input qubits, got " + qubitIds.length + ".");
+                }
+
+                if (gate instanceof SwapGate) {
+                    int index = indices[qubitIds[0]];
+                    indices[qubitIds[0]] = indices[qubitIds[1]];
+                    indices[qubitIds[1]] = index;
+                    continue;
+                }
+
+                int[] bitPositions = new int[qubitIds.length];
+                for (int i = 0; i < qubitIds.length; i++) {
+                    bitPositions[i] = numQubits - 1 - indices[qubitIds[i]];
+                }
+                compiledSteps.add(new KernelStep(quantumGate.kernel(bitPositions)));
+                continue;
+            }
+
+            // Gates outside the QuantumGate hierarchy run through the register and leave it in logical order
+            compiledSteps.add(new RegisterGateStep(gate, qubitIds, indices.clone()));
+            indices = identity(numQubits);
+        }
+
+        this.steps = List.copyOf(compiledSteps);
+        this.finalIndices = Arrays.equals(indices, identity(numQubits)) ? null : indices;
+
+        int firstMeasurement = 0;
+        while (firstMeasurement < steps.size() && !(steps.get(firstMeasurement) instanceof MeasurementStep)) {
+            firstMeasurement++;
+        }
+        List<Step> tail = steps.subList(firstMeasurement, steps.size());
+        if (tail.stream().allMatch(step -> step instanceof MeasurementStep) && tail.size() <= Long.SIZE) {
+            this.gateStepCount = firstMeasurement;
+            this.measuredQubitIds = tail.stream().mapToInt(step -> ((MeasurementStep) step).qubitId()).toArray();
+            this.measuredBitPositions = tail.stream().mapToInt(step -> ((MeasurementStep) step).bitPosition()).toArray();
+        } else {
+            this.gateStepCount = -1;
+            this.measuredQubitIds = null;
+            this.measuredBitPositions = null;
+        }
+    }
+
+    public int getNumQubits() {
+        return numQubits;
+    }
+
+    public FusionReport getFusionReport() {
+        return fusionReport;
+    }
+
+    // Runs the plan on the register's current state and returns the measurement results in circuit order
+    public List<MeasurementResult> execute(QuantumRegister register) {
+        if (register.getNumQubits() != numQubits) {
+            throw new IllegalArgumentException("Circuit was compiled for " + numQubits + " qubits, but the register has " +
+                    register.getNumQubits() + ".");
+        }
+
+        if (register.isFileBacked()) {
+            return executeOnRegister(register, operations);
+        }
+
+        register.restoreLogicalOrder();
+        List<MeasurementResult> results = new ArrayList<>();
+        for (Step step : steps) {
+            step.run(register, results);
+        }
+        if (finalIndices != null) {
+            register.setQubitIndices(finalIndices);
+        }
+        return results;
+    }
+
+    public boolean hasTerminalMeasurements() {
+        return gateStepCount >= 0;
+    }
+
+    // Runs the circuit for the given number of shots, starting each shot from the register's current state.
+    // With terminal measurements the gates are simulated once and every shot is drawn from the final
+    // distribution; the register is left in the state just before measurement. Otherwise each shot is
+    // simulated on its own copy of the register. Bit k of an outcome is the result of the k-th measurement.
+    public ShotHistogram sample(QuantumRegister register, long shots) {
+        if (register.getNumQubits() != numQubits) {
+            throw new IllegalArgumentException("Circuit was compiled for " + numQubits + " qubits, but the register has " +
+                    register.getNumQubits() + ".");
+        }
+        if (shots < 0) {
+            throw new IllegalArgumentException("Number of shots cannot be negative.");
+        }
+
+        if (!hasTerminalMeasurements()) {
+            return sampleByRepetition(register, shots);
+        }
+
+        ShotHistogram histogram = new ShotHistogram(measuredQubitIds);
+        if (register.isFileBacked()) {
+            // Only swaps can follow the first measurement, so each bit position is read where it is measured
+            int[] bitPositions = new int[measuredQubitIds.length];
+            int k = 0;
+            for (Operation operation : operations) {
+                if (operation instanceof GateOperation gateOperation) {
+                    register.applyGate(gateOperation.gate(), gateOperation.qubitIds());
+                } else {
+                    bitPositions[k++] = numQubits - 1 - register.getQubit(((MeasurementOperation) operation).qubitId()).getIndex();
+                }
+            }
+            ShotSampler.sample(register.getStorageState(), bitPositions, shots, register.getRandom(), histogram);
+            return histogram;
+        }
+
+        register.restoreLogicalOrder();
+        for (Step step : steps.subList(0, gateStepCount)) {
+            step.run(register, null);
+        }
+        ShotSampler.sample(register.getStorageState(), measuredBitPositions, shots, register.getRandom(), histogram);
+        if (finalIndices != null) {
+            register.setQubitIndices(finalIndices);
+        }
+        return histogram;
+    }
+
+    private ShotHistogram sampleByRepetition(QuantumRegister register, long shots) {
+        ShotHistogram histogram = null;
+        for (long shot = 0; shot < shots; shot++) {
+            try (QuantumRegister copy = register.copy()) {
+                List<MeasurementResult> results = execute(copy);
+                if (histogram == null) {
+                    if (results.size() > Long.SIZE) {
+                        throw new IllegalStateException("Cannot sample more than " + Long.SIZE + " measurements per shot.");
+                    }
+                    histogram = new ShotHistogram(results.stream().mapToInt(MeasurementResult::qubitId).toArray());
+                }
+
+                long outcome = 0;
+                for (int k = 0; k < results.size(); k++) {
+                    outcome |= (long) results.get(k).value() << k;
+                }
+                histogram.increment(outcome);
+            }
+        }
+        return histogram != null ? histogram : new ShotHistogram(measuredQubitIdsOf(steps));
+    }
+
+    // File-backed registers run the fused gates one by one through applyGate, which moves high-order qubits
+    // into the block window first and records the I/O of every gate; precompiled kernels would bypass both
+    private static List<MeasurementResult> executeOnRegister(QuantumRegister register, List<Operation> operations) {
+        List<MeasurementResult> results = new ArrayList<>();
+        for (Operation operation : operations) {
+            if (operation instanceof GateOperation gateOperation) {
+                register.applyGate(gateOperation.gate(), gateOperation.qubitIds());
+            } else {
+                results.add(register.measure(((MeasurementOperation) operation).qubitId()));
+            }
+        }
+        return results;
+    }
+
+    private static int[] measuredQubitIdsOf(List<Step> steps) {
+        return steps.stream()
+                .filter(step -> step instanceof MeasurementStep)
+                .mapToInt(step -> ((MeasurementStep) step).qubitId())
+                .toArray();
+    }
+
+    private void validateQubitIds(int... qubitIds) {
+        for (int i = 0; i < qubitIds.length; i++) {
+            if (qubitIds[i] < 0 || qubitIds[i] >= numQubits) {
+                throw new IllegalArgumentException("Qubit with id " + qubitIds[i] + " does not exist.");
+            }
+            for (int j = 0; j < i; j++) {
+                if (qubitIds[i] == qubitIds[j]) {
+                    throw new IllegalArgumentException("Qubit with id " + qubitIds[i] + " is used twice by the same gate.");
+                }
+            }
+        }
+    }
+
+    private static int[] identity(int numQubits) {
+        int[] indices = new int[numQubits];
+        for (int i = 0; i < numQubits; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    private interface Step {
+        void run(QuantumRegister register, List<MeasurementResult> results);
+    }
+
+    private record KernelStep(GateKernel kernel) implements Step {
+        @Override
+        public void run(QuantumRegister register, List<MeasurementResult> results) {
+            kernel.apply(register.getStorageState());
+            register.adaptStorage();
+        }
+    }
+
+    private record MeasurementStep(int qubitId, int bitPosition) implements Step {
+        @Override
+        public void run(QuantumRegister register, List<MeasurementResult> results) {
+            results.add(register.measureAt(qubitId, bitPosition));
+        }
+    }
+
+    private record RegisterGateStep(IQuantumGate gate, int[] qubitIds, int[] indices) implements Step {
+        @Override
+        public void run(QuantumRegister register, List<MeasurementResult> results) {
+            register.setQubitIndices(indices);
+            register.applyGate(gate, qubitIds);
+            register.restoreLogicalOrder();
+        }
+    }
+}
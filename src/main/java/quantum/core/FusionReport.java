@@ -0,0 +1,16 @@
+package quantum.core;
+
+public record FusionReport(int gatesBefore, int gatesAfter) {
+    public int passesSaved() {
+        return gatesBefore - gatesAfter;
+    }
+
+    @Override
+    public String toString() {
+        return "FusionReport{" +
+                "gatesBefore=" + gatesBefore +
+                ", gatesAfter=" + gatesAfter +
+                ", passesSaved=" + passesSaved() +
+                '}';
+    }
+}
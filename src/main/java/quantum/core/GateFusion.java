@@ -0,0 +1,467 @@
+package quantum.core;
+
+import quantum.core.QuantumCircuit.GateOperation;
+import quantum.core.QuantumCircuit.Operation;
+import quantum.gates.DiagonalGate;
+import quantum.gates.DiagonalGate.Factor;
+import quantum.gates.GateStructure;
+import quantum.gates.MatrixGate;
+import quantum.gates.QuantumGate;
+import quantum.gates.UnaryQuantumGate;
+import quantum.gates.binary.SwapGate;
+import quantum.math.Matrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Merges gates before execution so that the state is swept fewer times.
+final class GateFusion {
+    private static final double IDENTITY_TOLERANCE = 1E-12;
+    // Largest phase table a fused diagonal keeps per factor; 2^8 entries stay in L1
+    private static final int MAX_DIAGONAL_FACTOR_QUBITS = 8;
+
+    private GateFusion() {
+    }
+
+    static List<Operation> fuse(List<Operation> operations, int maxFusedQubits) {
+        if (maxFusedQubits == 0) {
+            return operations;
+        }
+
+        List<Operation> fused = fuseSingleQubitRuns(operations);
+        if (maxFusedQubits > 1) {
+            fused = fuseBlocks(fused, maxFusedQubits);
+        }
+        // Last, so that diagonal single-qubit runs and blocks produced above are merged as well
+        return fuseDiagonalRuns(fused);
+    }
+
+    static int countGates(List<Operation> operations) {
+        int count = 0;
+        for (Operation operation : operations) {
+            if (operation instanceof GateOperation) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Single-qubit gates are held back per qubit until another operation touches that qubit.
+    // Everything emitted in the meantime acts on other qubits and therefore commutes with them.
+    private static List<Operation> fuseSingleQubitRuns(List<Operation> operations) {
+        List<Operation> result = new ArrayList<>();
+        Map<Integer, Block> pending = new TreeMap<>();
+
+        for (Operation operation : operations) {
+            if (!(operation instanceof GateOperation gateOperation)) {
+                flushAll(pending, result);
+                result.add(operation);
+                continue;
+            }
+
+            int[] qubitIds = gateOperation.qubitIds();
+            if (gateOperation.gate() instanceof UnaryQuantumGate gate && qubitIds.length == 1) {
+                Block block = pending.get(qubitIds[0]);
+                if (block == null) {
+                    pending.put(qubitIds[0], new Block(gateOperation));
+                } else {
+                    block.absorb(gateOperation, gate);
+                }
+                continue;
+            }
+
+            if (gateOperation.gate() instanceof QuantumGate) {
+                for (int qubitId : qubitIds) {
+                    Block block = pending.remove(qubitId);
+                    if (block != null) {
+                        block.emit(result);
+                    }
+                }
+            } else {
+                // Opaque gates may act on the whole register regardless of the qubits they were given
+                flushAll(pending, result);
+            }
+            result.add(operation);
+        }
+
+        flushAll(pending, result);
+        return result;
+    }
+
+    // Greedily grows a block of consecutive gates while their combined support fits in maxFusedQubits
+    private static List<Operation> fuseBlocks(List<Operation> operations, int maxFusedQubits) {
+        List<Operation> result = new ArrayList<>();
+        Block block = null;
+
+        for (Operation operation : operations) {
+            if (!isBlockFusable(operation, maxFusedQubits)) {
+                if (block != null) {
+                    block.emit(result);
+                    block = null;
+                }
+                result.add(operation);
+                continue;
+            }
+
+            GateOperation gateOperation = (GateOperation) operation;
+            if (block != null && block.supportWith(gateOperation.qubitIds()) <= maxFusedQubits) {
+                block.absorb(gateOperation, (QuantumGate) gateOperation.gate());
+            } else {
+                if (block != null) {
+                    block.emit(result);
+                }
+                block = new Block(gateOperation);
+            }
+        }
+
+        if (block != null) {
+            block.emit(result);
+        }
+        return result;
+    }
+
+    private static boolean isBlockFusable(Operation operation, int maxFusedQubits) {
+        // Swaps stay separate: on their own they are a free relabeling
+        return operation instanceof GateOperation gateOperation
+                && gateOperation.gate() instanceof QuantumGate gate
+                && !(gate instanceof SwapGate)
+                && gate.getInputSize() == gateOperation.qubitIds().length
+                && gate.getInputSize() <= maxFusedQubits
+                && gate.getMatrix() != null;
+    }
+
+    // Diagonal gates commute with each other, so a run of them becomes one DiagonalGate that costs a single
+    // sweep no matter how many qubits it spans. Gates on qubits the run has not touched commute with it too
+    // and are emitted ahead of it.
+    private static List<Operation> fuseDiagonalRuns(List<Operation> operations) {
+        List<Operation> result = new ArrayList<>();
+        DiagonalBlock block = null;
+
+        for (Operation operation : operations) {
+            if (isDiagonalFusable(operation)) {
+                if (block == null) {
+                    block = new DiagonalBlock((GateOperation) operation);
+                } else {
+                    block.absorb((GateOperation) operation);
+                }
+                continue;
+            }
+
+            if (block != null && operation instanceof GateOperation gateOperation
+                    && gateOperation.gate() instanceof QuantumGate && block.isDisjointFrom(gateOperation.qubitIds())) {
+                result.add(operation);
+                continue;
+            }
+
+            if (block != null) {
+                block.emit(result);
+                block = null;
+            }
+            result.add(operation);
+        }
+
+        if (block != null) {
+            block.emit(result);
+        }
+        return result;
+    }
+
+    private static boolean isDiagonalFusable(Operation operation) {
+        return operation instanceof GateOperation gateOperation
+                && gateOperation.gate() instanceof QuantumGate gate
+                && gate.getStructure() == GateStructure.DIAGONAL
+                && gate.getInputSize() == gateOperation.qubitIds().length
+                && (gate instanceof DiagonalGate || (gate.getInputSize() <= MAX_DIAGONAL_FACTOR_QUBITS && gate.getMatrix() != null));
+    }
+
+    private static void flushAll(Map<Integer, Block> pending, List<Operation> result) {
+        for (Block block : pending.values()) {
+            block.emit(result);
+        }
+        pending.clear();
+    }
+
+    // A product of gates over an ordered list of qubits; the first qubit is the most significant bit
+    private static class Block {
+        private final GateOperation first;
+        private final List<Integer> qubitIds = new ArrayList<>();
+        private double[] matrix;
+        private int gateCount = 1;
+
+        Block(GateOperation first) {
+            this.first = first;
+            for (int qubitId : first.qubitIds()) {
+                qubitIds.add(qubitId);
+            }
+        }
+
+        int supportWith(int[] otherQubitIds) {
+            int support = qubitIds.size();
+            for (int qubitId : otherQubitIds) {
+                if (!qubitIds.contains(qubitId)) {
+                    support++;
+                }
+            }
+            return support;
+        }
+
+        void absorb(GateOperation operation, QuantumGate gate) {
+            if (matrix == null) {
+                matrix = ((QuantumGate) first.gate()).getMatrix().toInterleavedArray();
+            }
+
+            for (int qubitId : operation.qubitIds()) {
+                if (!qubitIds.contains(qubitId)) {
+                    qubitIds.add(qubitId);
+                    matrix = extendWithIdentity(matrix, 1 << (qubitIds.size() - 1));
+                }
+            }
+
+            int[] positions = new int[operation.qubitIds().length];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = qubitIds.indexOf(operation.qubitIds()[i]);
+            }
+
+            double[] embedded = embed(gate.getMatrix().toInterleavedArray(), positions, qubitIds.size());
+            matrix = multiply(embedded, matrix, 1 << qubitIds.size());
+            gateCount++;
+        }
+
+        void emit(List<Operation> result) {
+            if (gateCount == 1) {
+                result.add(first);
+                return;
+            }
+
+            int dimension = 1 << qubitIds.size();
+            if (isIdentity(matrix, dimension)) {
+                return;
+            }
+
+            int[] ids = qubitIds.stream().mapToInt(Integer::intValue).toArray();
+            MatrixGate gate = new MatrixGate(Matrix.fromInterleavedArray(matrix, dimension, dimension));
+            result.add(new GateOperation(gate, ids));
+        }
+    }
+
+    // A product of diagonal gates as phase tables over slots of an ordered qubit list. Each gate is multiplied
+    // into the first table that can take its qubits without growing past MAX_DIAGONAL_FACTOR_QUBITS.
+    private static class DiagonalBlock {
+        private final GateOperation first;
+        private final List<Integer> qubitIds = new ArrayList<>();
+        private final List<int[]> factorSlots = new ArrayList<>();
+        private final List<double[]> factorPhases = new ArrayList<>();
+        private int gateCount;
+
+        DiagonalBlock(GateOperation first) {
+            this.first = first;
+            absorb(first);
+        }
+
+        boolean isDisjointFrom(int[] otherQubitIds) {
+            for (int qubitId : otherQubitIds) {
+                if (qubitIds.contains(qubitId)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void absorb(GateOperation operation) {
+            int[] ids = operation.qubitIds();
+            if (operation.gate() instanceof DiagonalGate diagonal) {
+                for (Factor factor : diagonal.getFactors()) {
+                    int[] factorIds = new int[factor.inputs().length];
+                    for (int t = 0; t < factorIds.length; t++) {
+                        factorIds[t] = ids[factor.inputs()[t]];
+                    }
+                    addFactor(factorIds, factor.phases());
+                }
+            } else {
+                Matrix matrix = ((QuantumGate) operation.gate()).getMatrix();
+                double[] phases = new double[2 * matrix.getRowCount()];
+                for (int j = 0; j < matrix.getRowCount(); j++) {
+                    phases[2 * j] = matrix.getReal(j, j);
+                    phases[2 * j + 1] = matrix.getImaginary(j, j);
+                }
+                addFactor(ids, phases);
+            }
+            gateCount++;
+        }
+
+        private void addFactor(int[] ids, double[] phases) {
+            int[] slots = new int[ids.length];
+            for (int t = 0; t < ids.length; t++) {
+                if (!qubitIds.contains(ids[t])) {
+                    qubitIds.add(ids[t]);
+                }
+                slots[t] = qubitIds.indexOf(ids[t]);
+            }
+
+            for (int f = 0; f < factorSlots.size(); f++) {
+                int[] union = union(factorSlots.get(f), slots);
+                if (union.length <= MAX_DIAGONAL_FACTOR_QUBITS) {
+                    factorPhases.set(f, multiplyPhases(factorPhases.get(f), factorSlots.get(f).length, phases, slots, union));
+                    factorSlots.set(f, union);
+                    return;
+                }
+            }
+            factorSlots.add(slots);
+            factorPhases.add(phases);
+        }
+
+        void emit(List<Operation> result) {
+            if (gateCount == 1) {
+                result.add(first);
+                return;
+            }
+
+            List<Factor> factors = new ArrayList<>();
+            for (int f = 0; f < factorSlots.size(); f++) {
+                if (!isUnitPhase(factorPhases.get(f))) {
+                    factors.add(new Factor(factorSlots.get(f), factorPhases.get(f)));
+                }
+            }
+            if (factors.isEmpty()) {
+                return;
+            }
+
+            int[] ids = qubitIds.stream().mapToInt(Integer::intValue).toArray();
+            result.add(new GateOperation(new DiagonalGate(ids.length, factors), ids));
+        }
+    }
+
+    // The slots of a followed by those of b that a does not already contain
+    private static int[] union(int[] a, int[] b) {
+        int[] union = Arrays.copyOf(a, a.length + b.length);
+        int size = a.length;
+        for (int slot : b) {
+            boolean present = false;
+            for (int t = 0; t < a.length; t++) {
+                present |= a[t] == slot;
+            }
+            if (!present) {
+                union[size++] = slot;
+            }
+        }
+        return Arrays.copyOf(union, size);
+    }
+
+    // Phase table over union from a table over its first aBits slots and one over the slots listed in bSlots
+    private static double[] multiplyPhases(double[] a, int aBits, double[] b, int[] bSlots, int[] union) {
+        int unionBits = union.length;
+        int[] bShifts = new int[bSlots.length];
+        for (int t = 0; t < bSlots.length; t++) {
+            for (int u = 0; u < unionBits; u++) {
+                if (union[u] == bSlots[t]) {
+                    bShifts[t] = unionBits - 1 - u;
+                }
+            }
+        }
+
+        double[] result = new double[2 << unionBits];
+        for (int entry = 0; entry < 1 << unionBits; entry++) {
+            int aEntry = entry >> (unionBits - aBits);
+            int bEntry = 0;
+            for (int shift : bShifts) {
+                bEntry = (bEntry << 1) | ((entry >> shift) & 1);
+            }
+            double ar = a[2 * aEntry], ai = a[2 * aEntry + 1];
+            double br = b[2 * bEntry], bi = b[2 * bEntry + 1];
+            result[2 * entry] = ar * br - ai * bi;
+            result[2 * entry + 1] = ar * bi + ai * br;
+        }
+        return result;
+    }
+
+    private static boolean isUnitPhase(double[] phases) {
+        for (int j = 0; j < phases.length; j += 2) {
+            if (Math.abs(phases[j] - 1) > IDENTITY_TOLERANCE || Math.abs(phases[j + 1]) > IDENTITY_TOLERANCE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // m ⊗ I, appending a new least significant qubit
+    private static double[] extendWithIdentity(double[] m, int dimension) {
+        int newDimension = 2 * dimension;
+        double[] result = new double[2 * newDimension * newDimension];
+        for (int row = 0; row < dimension; row++) {
+            for (int col = 0; col < dimension; col++) {
+                for (int bit = 0; bit < 2; bit++) {
+                    int target = 2 * ((2 * row + bit) * newDimension + 2 * col + bit);
+                    result[target] = m[2 * (row * dimension + col)];
+                    result[target + 1] = m[2 * (row * dimension + col) + 1];
+                }
+            }
+        }
+        return result;
+    }
+
+    // Lifts a gate matrix onto the block's qubits; positions[t] is the block slot of the gate's t-th qubit
+    private static double[] embed(double[] gate, int[] positions, int numQubits) {
+        int dimension = 1 << numQubits;
+        int gateBits = positions.length;
+        int gateDimension = 1 << gateBits;
+        int gateMask = 0;
+        for (int position : positions) {
+            gateMask |= 1 << (numQubits - 1 - position);
+        }
+
+        double[] result = new double[2 * dimension * dimension];
+        for (int row = 0; row < dimension; row++) {
+            for (int col = 0; col < dimension; col++) {
+                if ((row & ~gateMask) != (col & ~gateMask)) {
+                    continue;
+                }
+                int gateRow = 0;
+                int gateCol = 0;
+                for (int t = 0; t < gateBits; t++) {
+                    int bit = numQubits - 1 - positions[t];
+                    gateRow = (gateRow << 1) | ((row >> bit) & 1);
+                    gateCol = (gateCol << 1) | ((col >> bit) & 1);
+                }
+                result[2 * (row * dimension + col)] = gate[2 * (gateRow * gateDimension + gateCol)];
+                result[2 * (row * dimension + col) + 1] = gate[2 * (gateRow * gateDimension + gateCol) + 1];
+            }
+        }
+        return result;
+    }
+
+    private static double[] multiply(double[] a, double[] b, int dimension) {
+        double[] result = new double[2 * dimension * dimension];
+        for (int row = 0; row < dimension; row++) {
+            for (int k = 0; k < dimension; k++) {
+                double ar = a[2 * (row * dimension + k)];
+                double ai = a[2 * (row * dimension + k) + 1];
+                if (ar == 0 && ai == 0) {
+                    continue;
+                }
+                for (int col = 0; col < dimension; col++) {
+                    double br = b[2 * (k * dimension + col)];
+                    double bi = b[2 * (k * dimension + col) + 1];
+                    result[2 * (row * dimension + col)] += ar * br - ai * bi;
+                    result[2 * (row * dimension + col) + 1] += ar * bi + ai * br;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isIdentity(double[] m, int dimension) {
+        for (int row = 0; row < dimension; row++) {
+            for (int col = 0; col < dimension; col++) {
+                double expectedReal = row == col ? 1 : 0;
+                if (Math.abs(m[2 * (row * dimension + col)] - expectedReal) > IDENTITY_TOLERANCE
+                        || Math.abs(m[2 * (row * dimension + col) + 1]) > IDENTITY_TOLERANCE) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,13 @@
+package quantum.core;
+
+public record GateIoStatistics(String operation, long bytesPagedIn, long nanos) {
+    public double throughputBytesPerSecond() {
+        return nanos == 0 ? 0 : bytesPagedIn * 1E9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %.1f MiB paged in, %.2f ms, %.1f MiB/s", operation, bytesPagedIn / 1048576.0,
+                nanos / 1E6, throughputBytesPerSecond() / 1048576.0);
+    }
+}
@@ -0,0 +1,93 @@
+package quantum.core;
+
+import quantum.math.Parallelism;
+import quantum.math.SparseAmplitudeBuffer;
+import quantum.math.Vector;
+
+// Joint outcome probabilities of a few bit positions, computed in a single pass over the state.
+final class Marginals {
+    // Largest number of bits tabulated at once (a 2^20 entry table)
+    static final int MAX_BITS = 20;
+
+    private Marginals() {
+    }
+
+    // Bit k of the table index is the value of bitPositions[k]. Basis indices are packed with Long.compress,
+    // which orders the bits by ascending position; the small table is reordered afterwards instead.
+    static double[] of(Vector state, int[] bitPositions) {
+        int numBits = bitPositions.length;
+        if (numBits > MAX_BITS) {
+            throw new IllegalArgumentException("Cannot tabulate the joint distribution of " + numBits + " qubits.");
+        }
+
+        long mask = mask(bitPositions);
+        double[] packed = state.getBuffer() instanceof SparseAmplitudeBuffer sparse
+                ? sparseMarginals(state, sparse, numBits, mask)
+                : Parallelism.sum(state.length(), 1 << numBits, (from, to, partial) -> {
+            for (long i = from; i < to; i++) {
+                double probability = state.magnitudeSquared(i);
+                if (probability != 0) {
+                    partial[(int) Long.compress(i, mask)] += probability;
+                }
+            }
+        });
+
+        // rank[k] is the packed bit that holds bitPositions[k]
+        int[] rank = new int[numBits];
+        boolean ascending = true;
+        for (int k = 0; k < numBits; k++) {
+            rank[k] = Long.bitCount(mask & ((1L << bitPositions[k]) - 1));
+            ascending &= rank[k] == k;
+        }
+        if (ascending) {
+            return packed;
+        }
+
+        double[] ordered = new double[packed.length];
+        for (int outcome = 0; outcome < ordered.length; outcome++) {
+            int packedIndex = 0;
+            for (int k = 0; k < numBits; k++) {
+                packedIndex |= ((outcome >> k) & 1) << rank[k];
+            }
+            ordered[outcome] = packed[packedIndex];
+        }
+        return ordered;
+    }
+
+    private static double[] sparseMarginals(Vector state, SparseAmplitudeBuffer sparse, int numBits, long mask) {
+        double[] packed = new double[1 << numBits];
+        for (long i : sparse.nonZeroIndices()) {
+            packed[(int) Long.compress(i, mask)] += state.magnitudeSquared(i);
+        }
+        return packed;
+    }
+
+    static long mask(int[] bitPositions) {
+        long mask = 0;
+        for (int bitPosition : bitPositions) {
+            if ((mask & (1L << bitPosition)) != 0) {
+                throw new IllegalArgumentException("Bit position " + bitPosition + " is listed twice.");
+            }
+            mask |= 1L << bitPosition;
+        }
+        return mask;
+    }
+
+    // Basis-state bits selected by an outcome whose bit k is the value of bitPositions[k]
+    static long basisBits(long outcome, int[] bitPositions) {
+        long bits = 0;
+        for (int k = 0; k < bitPositions.length; k++) {
+            bits |= ((outcome >>> k) & 1) << bitPositions[k];
+        }
+        return bits;
+    }
+
+    // Inverse of basisBits
+    static long outcome(long basisState, int[] bitPositions) {
+        long outcome = 0;
+        for (int k = 0; k < bitPositions.length; k++) {
+            outcome |= ((basisState >>> bitPositions[k]) & 1) << k;
+        }
+        return outcome;
+    }
+}
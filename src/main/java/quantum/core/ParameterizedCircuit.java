@@ -0,0 +1,198 @@
+package quantum.core;
+
+import quantum.core.QuantumCircuit.GateOperation;
+import quantum.core.QuantumCircuit.Operation;
+import quantum.gates.IQuantumGate;
+import quantum.gates.ParameterizedGate;
+import quantum.math.Parallelism;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+
+// A circuit template mixing fixed gates with gates whose angles come from a parameter vector, for
+// variational workloads that run the same shape over many parameter points.
+public final class ParameterizedCircuit {
+    @FunctionalInterface
+    public interface SweepObserver {
+        // Called once per point from a pool thread; the register is only valid for the duration of the call
+        void accept(int point, QuantumRegister register);
+    }
+
+    private final int numQubits;
+    private final Random random;
+    private final List<TemplateGate> gates;
+    private int numParameters;
+    private int maxFusedQubits = 1;
+    // State after the parameter-independent prefix, kept between sweeps until the template changes
+    private QuantumRegister prefixState;
+    private int prefixLength;
+
+    public ParameterizedCircuit(int numQubits) {
+        this(numQubits, new Random());
+    }
+
+    // Seeds the generator of every sweep point, so that measurements in an observer are reproducible
+    public ParameterizedCircuit(int numQubits, Random random) {
+        if (numQubits < 1) {
+            throw new IllegalArgumentException("Unsupported number of qubits: " + numQubits);
+        }
+
+        this.numQubits = numQubits;
+        this.random = random;
+        this.gates = new ArrayList<>();
+    }
+
+    public void addGate(IQuantumGate gate, int... qubitIds) {
+        add(new TemplateGate(gate, null, qubitIds.clone()), gate.getInputSize());
+    }
+
+    public void addGate(ParameterizedGate gate, int... qubitIds) {
+        add(new TemplateGate(null, gate, qubitIds.clone()), gate.getInputSize());
+        for (int parameter : gate.getParameters()) {
+            numParameters = Math.max(numParameters, parameter + 1);
+        }
+    }
+
+    // Largest gate the fixed prefix may be fused into; see QuantumCircuit.setMaxFusedQubits
+    public void setMaxFusedQubits(int maxFusedQubits) {
+        if (maxFusedQubits < 0) {
+            throw new IllegalArgumentException("Maximum fused gate size cannot be negative.");
+        }
+        this.maxFusedQubits = maxFusedQubits;
+        prefixState = null;
+    }
+
+    public int getNumQubits() {
+        return numQubits;
+    }
+
+    // Length a parameter point needs: one more than the highest parameter index in use
+    public int getNumParameters() {
+        return numParameters;
+    }
+
+    // The concrete circuit for one parameter point
+    public QuantumCircuit bind(double[] point) {
+        QuantumCircuit circuit = new QuantumCircuit(numQubits);
+        circuit.setMaxFusedQubits(maxFusedQubits);
+        for (TemplateGate gate : gates) {
+            circuit.addGate(gate.bind(point), gate.qubitIds());
+        }
+        return circuit;
+    }
+
+    // Runs every point and hands its final state to the observer as soon as it is ready. Gates before the
+    // first parameterized gate are compiled and simulated once; each point starts from a copy of that
+    // state. Points are spread over the Parallelism pool, so at most about one state per pool thread is
+    // alive at a time, and the observer must be thread-safe. Each point measures with its own generator,
+    // seeded in point order, so results do not depend on which thread runs which point.
+    public void sweep(double[][] points, SweepObserver observer) {
+        for (double[] point : points) {
+            if (point.length < numParameters) {
+                throw new IllegalArgumentException("Every point needs " + numParameters + " parameters, got " + point.length + ".");
+            }
+        }
+
+        QuantumRegister prefix = simulatePrefix();
+        long[] seeds = new long[points.length];
+        for (int p = 0; p < seeds.length; p++) {
+            seeds[p] = random.nextLong();
+        }
+        Parallelism.getPool().invoke(new PointTask(points, seeds, 0, points.length, prefix, prefixLength, observer));
+    }
+
+    // Reduces every point's final state to a number, e.g. an expectation value, without keeping the states
+    public double[] sweep(double[][] points, ToDoubleFunction<QuantumRegister> evaluator) {
+        double[] results = new double[points.length];
+        sweep(points, (point, register) -> results[point] = evaluator.applyAsDouble(register));
+        return results;
+    }
+
+    private synchronized QuantumRegister simulatePrefix() {
+        if (prefixState != null) {
+            return prefixState;
+        }
+
+        List<Operation> prefix = new ArrayList<>();
+        prefixLength = 0;
+        while (prefixLength < gates.size() && gates.get(prefixLength).parameterized() == null) {
+            TemplateGate gate = gates.get(prefixLength++);
+            prefix.add(new GateOperation(gate.fixed(), gate.qubitIds()));
+        }
+
+        QuantumRegister state = new QuantumRegister(numQubits);
+        new CompiledCircuit(numQubits, prefix, maxFusedQubits).execute(state);
+        // Copies read the shared state concurrently, which is only safe once it is in logical order
+        state.restoreLogicalOrder();
+        prefixState = state;
+        return state;
+    }
+
+    private void runPoint(double[] point, QuantumRegister register, int prefixLength) {
+        for (TemplateGate gate : gates.subList(prefixLength, gates.size())) {
+            register.applyGate(gate.bind(point), gate.qubitIds());
+        }
+    }
+
+    private void add(TemplateGate gate, int inputSize) {
+        if (gate.qubitIds().length != inputSize) {
+            throw new IllegalArgumentException("Gate requires exactly " + inputSize + " input qubits, got " + gate.qubitIds().length + ".");
+        }
+        for (int id : gate.qubitIds()) {
+            if (id < 0 || id >= numQubits) {
+                throw new IllegalArgumentException("Qubit with id " + id + " does not exist.");
+            }
+        }
+        gates.add(gate);
+        prefixState = null;
+    }
+
+    // Exactly one of fixed and parameterized is set
+    private record TemplateGate(IQuantumGate fixed, ParameterizedGate parameterized, int[] qubitIds) {
+        IQuantumGate bind(double[] point) {
+            return parameterized != null ? parameterized.bind(point) : fixed;
+        }
+    }
+
+    // Fork/join tasks are never serialized
+    @SuppressWarnings("serial")
+    private class PointTask extends RecursiveAction {
+        private final double[][] points;
+        private final long[] seeds;
+        private final int from;
+        private final int to;
+        private final QuantumRegister prefixState;
+        private final int prefixLength;
+        private final SweepObserver observer;
+
+        PointTask(double[][] points, long[] seeds, int from, int to, QuantumRegister prefixState, int prefixLength, SweepObserver observer) {
+            this.points = points;
+            this.seeds = seeds;
+            this.from = from;
+            this.to = to;
+            this.prefixState = prefixState;
+            this.prefixLength = prefixLength;
+            this.observer = observer;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PointTask(points, seeds, from, middle, prefixState, prefixLength, observer),
+                        new PointTask(points, seeds, middle, to, prefixState, prefixLength, observer));
+                return;
+            }
+            if (to == from) {
+                return;
+            }
+
+            QuantumRegister register = prefixState.copy(new Random(seeds[from]));
+            runPoint(points[from], register, prefixLength);
+            observer.accept(from, register);
+        }
+    }
+}
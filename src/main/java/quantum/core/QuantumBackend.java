@@ -0,0 +1,13 @@
+package quantum.core;
+
+import quantum.gates.IQuantumGate;
+
+// A simulator that a QuantumCircuit can run on: a state-vector register, a stabilizer tableau or a
+// matrix product state
+public interface QuantumBackend {
+    int getNumQubits();
+
+    void applyGate(IQuantumGate gate, int... qubitIds);
+
+    MeasurementResult measure(int qubitId);
+}
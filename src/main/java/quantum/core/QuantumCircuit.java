@@ -1,17 +1,38 @@
 package quantum.core;
 
 import quantum.gates.IQuantumGate;
+import quantum.stabilizer.StabilizerTableau;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 public class QuantumCircuit {
     private final QuantumRegister register;
+    private final int numQubits;
+    private final Random random;
     private final List<Operation> operations;
     private final List<MeasurementResult> measurementResults;
+    private int maxFusedQubits = 1;
+    private FusionReport fusionReport;
 
     public QuantumCircuit(QuantumRegister register) {
+        this(register, register.getNumQubits(), null);
+    }
+
+    // A circuit that is not bound to a register; execute() starts it from |0...0⟩ every time
+    public QuantumCircuit(int numQubits) {
+        this(numQubits, new Random());
+    }
+
+    public QuantumCircuit(int numQubits, Random random) {
+        this(null, numQubits, random);
+    }
+
+    private QuantumCircuit(QuantumRegister register, int numQubits, Random random) {
         this.register = register;
+        this.numQubits = numQubits;
+        this.random = random;
         this.operations = new ArrayList<>();
         this.measurementResults = new ArrayList<>();
     }
@@ -24,42 +45,164 @@ public class QuantumCircuit {
         operations.add(new MeasurementOperation(qubitId));
     }
 
-    public void execute() {
+    // 0 disables fusion, 1 merges runs of single-qubit gates on the same qubit (the default),
+    // k > 1 additionally merges consecutive gates acting on at most k qubits into one dense block
+    public void setMaxFusedQubits(int maxFusedQubits) {
+        if (maxFusedQubits < 0) {
+            throw new IllegalArgumentException("Maximum number of fused qubits cannot be negative.");
+        }
+        this.maxFusedQubits = maxFusedQubits;
+    }
+
+    public int getNumQubits() {
+        return numQubits;
+    }
+
+    // True when every gate can be simulated by a stabilizer tableau (H, S, Paulis, CNOT, SWAP, CZ, CY)
+    public boolean isClifford() {
         for (Operation operation : operations) {
+            if (operation instanceof GateOperation gateOperation && !StabilizerTableau.supports(gateOperation.gate())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void execute() {
+        if (register == null) {
+            executeUnbound();
+            return;
+        }
+
+        List<Operation> fusedOperations = GateFusion.fuse(operations, maxFusedQubits);
+        fusionReport = new FusionReport(GateFusion.countGates(operations), GateFusion.countGates(fusedOperations));
+
+        for (Operation operation : fusedOperations) {
             operation.execute(register);
         }
     }
 
+    // Runs the circuit on any backend and returns the measurement results of this run. Gates are only
+    // fused for state-vector registers; other backends receive the gates as they were added.
+    public List<MeasurementResult> execute(QuantumBackend backend) {
+        if (backend.getNumQubits() != numQubits) {
+            throw new IllegalArgumentException("Circuit has " + numQubits + " qubits, but the backend has " +
+                    backend.getNumQubits() + ".");
+        }
+
+        List<Operation> backendOperations = backend instanceof QuantumRegister
+                ? GateFusion.fuse(operations, maxFusedQubits)
+                : operations;
+        List<MeasurementResult> results = new ArrayList<>();
+        for (Operation operation : backendOperations) {
+            if (operation instanceof GateOperation gateOperation) {
+                backend.applyGate(gateOperation.gate(), gateOperation.qubitIds());
+            } else {
+                results.add(backend.measure(((MeasurementOperation) operation).qubitId()));
+            }
+        }
+        return results;
+    }
+
+    // Clifford-only circuits run on a stabilizer tableau in polynomial time, which also works far beyond
+    // the size of any state vector; everything else runs on a fresh state-vector register.
+    private void executeUnbound() {
+        if (!isClifford()) {
+            try (QuantumRegister fresh = new QuantumRegister(numQubits, random)) {
+                CompiledCircuit compiled = compile();
+                fusionReport = compiled.getFusionReport();
+                measurementResults.addAll(compiled.execute(fresh));
+            }
+            return;
+        }
+
+        measurementResults.addAll(execute(new StabilizerTableau(numQubits, random)));
+        int gateCount = GateFusion.countGates(operations);
+        fusionReport = new FusionReport(gateCount, gateCount);
+    }
+
     public List<MeasurementResult> getMeasurementResults() {
         return measurementResults;
     }
 
-    private interface Operation {
-        void execute(QuantumRegister register);
-    }
+    // Runs the circuit for many shots, on the bound register or from |0...0⟩; see CompiledCircuit.sample.
+    // Unbound Clifford circuits simulate the gates before the first measurement once and replay the rest
+    // of the circuit per shot on a copy of the tableau.
+    public ShotHistogram sample(long shots) {
+        if (register != null) {
+            return compile().sample(register, shots);
+        }
+        if (!isClifford()) {
+            try (QuantumRegister fresh = new QuantumRegister(numQubits, random)) {
+                return compile().sample(fresh, shots);
+            }
+        }
+        if (shots < 0) {
+            throw new IllegalArgumentException("Number of shots cannot be negative.");
+        }
 
-    private static class GateOperation implements Operation {
-        private final IQuantumGate gate;
-        private final int[] qubitIds;
+        int firstMeasurement = 0;
+        StabilizerTableau prefix = new StabilizerTableau(numQubits, random);
+        while (firstMeasurement < operations.size() && operations.get(firstMeasurement) instanceof GateOperation gateOperation) {
+            prefix.applyGate(gateOperation.gate(), gateOperation.qubitIds());
+            firstMeasurement++;
+        }
 
-        public GateOperation(IQuantumGate gate, int[] qubitIds) {
-            this.gate = gate;
-            this.qubitIds = qubitIds;
+        List<Operation> rest = operations.subList(firstMeasurement, operations.size());
+        int[] measuredQubitIds = rest.stream()
+                .filter(operation -> operation instanceof MeasurementOperation)
+                .mapToInt(operation -> ((MeasurementOperation) operation).qubitId())
+                .toArray();
+        ShotHistogram histogram = new ShotHistogram(measuredQubitIds);
+
+        for (long shot = 0; shot < shots; shot++) {
+            StabilizerTableau tableau = prefix.copy();
+            long outcome = 0;
+            int k = 0;
+            for (Operation operation : rest) {
+                if (operation instanceof GateOperation gateOperation) {
+                    tableau.applyGate(gateOperation.gate(), gateOperation.qubitIds());
+                } else {
+                    outcome |= (long) tableau.measure(((MeasurementOperation) operation).qubitId()).value() << k++;
+                }
+            }
+            histogram.increment(outcome);
         }
+        return histogram;
+    }
+
+    // Snapshot of the current operations that can be executed on any register of the same size
+    public CompiledCircuit compile() {
+        return new CompiledCircuit(numQubits, operations, maxFusedQubits);
+    }
+
+    // Passes saved by gate fusion during the last execute()
+    public FusionReport getFusionReport() {
+        return fusionReport;
+    }
 
+    interface Operation {
+        void execute(QuantumRegister register);
+    }
+
+    record GateOperation(IQuantumGate gate, int[] qubitIds) implements Operation {
         @Override
         public void execute(QuantumRegister register) {
             register.applyGate(gate, qubitIds);
         }
     }
 
-    private class MeasurementOperation implements Operation {
+    class MeasurementOperation implements Operation {
         private final int qubitId;
 
         public MeasurementOperation(int qubitId) {
             this.qubitId = qubitId;
         }
 
+        int qubitId() {
+            return qubitId;
+        }
+
         @Override
         public void execute(QuantumRegister register) {
             MeasurementResult measurement = register.measure(qubitId);
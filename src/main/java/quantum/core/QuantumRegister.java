@@ -1,26 +1,114 @@
 package quantum.core;
 
+import quantum.gates.GateKernels;
 import quantum.gates.IQuantumGate;
-import quantum.math.ComplexNumber;
+import quantum.gates.QuantumGate;
+import quantum.math.AmplitudeBuffer;
+import quantum.math.HeapAmplitudeBuffer;
+import quantum.math.MappedAmplitudeBuffer;
+import quantum.math.OffHeapAmplitudeBuffer;
+import quantum.math.Parallelism;
+import quantum.math.SparseAmplitudeBuffer;
 import quantum.math.Vector;
 
-import static utils.Utils.reverseBits;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 
-public class QuantumRegister {
+public class QuantumRegister implements QuantumBackend, AutoCloseable {
     private Vector globalState;
     private int numQubits;
     private Qubit[] qubits;
+    private final Random random;
+    private final List<GateIoStatistics> ioStatistics = new ArrayList<>();
+    private final long[] lastUse;
+    private long operationCount;
+    private SparsePolicy sparsePolicy;
 
     public QuantumRegister(int numQubits) {
+        this(numQubits, new Random());
+    }
+
+    public QuantumRegister(int numQubits, long seed) {
+        this(numQubits, new Random(seed));
+    }
+
+    public QuantumRegister(int numQubits, Random random) {
+        this(numQubits, new HeapAmplitudeBuffer(stateCount(numQubits)), random);
+    }
+
+    // The buffer must be freshly allocated (all amplitudes zero); the register takes ownership of it
+    public QuantumRegister(int numQubits, AmplitudeBuffer amplitudes, Random random) {
+        this(numQubits, new Vector(checkedBuffer(numQubits, amplitudes)), random);
+        this.globalState.set(0, 1, 0);
+    }
+
+    private QuantumRegister(int numQubits, Vector state, Random random) {
         this.numQubits = numQubits;
-        this.globalState = globalZeroState(numQubits);
+        this.random = random;
+        this.globalState = state;
         this.qubits = new Qubit[numQubits];
         for (int i = 0; i < numQubits; i++) {
             qubits[i] = new Qubit(i, i);
         }
+        this.lastUse = new long[numQubits];
+    }
+
+    private static AmplitudeBuffer checkedBuffer(int numQubits, AmplitudeBuffer amplitudes) {
+        if (amplitudes.length() != stateCount(numQubits)) {
+            throw new IllegalArgumentException("A register of " + numQubits + " qubits needs " + stateCount(numQubits) +
+                    " amplitudes, but the buffer holds " + amplitudes.length() + ".");
+        }
+        return amplitudes;
+    }
+
+    // Keeps the amplitudes outside the GC heap; requires --enable-preview on Java 21
+    public static QuantumRegister offHeap(int numQubits) {
+        return offHeap(numQubits, new Random());
+    }
+
+    public static QuantumRegister offHeap(int numQubits, Random random) {
+        return new QuantumRegister(numQubits, new OffHeapAmplitudeBuffer(stateCount(numQubits)), random);
+    }
+
+    // Keeps the amplitudes in a memory-mapped file; per-operation paging is reported by getIoStatistics()
+    public static QuantumRegister fileBacked(int numQubits, Path file) {
+        return fileBacked(numQubits, file, new Random());
+    }
+
+    public static QuantumRegister fileBacked(int numQubits, Path file, Random random) {
+        return new QuantumRegister(numQubits, new MappedAmplitudeBuffer(file, stateCount(numQubits), false), random);
+    }
+
+    // Starts with sparse storage that holds only the nonzero amplitudes. The register switches to a dense
+    // heap array when the state fills up, and back to sparse storage when a measurement empties it again.
+    public static QuantumRegister sparse(int numQubits) {
+        return sparse(numQubits, SparsePolicy.DEFAULT, new Random());
+    }
+
+    public static QuantumRegister sparse(int numQubits, SparsePolicy policy, Random random) {
+        QuantumRegister register = new QuantumRegister(numQubits,
+                new SparseAmplitudeBuffer(stateCount(numQubits), policy.epsilon()), random);
+        register.sparsePolicy = policy;
+        return register;
+    }
+
+    boolean isFileBacked() {
+        return mappedBuffer() != null;
+    }
+
+    public boolean isSparse() {
+        return globalState.getBuffer() instanceof SparseAmplitudeBuffer;
+    }
+
+    public List<GateIoStatistics> getIoStatistics() {
+        return Collections.unmodifiableList(ioStatistics);
     }
 
     public Vector getState() {
+        restoreLogicalOrder();
         return globalState;
     }
 
@@ -29,74 +117,346 @@ public class QuantumRegister {
     }
 
     public Qubit getQubit(int id) {
-        for (Qubit qubit : qubits) {
-            if (qubit.getId() == id) {
-                return qubit;
-            }
+        if (id < 0 || id >= numQubits) {
+            throw new IllegalArgumentException("Qubit with id " + id + " does not exist.");
         }
 
-        throw new IllegalArgumentException("Qubit with id " + id + " does not exist.");
+        return qubits[id];
     }
 
     public void applyGate(IQuantumGate gate, int... qubitIds) {
+        // Gates outside the QuantumGate hierarchy may assume qubit id == storage index
+        if (!(gate instanceof QuantumGate)) {
+            restoreLogicalOrder();
+        }
+
         Qubit[] inputQubits = new Qubit[qubitIds.length];
         for (int i = 0; i < qubitIds.length; i++) {
             inputQubits[i] = getQubit(qubitIds[i]);
         }
 
+        long start = beginIo();
+        if (gate instanceof QuantumGate && mappedBuffer() != null) {
+            localizeQubits(inputQubits, MappedAmplitudeBuffer.BLOCK_AMPLITUDE_SHIFT);
+        }
         globalState = gate.apply(globalState, qubits, inputQubits);
+        endIo(gate.getClass().getSimpleName(), start);
+        adaptStorage();
     }
 
     public MeasurementResult measure(int qubitId) {
-        Qubit qubit = getQubit(qubitId);
+        return measureAt(qubitId, bitPosition(getQubit(qubitId)));
+    }
 
-        double probabilityOfZero = getProbabilityOfZero(qubit);
-        double random = Math.random();
-        int measurementResult = (random < probabilityOfZero) ? 0 : 1;
+    // Measures the qubit stored at an already resolved bit position, as done by compiled circuits
+    MeasurementResult measureAt(int qubitId, int bitPosition) {
+        long bits = measureBits(new int[]{bitPosition}, "Measurement");
+        return new MeasurementResult(qubitId, (int) ((bits >>> bitPosition) & 1));
+    }
 
-        globalState = collapseQubitState(qubit, measurementResult);
+    // Measures the given qubits jointly; the results follow the order of qubitIds
+    public List<MeasurementResult> measure(int... qubitIds) {
+        int[] bitPositions = new int[qubitIds.length];
+        for (int k = 0; k < qubitIds.length; k++) {
+            bitPositions[k] = bitPosition(getQubit(qubitIds[k]));
+            for (int j = 0; j < k; j++) {
+                if (qubitIds[j] == qubitIds[k]) {
+                    throw new IllegalArgumentException("Qubit with id " + qubitIds[k] + " is measured twice.");
+                }
+            }
+        }
 
-        return new MeasurementResult(qubitId, measurementResult);
+        long bits = measureBits(bitPositions, "Measurement(" + qubitIds.length + ")");
+
+        List<MeasurementResult> results = new ArrayList<>(qubitIds.length);
+        for (int k = 0; k < qubitIds.length; k++) {
+            results.add(new MeasurementResult(qubitIds[k], (int) ((bits >>> bitPositions[k]) & 1)));
+        }
+        return results;
+    }
+
+    public List<MeasurementResult> measureAll() {
+        int[] qubitIds = new int[numQubits];
+        for (int i = 0; i < numQubits; i++) {
+            qubitIds[i] = i;
+        }
+        return measure(qubitIds);
     }
 
     double getProbabilityOfZero(Qubit qubit) {
-        double probability = 0.0;
+        return Marginals.of(globalState, new int[]{bitPosition(qubit)})[0];
+    }
+
+    // Draws a joint outcome for the given bit positions from their marginal distribution (one pass), then
+    // collapses and renormalizes the state in place (a second pass). Returns the measured bits in place.
+    private long measureBits(int[] bitPositions, String operation) {
+        long mask = Marginals.mask(bitPositions);
+        long start = beginIo();
+
+        long bits;
+        double probability;
+        if (bitPositions.length <= Marginals.MAX_BITS) {
+            double[] marginals = Marginals.of(globalState, bitPositions);
+            int outcome = sampleIndex(marginals);
+            bits = Marginals.basisBits(outcome, bitPositions);
+            probability = marginals[outcome];
+        } else {
+            // Too many qubits to tabulate: draw one basis state and sum up the ones sharing its measured bits
+            bits = sampleBasisState() & mask;
+            long measuredBits = bits;
+            probability = Parallelism.sum(globalState.length(), (from, to) -> {
+                double kept = 0.0;
+                for (long state = from; state < to; state++) {
+                    if ((state & mask) == measuredBits) {
+                        kept += globalState.magnitudeSquared(state);
+                    }
+                }
+                return kept;
+            });
+        }
+
+        long nonZeroCount = collapse(mask, bits, probability);
+        endIo(operation, start);
+        if (sparsePolicy != null && !isSparse() && nonZeroCount <= sparsePolicy.sparseOccupancy() * globalState.length()) {
+            toSparse();
+        }
+        return bits;
+    }
+
+    private int sampleIndex(double[] probabilities) {
+        double total = 0;
+        for (double probability : probabilities) {
+            total += probability;
+        }
 
-        for (int state = 0; state < globalState.size(); state++) {
-            // Use bitwise operation to check if the qubit at qubitIndex is in the |0⟩ state
-            if ((reverseBits(state, numQubits) & (1 << qubit.getIndex())) == 0) {
-                probability += globalState.get(state).magnitudeSquared();
+        double target = random.nextDouble() * total;
+        double cumulative = 0;
+        int lastNonZero = 0;
+        for (int i = 0; i < probabilities.length; i++) {
+            if (probabilities[i] == 0) {
+                continue;
+            }
+            cumulative += probabilities[i];
+            lastNonZero = i;
+            if (target < cumulative) {
+                return i;
             }
         }
+        return lastNonZero;
+    }
+
+    // The state is normalized, so the prefix sum can be matched against a uniform draw without a norm pass
+    private long sampleBasisState() {
+        long[] nonZeroIndices = globalState.getBuffer() instanceof SparseAmplitudeBuffer sparse ? sparse.nonZeroIndices() : null;
+        long count = nonZeroIndices != null ? nonZeroIndices.length : globalState.length();
 
-        return probability;
+        double target = random.nextDouble();
+        double cumulative = 0;
+        long lastNonZero = 0;
+        for (long position = 0; position < count; position++) {
+            long state = nonZeroIndices != null ? nonZeroIndices[(int) position] : position;
+            double probability = globalState.magnitudeSquared(state);
+            if (probability == 0) {
+                continue;
+            }
+            cumulative += probability;
+            lastNonZero = state;
+            if (target < cumulative) {
+                return state;
+            }
+        }
+        return lastNonZero;
     }
 
-    private Vector collapseQubitState(Qubit qubit, int measurementResult) {
-        ComplexNumber[] newAmplitudes = new ComplexNumber[globalState.size()];
+    // Zeroes every amplitude whose masked bits differ from bits and rescales the rest by 1/sqrt(probability).
+    // Returns the number of amplitudes left nonzero.
+    private long collapse(long mask, long bits, double probability) {
+        double scale = 1 / Math.sqrt(probability);
 
-        for (int state = 0; state < globalState.size(); state++) {
-            if (((state >> qubit.getIndex()) & 1) != measurementResult) {
-                newAmplitudes[state] = new ComplexNumber(0, 0);
-            } else {
-                newAmplitudes[state] = globalState.get(state);
+        if (globalState.getBuffer() instanceof SparseAmplitudeBuffer sparse) {
+            for (long state : sparse.nonZeroIndices()) {
+                if ((state & mask) != bits) {
+                    globalState.set(state, 0, 0);
+                } else {
+                    globalState.set(state, globalState.getReal(state) * scale, globalState.getImaginary(state) * scale);
+                }
             }
+            return sparse.nonZeroCount();
         }
 
-        Vector newState = new Vector(newAmplitudes);
-        return newState.normalize();
+        return (long) Parallelism.sum(globalState.length(), (from, to) -> {
+            long kept = 0;
+            for (long state = from; state < to; state++) {
+                if ((state & mask) != bits) {
+                    globalState.set(state, 0, 0);
+                } else {
+                    double real = globalState.getReal(state);
+                    double imaginary = globalState.getImaginary(state);
+                    globalState.set(state, real * scale, imaginary * scale);
+                    if (real != 0 || imaginary != 0) {
+                        kept++;
+                    }
+                }
+            }
+            return kept;
+        });
     }
 
+    // Switches a sparse state that has filled up to a dense heap array
+    void adaptStorage() {
+        if (sparsePolicy == null || !(globalState.getBuffer() instanceof SparseAmplitudeBuffer sparse)) {
+            return;
+        }
 
-    private static Vector globalZeroState(int numQubits) {
-        int possibleStates = (int) Math.pow(2, numQubits);
-        ComplexNumber[] state = new ComplexNumber[possibleStates];
+        long length = globalState.length();
+        if (sparse.nonZeroCount() <= sparsePolicy.denseOccupancy() * length || length > HeapAmplitudeBuffer.MAX_LENGTH) {
+            return;
+        }
 
-        state[0] = new ComplexNumber(1);
-        for (int i = 1; i < possibleStates; i++) {
-            state[i] = new ComplexNumber(0);
+        Vector dense = new Vector(new HeapAmplitudeBuffer(length));
+        for (long state : sparse.nonZeroIndices()) {
+            dense.set(state, globalState.getReal(state), globalState.getImaginary(state));
         }
+        globalState = dense;
+    }
+
+    private void toSparse() {
+        SparseAmplitudeBuffer sparse = new SparseAmplitudeBuffer(globalState.length(), sparsePolicy.epsilon());
+        for (long state = 0; state < globalState.length(); state++) {
+            double real = globalState.getReal(state);
+            double imaginary = globalState.getImaginary(state);
+            if (real != 0 || imaginary != 0) {
+                sparse.set(state, real, imaginary);
+            }
+        }
+        globalState.close();
+        globalState = new Vector(sparse);
+    }
+
+    // Amplitudes in storage order, without undoing pending swap relabelings
+    Vector getStorageState() {
+        return globalState;
+    }
+
+    // Independent register in the same state, on the same kind of storage, drawing from the same Random
+    QuantumRegister copy() {
+        return copy(random);
+    }
+
+    // As copy(), but measuring with its own generator, e.g. for copies that are used on different threads
+    QuantumRegister copy(Random random) {
+        restoreLogicalOrder();
+        QuantumRegister copy = new QuantumRegister(numQubits, new Vector(globalState.getBuffer().copy()), random);
+        copy.sparsePolicy = sparsePolicy;
+        return copy;
+    }
+
+    Random getRandom() {
+        return random;
+    }
+
+    // Records a qubit-id-to-storage-index table computed ahead of time by a compiled circuit
+    void setQubitIndices(int[] indices) {
+        for (int id = 0; id < numQubits; id++) {
+            qubits[id].setIndex(indices[id]);
+        }
+    }
+
+    // Releases the amplitude storage; off-heap memory is returned to the OS immediately
+    @Override
+    public void close() {
+        globalState.close();
+    }
+
+    // For file-backed state, gate qubits whose bit positions lie above the block window are first
+    // exchanged with the least recently used low-order qubits. The exchange streams through pairs of
+    // blocks, after which the gate itself (and later gates on the same qubits) only ever touches
+    // amplitude pairs within one block instead of hopping between distant pages.
+    private void localizeQubits(Qubit[] inputQubits, int localBits) {
+        operationCount++;
+        for (Qubit qubit : inputQubits) {
+            lastUse[qubit.getId()] = operationCount;
+        }
+        if (localBits >= numQubits || inputQubits.length > localBits) {
+            return;
+        }
+
+        for (Qubit qubit : inputQubits) {
+            if (bitPosition(qubit) < localBits) {
+                continue;
+            }
 
-        return new Vector(state);
+            Qubit victim = null;
+            for (int bitPosition = 0; bitPosition < localBits; bitPosition++) {
+                Qubit candidate = qubitAtIndex(numQubits - 1 - bitPosition);
+                if (lastUse[candidate.getId()] != operationCount
+                        && (victim == null || lastUse[candidate.getId()] < lastUse[victim.getId()])) {
+                    victim = candidate;
+                }
+            }
+
+            GateKernels.swapBits(globalState, bitPosition(qubit), bitPosition(victim));
+            int index = qubit.getIndex();
+            qubit.setIndex(victim.getIndex());
+            victim.setIndex(index);
+        }
+    }
+
+    private MappedAmplitudeBuffer mappedBuffer() {
+        return globalState.getBuffer() instanceof MappedAmplitudeBuffer mapped ? mapped : null;
+    }
+
+    private long beginIo() {
+        MappedAmplitudeBuffer mapped = mappedBuffer();
+        if (mapped == null) {
+            return 0;
+        }
+        mapped.resetTouchedBytes();
+        return System.nanoTime();
+    }
+
+    private void endIo(String operation, long start) {
+        MappedAmplitudeBuffer mapped = mappedBuffer();
+        if (mapped != null) {
+            ioStatistics.add(new GateIoStatistics(operation, mapped.getTouchedBytes(), System.nanoTime() - start));
+        }
+    }
+
+    // Qubit index 0 is the most significant bit of a basis state
+    private int bitPosition(Qubit qubit) {
+        return numQubits - 1 - qubit.getIndex();
+    }
+
+    // Physically permutes the amplitudes so that every qubit's index equals its id again,
+    // undoing the relabelings left behind by swap gates.
+    void restoreLogicalOrder() {
+        for (int id = 0; id < numQubits; id++) {
+            Qubit qubit = qubits[id];
+            if (qubit.getIndex() == id) {
+                continue;
+            }
+
+            Qubit occupant = qubitAtIndex(id);
+            GateKernels.swapBits(globalState, numQubits - 1 - id, bitPosition(qubit));
+            occupant.setIndex(qubit.getIndex());
+            qubit.setIndex(id);
+        }
+    }
+
+    private Qubit qubitAtIndex(int index) {
+        for (Qubit qubit : qubits) {
+            if (qubit.getIndex() == index) {
+                return qubit;
+            }
+        }
+
+        throw new IllegalStateException("No qubit is stored at index " + index + ".");
+    }
+
+    private static long stateCount(int numQubits) {
+        if (numQubits < 0 || numQubits > 62) {
+            throw new IllegalArgumentException("Unsupported number of qubits: " + numQubits);
+        }
+        return 1L << numQubits;
     }
 }
@@ -0,0 +1,181 @@
+package quantum.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Counts of measured bitstrings, kept in a primitive open-addressing table so that millions of shots
+// need neither boxing nor one object per shot. Bit k of an outcome is the value read by the k-th
+// measurement of the circuit, i.e. the qubit getQubitIds()[k].
+public final class ShotHistogram {
+    private static final int INITIAL_CAPACITY = 16;
+
+    @FunctionalInterface
+    public interface OutcomeConsumer {
+        void accept(long outcome, long count);
+    }
+
+    private final int[] qubitIds;
+    private long[] outcomes;
+    private long[] counts;
+    private int size;
+    private long totalShots;
+
+    public ShotHistogram(int... qubitIds) {
+        if (qubitIds.length > Long.SIZE) {
+            throw new IllegalArgumentException("A histogram can hold at most " + Long.SIZE + " measured qubits.");
+        }
+
+        this.qubitIds = qubitIds.clone();
+        this.outcomes = new long[INITIAL_CAPACITY];
+        this.counts = new long[INITIAL_CAPACITY];
+    }
+
+    public int[] getQubitIds() {
+        return qubitIds.clone();
+    }
+
+    public void increment(long outcome) {
+        add(outcome, 1);
+    }
+
+    public void add(long outcome, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Shot count cannot be negative.");
+        }
+        if (count == 0) {
+            return;
+        }
+
+        int slot = slot(outcome);
+        if (counts[slot] == 0) {
+            outcomes[slot] = outcome;
+            size++;
+        }
+        counts[slot] += count;
+        totalShots += count;
+
+        if (2 * size > counts.length) {
+            grow();
+        }
+    }
+
+    public long getCount(long outcome) {
+        return counts[slot(outcome)];
+    }
+
+    public double getFrequency(long outcome) {
+        return totalShots == 0 ? 0 : (double) getCount(outcome) / totalShots;
+    }
+
+    public long getTotalShots() {
+        return totalShots;
+    }
+
+    // Number of distinct outcomes
+    public int size() {
+        return size;
+    }
+
+    public long mostFrequent() {
+        if (size == 0) {
+            throw new IllegalStateException("Histogram is empty.");
+        }
+
+        long best = 0;
+        long bestCount = 0;
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] > bestCount || (counts[slot] == bestCount && counts[slot] > 0 && outcomes[slot] < best)) {
+                best = outcomes[slot];
+                bestCount = counts[slot];
+            }
+        }
+        return best;
+    }
+
+    // Distinct outcomes in ascending order
+    public long[] outcomes() {
+        long[] result = new long[size];
+        int next = 0;
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] > 0) {
+                result[next++] = outcomes[slot];
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    // Visits every distinct outcome once, in no particular order
+    public void forEach(OutcomeConsumer consumer) {
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] > 0) {
+                consumer.accept(outcomes[slot], counts[slot]);
+            }
+        }
+    }
+
+    public List<MeasurementResult> toMeasurementResults(long outcome) {
+        List<MeasurementResult> results = new ArrayList<>(qubitIds.length);
+        for (int k = 0; k < qubitIds.length; k++) {
+            results.add(new MeasurementResult(qubitIds[k], (int) ((outcome >>> k) & 1)));
+        }
+        return results;
+    }
+
+    // Expands the histogram back into one result list per shot, ordered by outcome
+    public List<List<MeasurementResult>> toMeasurementResults() {
+        List<List<MeasurementResult>> shots = new ArrayList<>(Math.toIntExact(totalShots));
+        for (long outcome : outcomes()) {
+            List<MeasurementResult> results = toMeasurementResults(outcome);
+            for (long i = getCount(outcome); i > 0; i--) {
+                shots.add(results);
+            }
+        }
+        return shots;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (long outcome : outcomes()) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(outcome).append('=').append(getCount(outcome));
+        }
+        return builder.append('}').toString();
+    }
+
+    // Linear probing; a zero count marks an empty slot
+    private int slot(long outcome) {
+        int mask = counts.length - 1;
+        int slot = (int) mix(outcome) & mask;
+        while (counts[slot] != 0 && outcomes[slot] != outcome) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldOutcomes = outcomes;
+        long[] oldCounts = counts;
+        outcomes = new long[2 * oldCounts.length];
+        counts = new long[2 * oldCounts.length];
+
+        for (int slot = 0; slot < oldCounts.length; slot++) {
+            if (oldCounts[slot] > 0) {
+                int newSlot = slot(oldOutcomes[slot]);
+                outcomes[newSlot] = oldOutcomes[slot];
+                counts[newSlot] = oldCounts[slot];
+            }
+        }
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        return value;
+    }
+}
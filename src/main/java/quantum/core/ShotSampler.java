@@ -0,0 +1,120 @@
+package quantum.core;
+
+import quantum.math.SparseAmplitudeBuffer;
+import quantum.math.Vector;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Draws many measurement outcomes from one simulated state instead of re-simulating per shot.
+final class ShotSampler {
+    private static final int MAX_SWEEP_BATCH = 1 << 24;
+
+    private ShotSampler() {
+    }
+
+    // bitPositions[k] is the storage bit that becomes bit k of every outcome. Up to Marginals.MAX_BITS
+    // measured qubits the joint distribution is tabulated and sampled through an alias table in O(1) per
+    // shot; beyond that the shots are sorted and matched against a running prefix sum of the state.
+    static void sample(Vector state, int[] bitPositions, long shots, Random random, ShotHistogram histogram) {
+        if (bitPositions.length <= Marginals.MAX_BITS) {
+            sampleFromAliasTable(Marginals.of(state, bitPositions), shots, random, histogram);
+        } else {
+            sampleBySweep(state, bitPositions, shots, random, histogram);
+        }
+    }
+
+    // Vose's alias method
+    private static void sampleFromAliasTable(double[] probabilities, long shots, Random random, ShotHistogram histogram) {
+        int size = probabilities.length;
+        double total = 0;
+        for (double probability : probabilities) {
+            total += probability;
+        }
+
+        double[] threshold = new double[size];
+        int[] alias = new int[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallCount = 0;
+        int largeCount = 0;
+
+        for (int i = 0; i < size; i++) {
+            threshold[i] = probabilities[i] * size / total;
+            if (threshold[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            alias[less] = more;
+            threshold[more] += threshold[less] - 1;
+            if (threshold[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Whatever is left over is 1 up to rounding
+        while (largeCount > 0) {
+            threshold[large[--largeCount]] = 1;
+        }
+        while (smallCount > 0) {
+            threshold[small[--smallCount]] = 1;
+        }
+
+        long[] counts = new long[size];
+        for (long shot = 0; shot < shots; shot++) {
+            double u = random.nextDouble() * size;
+            int column = Math.min((int) u, size - 1);
+            counts[u - column < threshold[column] ? column : alias[column]]++;
+        }
+
+        for (int outcome = 0; outcome < size; outcome++) {
+            histogram.add(outcome, counts[outcome]);
+        }
+    }
+
+    // Sorted uniform draws are matched against the cumulative probability in a single pass over the state,
+    // which needs no table the size of the outcome space.
+    private static void sampleBySweep(Vector state, int[] bitPositions, long shots, Random random, ShotHistogram histogram) {
+        double total = state.normSquared();
+        long[] nonZeroIndices = state.getBuffer() instanceof SparseAmplitudeBuffer sparse ? sparse.nonZeroIndices() : null;
+
+        for (long done = 0; done < shots; ) {
+            int batch = (int) Math.min(shots - done, MAX_SWEEP_BATCH);
+            double[] targets = new double[batch];
+            for (int i = 0; i < batch; i++) {
+                targets[i] = random.nextDouble() * total;
+            }
+            Arrays.sort(targets);
+
+            int next = 0;
+            double cumulative = 0;
+            long lastNonZero = 0;
+            long count = nonZeroIndices != null ? nonZeroIndices.length : state.length();
+            for (long position = 0; position < count && next < batch; position++) {
+                long i = nonZeroIndices != null ? nonZeroIndices[(int) position] : position;
+                double probability = state.magnitudeSquared(i);
+                if (probability == 0) {
+                    continue;
+                }
+                lastNonZero = i;
+                cumulative += probability;
+
+                int first = next;
+                while (next < batch && targets[next] < cumulative) {
+                    next++;
+                }
+                histogram.add(Marginals.outcome(i, bitPositions), next - first);
+            }
+            // Draws that rounding pushed past the final prefix sum belong to the last reachable state
+            histogram.add(Marginals.outcome(lastNonZero, bitPositions), batch - next);
+            done += batch;
+        }
+    }
+}
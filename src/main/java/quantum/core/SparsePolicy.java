@@ -0,0 +1,18 @@
+package quantum.core;
+
+// When a register created by QuantumRegister.sparse changes representation. A sparse state becomes dense
+// once more than denseOccupancy of its amplitudes are nonzero; a dense state becomes sparse again after a
+// measurement leaves at most sparseOccupancy of them nonzero. The gap between the two avoids flip-flopping.
+// Sparse amplitudes with a magnitude of at most epsilon are dropped.
+public record SparsePolicy(double denseOccupancy, double sparseOccupancy, double epsilon) {
+    public static final SparsePolicy DEFAULT = new SparsePolicy(1.0 / 16, 1.0 / 64, 0);
+
+    public SparsePolicy {
+        if (!(sparseOccupancy > 0 && sparseOccupancy <= denseOccupancy && denseOccupancy <= 1)) {
+            throw new IllegalArgumentException("Occupancy thresholds must satisfy 0 < sparseOccupancy <= denseOccupancy <= 1.");
+        }
+        if (epsilon < 0) {
+            throw new IllegalArgumentException("Truncation epsilon cannot be negative.");
+        }
+    }
+}
@@ -1,34 +1,27 @@
 package quantum.gates;
 
-import quantum.core.Qubit;
-import quantum.gates.binary.SwapGate;
 import quantum.math.Matrix;
-import quantum.math.Vector;
 
 public abstract class BinaryQuantumGate extends QuantumGate {
-    private static final SwapGate swapGate = new SwapGate();
+    private final double[] kernelMatrix;
 
     protected BinaryQuantumGate(Matrix matrixRepresentation) {
         super(2, matrixRepresentation);
+        this.kernelMatrix = matrixRepresentation.toInterleavedArray();
     }
 
-    public Vector apply(Vector state, Qubit[] allQubits, Qubit[] inputQubits) {
-        validateInputQubits(inputQubits);
-
-        Qubit qubit1 = inputQubits[0];
-        Qubit qubit2 = inputQubits[1];
-
-        // Move qubit2 to one place beneath qubit1 in the state vector
-        swapGate.moveQubit(state, allQubits, qubit2, qubit1.getIndex() + 1);
-
-        Matrix applicationMatrix = createApplicationMatrix(qubit1, allQubits.length);
-
-        return applicationMatrix.multiply(state);
-    }
+    @Override
+    public GateKernel kernel(int... bitPositions) {
+        int bitPosition1 = bitPositions[0];
+        int bitPosition2 = bitPositions[1];
+        if (bitPosition1 == bitPosition2) {
+            throw new IllegalArgumentException("BinaryQuantumGate requires two distinct input qubits.");
+        }
 
-    private void validateInputQubits(Qubit[] inputQubits) {
-        if (inputQubits.length != 2) {
-            throw new IllegalArgumentException("BinaryQuantumGate requires exactly two input qubits.");
+        GateKernel structured = structuredKernel(bitPositions);
+        if (structured != null) {
+            return structured;
         }
+        return state -> GateKernels.applyTwoQubit(state, bitPosition1, bitPosition2, kernelMatrix);
     }
 }
@@ -0,0 +1,76 @@
+package quantum.gates;
+
+import quantum.gates.unary.PauliXGate;
+import quantum.math.Matrix;
+
+import java.util.Arrays;
+
+public class ControlledGate extends QuantumGate {
+    // Above this many inputs getMatrix() returns null instead of a dense matrix
+    private static final int MAX_DENSE_QUBITS = 10;
+
+    private final UnaryQuantumGate targetGate;
+    private final int numControls;
+    private final double[] kernelMatrix;
+    private final boolean pauliX;
+
+    // Input qubits are the control qubits followed by the target qubit
+    public ControlledGate(UnaryQuantumGate targetGate, int numControls) {
+        super(numControls + 1, null);
+        if (numControls < 1) {
+            throw new IllegalArgumentException("ControlledGate requires at least one control qubit.");
+        }
+
+        this.targetGate = targetGate;
+        this.numControls = numControls;
+        this.kernelMatrix = targetGate.matrixRepresentation.toInterleavedArray();
+        this.pauliX = targetGate instanceof PauliXGate;
+    }
+
+    public static ControlledGate multiControlledX(int numControls) {
+        return new ControlledGate(new PauliXGate(), numControls);
+    }
+
+    public UnaryQuantumGate getTargetGate() {
+        return targetGate;
+    }
+
+    public int getNumControls() {
+        return numControls;
+    }
+
+    // Controls keep the structure of the target: a controlled phase is diagonal, a controlled X a permutation
+    @Override
+    public GateStructure getStructure() {
+        return targetGate.getStructure();
+    }
+
+    // Identity everywhere except the block where all controls are 1; null above MAX_DENSE_QUBITS inputs
+    @Override
+    public Matrix getMatrix() {
+        if (inputSize > MAX_DENSE_QUBITS) {
+            return null;
+        }
+
+        int dimension = 1 << inputSize;
+        Matrix matrix = Matrix.identity(dimension);
+        for (int row = 0; row < 2; row++) {
+            for (int col = 0; col < 2; col++) {
+                matrix.set(dimension - 2 + row, dimension - 2 + col,
+                        kernelMatrix[2 * (2 * row + col)], kernelMatrix[2 * (2 * row + col) + 1]);
+            }
+        }
+        return matrix;
+    }
+
+    @Override
+    public GateKernel kernel(int... bitPositions) {
+        int[] controlBitPositions = Arrays.copyOf(bitPositions, numControls);
+        int targetBitPosition = bitPositions[numControls];
+
+        if (pauliX) {
+            return state -> GateKernels.applyMultiControlledX(state, controlBitPositions, targetBitPosition);
+        }
+        return state -> GateKernels.applyControlled(state, controlBitPositions, targetBitPosition, kernelMatrix);
+    }
+}
@@ -0,0 +1,124 @@
+package quantum.gates;
+
+import quantum.math.Matrix;
+
+import java.util.List;
+
+// A diagonal gate kept as a product of phase tables over small subsets of its inputs, so that a whole
+// layer of diagonal gates can be applied in one sweep without a 2^n table. GateFusion builds these from
+// runs of Z, S, T, RZ, controlled phases and other diagonal gates.
+public final class DiagonalGate extends QuantumGate {
+    // Above this many inputs getMatrix() returns null instead of a dense matrix
+    private static final int MAX_DENSE_QUBITS = 10;
+
+    // Phases over some of the gate's inputs; inputs[0] is the most significant bit of the table index and
+    // phases holds 2^inputs.length interleaved complex entries
+    public record Factor(int[] inputs, double[] phases) {
+    }
+
+    private final List<Factor> factors;
+
+    // A single table over all inputs: the diagonal of the gate matrix, interleaved re/im
+    public DiagonalGate(double[] phases) {
+        this(qubitCount(phases), List.of(new Factor(allInputs(qubitCount(phases)), phases.clone())));
+    }
+
+    public DiagonalGate(int inputSize, List<Factor> factors) {
+        super(inputSize, null);
+        if (inputSize < 1) {
+            throw new IllegalArgumentException("DiagonalGate requires at least one input qubit.");
+        }
+        for (Factor factor : factors) {
+            long used = 0;
+            for (int input : factor.inputs()) {
+                if (input < 0 || input >= inputSize || (used & (1L << input)) != 0) {
+                    throw new IllegalArgumentException("Factor inputs must be distinct inputs of the gate, got " + input + ".");
+                }
+                used |= 1L << input;
+            }
+            if (factor.phases().length != 2 << factor.inputs().length) {
+                throw new IllegalArgumentException("Factor over " + factor.inputs().length + " inputs needs " +
+                        (2 << factor.inputs().length) + " phase values, got " + factor.phases().length);
+            }
+        }
+
+        this.factors = List.copyOf(factors);
+    }
+
+    private static int qubitCount(double[] phases) {
+        int dimension = phases.length / 2;
+        if (dimension < 2 || Integer.bitCount(dimension) != 1 || phases.length % 2 != 0) {
+            throw new IllegalArgumentException("DiagonalGate requires 2^k interleaved phases, got " + phases.length + " values.");
+        }
+        return Integer.numberOfTrailingZeros(dimension);
+    }
+
+    private static int[] allInputs(int inputSize) {
+        int[] inputs = new int[inputSize];
+        for (int i = 0; i < inputSize; i++) {
+            inputs[i] = i;
+        }
+        return inputs;
+    }
+
+    public List<Factor> getFactors() {
+        return factors;
+    }
+
+    @Override
+    public GateStructure getStructure() {
+        return GateStructure.DIAGONAL;
+    }
+
+    // Phase of the basis state whose bits (first input most significant) are given by basis
+    public double[] getPhase(int basis) {
+        double real = 1;
+        double imaginary = 0;
+        for (Factor factor : factors) {
+            int[] inputs = factor.inputs();
+            int entry = 0;
+            for (int input : inputs) {
+                entry = (entry << 1) | ((basis >> (inputSize - 1 - input)) & 1);
+            }
+            double tr = factor.phases()[2 * entry];
+            double ti = factor.phases()[2 * entry + 1];
+            double product = real * tr - imaginary * ti;
+            imaginary = real * ti + imaginary * tr;
+            real = product;
+        }
+        return new double[]{real, imaginary};
+    }
+
+    @Override
+    public Matrix getMatrix() {
+        if (inputSize > MAX_DENSE_QUBITS) {
+            return null;
+        }
+
+        int dimension = 1 << inputSize;
+        Matrix matrix = new Matrix(dimension, dimension);
+        for (int j = 0; j < dimension; j++) {
+            double[] phase = getPhase(j);
+            matrix.set(j, j, phase[0], phase[1]);
+        }
+        return matrix;
+    }
+
+    @Override
+    public GateKernel kernel(int... bitPositions) {
+        long[] masks = new long[factors.size()];
+        double[][] tables = new double[factors.size()][];
+        for (int f = 0; f < masks.length; f++) {
+            Factor factor = factors.get(f);
+            int[] positions = new int[factor.inputs().length];
+            for (int t = 0; t < positions.length; t++) {
+                positions[t] = bitPositions[factor.inputs()[t]];
+            }
+            masks[f] = GateKernels.bitMask(positions);
+            tables[f] = GateKernels.compressPhases(positions, factor.phases());
+        }
+        // Rejects a qubit that is passed twice, even if no single factor sees both copies
+        GateKernels.bitMask(bitPositions);
+        return state -> GateKernels.applyDiagonal(state, masks, tables);
+    }
+}
@@ -0,0 +1,9 @@
+package quantum.gates;
+
+import quantum.math.Vector;
+
+// A gate already bound to concrete storage bit positions, ready to be replayed on any state
+@FunctionalInterface
+public interface GateKernel {
+    void apply(Vector state);
+}
@@ -0,0 +1,881 @@
+package quantum.gates;
+
+import quantum.math.HeapAmplitudeBuffer;
+import quantum.math.Parallelism;
+import quantum.math.SparseAmplitudeBuffer;
+import quantum.math.Vector;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongUnaryOperator;
+
+public final class GateKernels {
+    // The Vector API kernels need the incubator module (--add-modules jdk.incubator.vector) and a preferred
+    // vector that holds at least one complex number; without either the scalar loops are used
+    private static final int SIMD_COMPLEX_LANES = simdComplexLanes();
+    private static final boolean SIMD_AVAILABLE = SIMD_COMPLEX_LANES >= 1;
+    private static volatile boolean simdEnabled = SIMD_AVAILABLE && !"false".equals(System.getProperty("quantum.simd"));
+
+    private GateKernels() {
+    }
+
+    // Complex numbers per SIMD vector, or 0 without the Vector API. SimdKernels must not be touched otherwise.
+    private static int simdComplexLanes() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return 0;
+        }
+        try {
+            return SimdKernels.COMPLEX_LANES;
+        } catch (LinkageError e) {
+            return 0;
+        }
+    }
+
+    public static boolean isSimdAvailable() {
+        return SIMD_AVAILABLE;
+    }
+
+    public static boolean isSimdEnabled() {
+        return simdEnabled;
+    }
+
+    // Switches between the Vector API and the scalar kernels, e.g. to compare them; -Dquantum.simd=false
+    // starts with the scalar kernels
+    public static void setSimdEnabled(boolean enabled) {
+        if (enabled && !SIMD_AVAILABLE) {
+            throw new UnsupportedOperationException("The Vector API is not available; run with --add-modules jdk.incubator.vector.");
+        }
+        simdEnabled = enabled;
+    }
+
+    // The heap array of the state if the SIMD kernels may run on it and the state spans at least minLength
+    // amplitudes, otherwise null
+    private static double[] simdArray(Vector state, long minLength) {
+        if (simdEnabled && state.getBuffer() instanceof HeapAmplitudeBuffer heap && state.length() >= minLength) {
+            return heap.array();
+        }
+        return null;
+    }
+
+    // Applies a 2x2 matrix (row-major, interleaved re/im) to every amplitude pair (i, i | 1 << bitPosition)
+    public static void applySingleQubit(Vector state, int bitPosition, double[] matrix) {
+        long stride = 1L << bitPosition;
+
+        if (state.getBuffer() instanceof SparseAmplitudeBuffer sparse) {
+            for (long i0 : sparseBases(sparse, stride, 0)) {
+                applyToPair(state, i0, i0 | stride, matrix);
+            }
+            return;
+        }
+
+        double[] amplitudes = simdArray(state, 0);
+        if (amplitudes != null && stride >= SIMD_COMPLEX_LANES) {
+            Parallelism.forEach(state.length() >> 1, (from, to) -> SimdKernels.applySingleQubit(amplitudes, bitPosition, matrix, from, to));
+            return;
+        }
+
+        Parallelism.forEach(state.length() >> 1, (from, to) -> {
+            for (long k = from; k < to; k++) {
+                long i0 = insertZeroBit(k, bitPosition);
+                applyToPair(state, i0, i0 + stride, matrix);
+            }
+        });
+    }
+
+    // Applies a 4x4 matrix to every amplitude quadruple spanned by two arbitrary bit positions.
+    // The first bit position selects the more significant half of the matrix basis.
+    public static void applyTwoQubit(Vector state, int bitPosition1, int bitPosition2, double[] matrix) {
+        if (bitPosition1 == bitPosition2) {
+            throw new IllegalArgumentException("Two-qubit kernel requires two distinct qubits.");
+        }
+
+        long mask1 = 1L << bitPosition1;
+        long mask2 = 1L << bitPosition2;
+        int low = Math.min(bitPosition1, bitPosition2);
+        int high = Math.max(bitPosition1, bitPosition2);
+        long[] offsets = {0, mask2, mask1, mask1 | mask2};
+
+        if (state.getBuffer() instanceof SparseAmplitudeBuffer sparse) {
+            double[] re = new double[4];
+            double[] im = new double[4];
+            for (long base : sparseBases(sparse, mask1 | mask2, 0)) {
+                applyToGroup(state, base, offsets, matrix, re, im);
+            }
+            return;
+        }
+
+        double[] amplitudes = simdArray(state, 0);
+        if (amplitudes != null && 1L << low >= SIMD_COMPLEX_LANES) {
+            Parallelism.forEach(state.length() >> 2, (from, to) ->
+                    SimdKernels.applyTwoQubit(amplitudes, bitPosition1, bitPosition2, matrix, from, to));
+            return;
+        }
+
+        Parallelism.forEach(state.length() >> 2, (from, to) -> {
+            double[] re = new double[4];
+            double[] im = new double[4];
+
+            for (long k = from; k < to; k++) {
+                applyToGroup(state, insertZeroBit(insertZeroBit(k, low), high), offsets, matrix, re, im);
+            }
+        });
+    }
+
+    // Applies a 2^k x 2^k matrix to k arbitrary bit positions; bitPositions[0] is the most significant
+    // bit of the matrix basis, matching the order in which qubits are passed to a gate.
+    public static void applyMultiQubit(Vector state, int[] bitPositions, double[] matrix) {
+        int numBits = bitPositions.length;
+        int dimension = 1 << numBits;
+        long[] offsets = new long[dimension];
+        for (int j = 0; j < dimension; j++) {
+            for (int t = 0; t < numBits; t++) {
+                if (((j >> (numBits - 1 - t)) & 1) != 0) {
+                    offsets[j] |= 1L << bitPositions[t];
+                }
+            }
+        }
+        int[] sortedBits = bitPositions.clone();
+        Arrays.sort(sortedBits);
+        for (int t = 1; t < numBits; t++) {
+            if (sortedBits[t] == sortedBits[t - 1]) {
+                throw new IllegalArgumentException("Multi-qubit kernel requires distinct qubits.");
+            }
+        }
+
+        if (state.getBuffer() instanceof SparseAmplitudeBuffer sparse) {
+            double[] re = new double[dimension];
+            double[] im = new double[dimension];
+            for (long base : sparseBases(sparse, offsets[dimension - 1], 0)) {
+                applyToGroup(state, base, offsets, matrix, re, im);
+            }
+            return;
+        }
+
+        Parallelism.forEach(state.length() >> numBits, (from, to) -> {
+            double[] re = new double[dimension];
+            double[] im = new double[dimension];
+
+            for (long k = from; k < to; k++) {
+                applyToGroup(state, insertZeroBits(k, sortedBits), offsets, matrix, re, im);
+            }
+        });
+    }
+
+    // Multiplies each amplitude by d0 or d1 depending on one bit. Gates such as Z, S and T have d0 = 1,
+    // in which case only the half of the state with the bit set is touched.
+    public static void applySingleQubitDiagonal(Vector state, int bitPosition, double d0r, double d0i, double d1r, double d1i) {
+        long stride = 1L << bitPosition;
+        boolean lowerIsOne = d0r == 1 && d0i == 0;
+
+        if (state.getBuffer() instanceof SparseAmplitudeBuffer sparse) {
+            for (long i : sparse.nonZeroIndices()) {
+                if ((i & stride) != 0) {
+                    multiplyAmplitude(state, i, d1r, d1i);
+                } else if (!lowerIsOne) {
+                    multiplyAmplitude(state, i, d0r, d0i);
+                }
+            }
+            return;
+        }
+
+        double[] amplitudes = simdArray(state, 0);
+        if (amplitudes != null && stride >= SIMD_COMPLEX_LANES) {
+            // Runs of 1 << bitPosition amplitudes share the bit, so every vector gets a single phase
+            Parallelism.forEach(state.length() >> 1, (from, to) -> {
+                for (long k = from; k < to; k += stride) {
+                    long i0 = insertZeroBit(k, bitPosition);
+                    long run = Math.min(stride, to - k);
+                    if (!lowerIsOne) {
+                        SimdKernels.multiplyRange(amplitudes, i0, i0 + run, d0r, d0i);
+                    }
+                    SimdKernels.multiplyRange(amplitudes, i0 + stride, i0 + stride + run, d1r, d1i);
+                }
+            });
+            return;
+        }
+
+        if (lowerIsOne) {
+            Parallelism.forEach(state.length() >> 1, (from, to) -> {
+                for (long k = from; k < to; k++) {
+                    multiplyAmplitude(state, insertZeroBit(k, bitPosition) | stride, d1r, d1i);
+                }
+            });
+            return;
+        }
+
+        Parallelism.forEach(state.length(), (from, to) -> {
+            for (long i = from; i < to; i++) {
+                if ((i & stride) != 0) {
+                    multiplyAmplitude(state, i, d1r, d1i);
+                } else {
+                    multiplyAmplitude(state, i, d0r, d0i);
+                }
+            }
+        });
+    }
+
+    // Multiplies every amplitude by a product of phases in a single sweep. Factor f reads the bits of the
+    // index selected by masks[f], packed in ascending bit order, and looks them up in phases[f]
+    // (interleaved re/im, 2^bitCount(masks[f]) entries).
+    public static void applyDiagonal(Vector state, long[] masks, double[][] phases) {
+        if (state.getBuffer() instanceof SparseAmplitudeBuffer sparse) {
+            double[] product = new double[2];
+            for (long i : sparse.nonZeroIndices()) {
+                phaseProduct(i, masks, phases, product, 0);
+                multiplyAmplitude(state, i, product[0], product[1]);
+            }
+            return;
+        }
+
+        // The table lookups are scalar; with SIMD the products of a block are multiplied in vector form
+        double[] amplitudes = simdArray(state, SIMD_COMPLEX_LANES);
+        Parallelism.forEach(state.length(), (from, to) -> {
+            double[] products = new double[2 * Parallelism.CHUNK_SIZE];
+            for (long blockStart = from; blockStart < to; blockStart += Parallelism.CHUNK_SIZE) {
+                long blockEnd = Math.min(blockStart + Parallelism.CHUNK_SIZE, to);
+                for (long i = blockStart; i < blockEnd; i++) {
+                    phaseProduct(i, masks, phases, products, 2 * (int) (i - blockStart));
+                }
+
+                if (amplitudes != null) {
+                    SimdKernels.multiplyElementwise(amplitudes, blockStart, blockEnd, products);
+                    continue;
+                }
+                for (long i = blockStart; i < blockEnd; i++) {
+                    int offset = 2 * (int) (i - blockStart);
+                    multiplyAmplitude(state, i, products[offset], products[offset + 1]);
+                }
+            }
+        });
+    }
+
+    // Negates the amplitudes whose bits at bitPositions form a value the predicate accepts, bit k of the
+    // value being read from bitPositions[k]
+    public static void applyPhaseOracle(Vector state, int[] bitPositions, LongPredicate predicate) {
+        LongUnaryOperator value = gatherBits(bitPositions);
+
+        if (state.getBuffer() instanceof SparseAmplitudeBuffer sparse) {
+            for (long i : sparse.nonZeroIndices()) {
+                if (predicate.test(value.applyAsLong(i))) {
+                    multiplyAmplitude(state, i, -1, 0);
+                }
+            }
+            return;
+        }
+
+        Parallelism.forEach(state.length(), (from, to) -> {
+            for (long i = from; i < to; i++) {
+                if (predicate.test(value.applyAsLong(i))) {
+                    multiplyAmplitude(state, i, -1, 0);
+                }
+            }
+        });
+    }
+
+    // Quantum Fourier transform on the qubits at bitPositions (bitPositions[0] the most significant bit of x),
+    // |x⟩ -> 2^(-k/2) Σ_y e^(±2πi xy / 2^k) |y⟩, as an in-place radix-2 decimation-in-frequency FFT: one
+    // butterfly pass per qubit and a bit reversal at the end, O(k 2^n) instead of O(k^2) gate passes.
+    public static void applyQft(Vector state, int[] bitPositions, boolean inverse) {
+        bitMask(bitPositions);
+        int numBits = bitPositions.length;
+        for (int t = 0; t < numBits; t++) {
+            int[] lower = new int[numBits - 1 - t];
+            for (int u = 0; u < lower.length; u++) {
+                // Least significant first, as gatherBits expects
+                lower[u] = bitPositions[numBits - 1 - u];
+            }
+            qftStage(state, bitPositions[t], lower, inverse);
+        }
+        for (int t = 0; t < numBits / 2; t++) {
+            swapBits(state, bitPositions[t], bitPositions[numBits - 1 - t]);
+        }
+    }
+
+    // Moves the amplitude of every basis state to the one whose bits at bitPositions hold permutation(value),
+    // the value being read as in applyPhaseOracle, and multiplies it by e^(i phase(value)) unless phase is
+    // null. The permutation must be a bijection on [0, 2^bitPositions.length), which is checked before any
+    // amplitude moves. An involution is carried out in place by swapping pairs; any other permutation is
+    // also applied in place, by rotating the amplitudes along each of its cycles.
+    public static void applyPermutationOracle(Vector state, int[] bitPositions, LongUnaryOperator permutation,
+                                              LongToDoubleFunction phase, boolean involution) {
+        long mask = bitMask(bitPositions);
+        long size = 1L << bitPositions.length;
+        LongUnaryOperator value = gatherBits(bitPositions);
+        LongUnaryOperator index = scatterBits(bitPositions);
+        LongUnaryOperator target = i -> {
+            long image = permutation.applyAsLong(value.applyAsLong(i));
+            if (image < 0 || image >= size) {
+                throw new IllegalArgumentException("Permutation maps " + value.applyAsLong(i) + " outside of [0, " + size + ").");
+            }
+            return (i & ~mask) | index.applyAsLong(image);
+        };
+
+        if (state.getBuffer() instanceof SparseAmplitudeBuffer sparse) {
+            long[] sources = sparse.nonZeroIndices();
+            long[] targets = new long[sources.length];
+            for (int k = 0; k < sources.length; k++) {
+                targets[k] = target.applyAsLong(sources[k]);
+            }
+            // Only the occupied part of the domain is checked, which is enough for no amplitude to be lost
+            long[] sorted = targets.clone();
+            Arrays.sort(sorted);
+            for (int k = 1; k < sorted.length; k++) {
+                if (sorted[k] == sorted[k - 1]) {
+                    throw new IllegalArgumentException("Permutation is not a bijection: two basis states map to index " + sorted[k] + ".");
+                }
+            }
+
+            double[] re = new double[sources.length];
+            double[] im = new double[sources.length];
+            for (int k = 0; k < sources.length; k++) {
+                re[k] = state.getReal(sources[k]);
+                im[k] = state.getImaginary(sources[k]);
+                state.set(sources[k], 0, 0);
+            }
+            for (int k = 0; k < sources.length; k++) {
+                setWithPhase(state, targets[k], re[k], im[k], phase, value.applyAsLong(sources[k]));
+            }
+            return;
+        }
+
+        if (involution) {
+            Parallelism.forEach(state.length(), (from, to) -> {
+                for (long i = from; i < to; i++) {
+                    long j = target.applyAsLong(i);
+                    if (j < i) {
+                        continue;
+                    }
+                    double ar = state.getReal(i), ai = state.getImaginary(i);
+                    double br = state.getReal(j), bi = state.getImaginary(j);
+                    setWithPhase(state, i, br, bi, phase, value.applyAsLong(j));
+                    if (j != i) {
+                        setWithPhase(state, j, ar, ai, phase, value.applyAsLong(i));
+                    }
+                }
+            });
+            return;
+        }
+
+        long[] leaders = cycleLeaders(permutation, size, phase != null);
+        long rest = (state.length() - 1) & ~mask;
+        // Task k rotates the cycle led by k % size in group k / size; the cycles are disjoint, so any
+        // split of the tasks can run concurrently
+        Parallelism.forEach(state.length(), (from, to) -> {
+            for (long k = from; k < to; k++) {
+                long leader = k & (size - 1);
+                if ((leaders[(int) (leader >>> 6)] & (1L << leader)) != 0) {
+                    rotateCycle(state, Long.expand(k >>> bitPositions.length, rest), leader, permutation, index, phase);
+                }
+            }
+        });
+    }
+
+    // Marks the smallest value of every cycle of the permutation, skipping fixed points unless they need a
+    // phase. Throws if the function leaves [0, size) or is not one-to-one.
+    private static long[] cycleLeaders(LongUnaryOperator permutation, long size, boolean keepFixedPoints) {
+        if (size > 1L << 36) {
+            throw new IllegalArgumentException("Permutations of more than 36 qubits are only supported on sparse registers.");
+        }
+        long[] visited = new long[(int) Math.max(1, size >>> 6)];
+        long[] leaders = new long[visited.length];
+        for (long start = 0; start < size; start++) {
+            if ((visited[(int) (start >>> 6)] & (1L << start)) != 0) {
+                continue;
+            }
+            long current = start;
+            do {
+                visited[(int) (current >>> 6)] |= 1L << current;
+                current = permutation.applyAsLong(current);
+                if (current < 0 || current >= size) {
+                    throw new IllegalArgumentException("Permutation maps a value outside of [0, " + size + ").");
+                }
+            } while ((visited[(int) (current >>> 6)] & (1L << current)) == 0);
+            if (current != start) {
+                throw new IllegalArgumentException("Permutation is not a bijection: " + current + " has two preimages.");
+            }
+            if (keepFixedPoints || permutation.applyAsLong(start) != start) {
+                leaders[(int) (start >>> 6)] |= 1L << start;
+            }
+        }
+        return leaders;
+    }
+
+    // Moves each amplitude of one cycle, inside the group of basis states at base, to the next value
+    private static void rotateCycle(Vector state, long base, long leader, LongUnaryOperator permutation,
+                                    LongUnaryOperator index, LongToDoubleFunction phase) {
+        long current = leader;
+        long from = base | index.applyAsLong(current);
+        double real = state.getReal(from);
+        double imaginary = state.getImaginary(from);
+        do {
+            long next = permutation.applyAsLong(current);
+            long to = base | index.applyAsLong(next);
+            double nextReal = state.getReal(to);
+            double nextImaginary = state.getImaginary(to);
+            setWithPhase(state, to, real, imaginary, phase, current);
+            real = nextReal;
+            imaginary = nextImaginary;
+            current = next;
+        } while (current != leader);
+    }
+
+    // Reflects every group of amplitudes spanned by bitPositions about the group's mean, a -> 2 * mean - a.
+    // This is the Grover diffusion operator 2|s⟩⟨s| - I on those qubits without the H/X/controlled-Z ladder.
+    public static void applyDiffusion(Vector state, int[] bitPositions) {
+        long mask = bitMask(bitPositions);
+        int numBits = bitPositions.length;
+        boolean sparse = state.getBuffer() instanceof SparseAmplitudeBuffer;
+        if (!sparse && state.length() == 1L << numBits) {
+            reflectAboutMean(state);
+            return;
+        }
+        if (numBits > 30) {
+            throw new IllegalArgumentException("Diffusion over " + numBits + " qubits is only supported on a dense full register.");
+        }
+
+        long[] offsets = new long[1 << numBits];
+        for (int j = 0; j < offsets.length; j++) {
+            offsets[j] = Long.expand(j, mask);
+        }
+        int[] sortedBits = bitPositions.clone();
+        Arrays.sort(sortedBits);
+
+        if (sparse) {
+            for (long base : sparseBases((SparseAmplitudeBuffer) state.getBuffer(), mask, 0)) {
+                reflectGroup(state, base, offsets);
+            }
+            return;
+        }
+
+        Parallelism.forEach(state.length() >> numBits, (from, to) -> {
+            for (long k = from; k < to; k++) {
+                reflectGroup(state, insertZeroBits(k, sortedBits), offsets);
+            }
+        });
+    }
+
+    // Moves the amplitude at column j of every group spanned by bitPositions to row targets[j]; bitPositions[0]
+    // is the most significant bit of the group index, as in applyMultiQubit
+    public static void applyPermutation(Vector state, int[] bitPositions, int[] targets) {
+        int numBits = bitPositions.length;
+        int dimension = 1 << numBits;
+        long[] offsets = new long[dimension];
+        for (int j = 0; j < dimension; j++) {
+            for (int t = 0; t < numBits; t++) {
+                if (((j >> (numBits - 1 - t)) & 1) != 0) {
+                    offsets[j] |= 1L << bitPositions[t];
+                }
+            }
+        }
+        int[] sortedBits = bitPositions.clone();
+        Arrays.sort(sortedBits);
+        for (int t = 1; t < numBits; t++) {
+            if (sortedBits[t] == sortedBits[t - 1]) {
+                throw new IllegalArgumentException("Permutation kernel requires distinct qubits.");
+            }
+        }
+
+        if (state.getBuffer() instanceof SparseAmplitudeBuffer sparse) {
+            double[] re = new double[dimension];
+            double[] im = new double[dimension];
+            for (long base : sparseBases(sparse, offsets[dimension - 1], 0)) {
+                permuteGroup(state, base, offsets, targets, re, im);
+            }
+            return;
+        }
+
+        Parallelism.forEach(state.length() >> numBits, (from, to) -> {
+            double[] re = new double[dimension];
+            double[] im = new double[dimension];
+
+            for (long k = from; k < to; k++) {
+                permuteGroup(state, insertZeroBits(k, sortedBits), offsets, targets, re, im);
+            }
+        });
+    }
+
+    // Applies a 2x2 matrix to the target bit, restricted to the basis states whose control bits are all 1
+    public static void applyControlled(Vector state, int[] controlBitPositions, int targetBitPosition, double[] matrix) {
+        long controlMask = controlMask(controlBitPositions, targetBitPosition);
+        long targetMask = 1L << targetBitPosition;
+        int[] fixedBits = sortedBitPositions(controlBitPositions, targetBitPosition);
+
+        if (state.getBuffer() instanceof SparseAmplitudeBuffer sparse) {
+            for (long i0 : sparseBases(sparse, targetMask, controlMask)) {
+                applyToPair(state, i0, i0 | targetMask, matrix);
+            }
+            return;
+        }
+
+        Parallelism.forEach(state.length() >> fixedBits.length, (from, to) -> {
+            for (long k = from; k < to; k++) {
+                long i0 = insertZeroBits(k, fixedBits) | controlMask;
+                applyToPair(state, i0, i0 | targetMask, matrix);
+            }
+        });
+    }
+
+    // Flips the target bit of every basis state whose control bits are all 1
+    public static void applyMultiControlledX(Vector state, int[] controlBitPositions, int targetBitPosition) {
+        long controlMask = controlMask(controlBitPositions, targetBitPosition);
+        long targetMask = 1L << targetBitPosition;
+        int[] fixedBits = sortedBitPositions(controlBitPositions, targetBitPosition);
+
+        if (state.getBuffer() instanceof SparseAmplitudeBuffer sparse) {
+            for (long i0 : sparseBases(sparse, targetMask, controlMask)) {
+                swapAmplitudes(state, i0, i0 | targetMask);
+            }
+            return;
+        }
+
+        Parallelism.forEach(state.length() >> fixedBits.length, (from, to) -> {
+            for (long k = from; k < to; k++) {
+                long i0 = insertZeroBits(k, fixedBits) | controlMask;
+                swapAmplitudes(state, i0, i0 | targetMask);
+            }
+        });
+    }
+
+    // Exchanges the roles of two bit positions, i.e. a SWAP on the underlying storage
+    public static void swapBits(Vector state, int bitPosition1, int bitPosition2) {
+        if (bitPosition1 == bitPosition2) {
+            return;
+        }
+
+        long mask1 = 1L << bitPosition1;
+        long mask2 = 1L << bitPosition2;
+        int low = Math.min(bitPosition1, bitPosition2);
+        int high = Math.max(bitPosition1, bitPosition2);
+
+        if (state.getBuffer() instanceof SparseAmplitudeBuffer sparse) {
+            for (long base : sparseBases(sparse, mask1 | mask2, 0)) {
+                swapAmplitudes(state, base | mask1, base | mask2);
+            }
+            return;
+        }
+
+        Parallelism.forEach(state.length() >> 2, (from, to) -> {
+            for (long k = from; k < to; k++) {
+                long base = insertZeroBit(insertZeroBit(k, low), high);
+                swapAmplitudes(state, base | mask1, base | mask2);
+            }
+        });
+    }
+
+    private static void applyToPair(Vector state, long i0, long i1, double[] m) {
+        double ar = state.getReal(i0), ai = state.getImaginary(i0);
+        double br = state.getReal(i1), bi = state.getImaginary(i1);
+
+        state.set(i0,
+                m[0] * ar - m[1] * ai + m[2] * br - m[3] * bi,
+                m[0] * ai + m[1] * ar + m[2] * bi + m[3] * br);
+        state.set(i1,
+                m[4] * ar - m[5] * ai + m[6] * br - m[7] * bi,
+                m[4] * ai + m[5] * ar + m[6] * bi + m[7] * br);
+    }
+
+    // Multiplies the amplitudes at base | offsets[j] by a dense matrix; re and im are scratch space
+    private static void applyToGroup(Vector state, long base, long[] offsets, double[] matrix, double[] re, double[] im) {
+        int dimension = offsets.length;
+        for (int j = 0; j < dimension; j++) {
+            re[j] = state.getReal(base | offsets[j]);
+            im[j] = state.getImaginary(base | offsets[j]);
+        }
+
+        for (int row = 0; row < dimension; row++) {
+            double sumReal = 0;
+            double sumImaginary = 0;
+            int rowOffset = 2 * row * dimension;
+            for (int col = 0; col < dimension; col++) {
+                double mr = matrix[rowOffset + 2 * col];
+                double mi = matrix[rowOffset + 2 * col + 1];
+                sumReal += mr * re[col] - mi * im[col];
+                sumImaginary += mr * im[col] + mi * re[col];
+            }
+            state.set(base | offsets[row], sumReal, sumImaginary);
+        }
+    }
+
+    private static void permuteGroup(Vector state, long base, long[] offsets, int[] targets, double[] re, double[] im) {
+        for (int j = 0; j < offsets.length; j++) {
+            re[j] = state.getReal(base | offsets[j]);
+            im[j] = state.getImaginary(base | offsets[j]);
+        }
+        for (int j = 0; j < offsets.length; j++) {
+            state.set(base | offsets[targets[j]], re[j], im[j]);
+        }
+    }
+
+    // One pass for the mean and one for the update, both on the deterministic Parallelism chunks
+    private static void reflectAboutMean(Vector state) {
+        long length = state.length();
+        double[] sums = Parallelism.sum(length, 2, (from, to, partial) -> {
+            for (long i = from; i < to; i++) {
+                partial[0] += state.getReal(i);
+                partial[1] += state.getImaginary(i);
+            }
+        });
+        double twiceMeanReal = 2 * sums[0] / length;
+        double twiceMeanImaginary = 2 * sums[1] / length;
+
+        Parallelism.forEach(length, (from, to) -> {
+            for (long i = from; i < to; i++) {
+                state.set(i, twiceMeanReal - state.getReal(i), twiceMeanImaginary - state.getImaginary(i));
+            }
+        });
+    }
+
+    private static void reflectGroup(Vector state, long base, long[] offsets) {
+        double sumReal = 0;
+        double sumImaginary = 0;
+        for (long offset : offsets) {
+            sumReal += state.getReal(base | offset);
+            sumImaginary += state.getImaginary(base | offset);
+        }
+        double twiceMeanReal = 2 * sumReal / offsets.length;
+        double twiceMeanImaginary = 2 * sumImaginary / offsets.length;
+        for (long offset : offsets) {
+            long i = base | offset;
+            state.set(i, twiceMeanReal - state.getReal(i), twiceMeanImaginary - state.getImaginary(i));
+        }
+    }
+
+    // Maps a storage index to the value whose bit k is the index bit at bitPositions[k]. Registers that were
+    // never permuted store their qubits in descending bit order, which is a compress plus a bit reversal.
+    private static LongUnaryOperator gatherBits(int[] bitPositions) {
+        long mask = bitMask(bitPositions);
+        int numBits = bitPositions.length;
+        boolean ascending = true;
+        boolean descending = true;
+        for (int k = 1; k < numBits; k++) {
+            ascending &= bitPositions[k] > bitPositions[k - 1];
+            descending &= bitPositions[k] < bitPositions[k - 1];
+        }
+
+        if (ascending) {
+            return i -> Long.compress(i, mask);
+        }
+        if (descending) {
+            return i -> Long.reverse(Long.compress(i, mask)) >>> (64 - numBits);
+        }
+        int[] positions = bitPositions.clone();
+        return i -> {
+            long value = 0;
+            for (int k = 0; k < positions.length; k++) {
+                value |= ((i >>> positions[k]) & 1) << k;
+            }
+            return value;
+        };
+    }
+
+    // Inverse of gatherBits: places bit k of a value at bitPositions[k]
+    private static LongUnaryOperator scatterBits(int[] bitPositions) {
+        long mask = bitMask(bitPositions);
+        int numBits = bitPositions.length;
+        boolean ascending = true;
+        boolean descending = true;
+        for (int k = 1; k < numBits; k++) {
+            ascending &= bitPositions[k] > bitPositions[k - 1];
+            descending &= bitPositions[k] < bitPositions[k - 1];
+        }
+
+        if (ascending) {
+            return value -> Long.expand(value, mask);
+        }
+        if (descending) {
+            return value -> Long.expand(Long.reverse(value) >>> (64 - numBits), mask);
+        }
+        int[] positions = bitPositions.clone();
+        return value -> {
+            long index = 0;
+            for (int k = 0; k < positions.length; k++) {
+                index |= ((value >>> k) & 1) << positions[k];
+            }
+            return index;
+        };
+    }
+
+    // Butterflies (a, b) -> ((a + b) / √2, (a - b) w / √2) across one bit, where the twiddle w = e^(±2πi j / 2^(m+1))
+    // depends on the value j of the m lower bits. The twiddles come from two tables of about 2^(m/2) entries each.
+    private static void qftStage(Vector state, int bitPosition, int[] lowerBitPositions, boolean inverse) {
+        int lowerBits = lowerBitPositions.length;
+        int fineBits = (lowerBits + 1) / 2;
+        double sign = inverse ? -1 : 1;
+        double[] fine = twiddles(1 << fineBits, sign * Math.PI / (1L << lowerBits));
+        double[] coarse = twiddles(1 << (lowerBits - fineBits), sign * Math.PI * (1L << fineBits) / (1L << lowerBits));
+        long fineMask = (1L << fineBits) - 1;
+        LongUnaryOperator lowerValue = lowerBits == 0 ? i -> 0 : gatherBits(lowerBitPositions);
+        long stride = 1L << bitPosition;
+        double scale = Math.sqrt(0.5);
+
+        Parallelism.RangeAction butterflies = (from, to) -> {
+            for (long k = from; k < to; k++) {
+                long i0 = insertZeroBit(k, bitPosition);
+                long i1 = i0 | stride;
+                long j = lowerValue.applyAsLong(i0);
+                int f = 2 * (int) (j & fineMask);
+                int c = 2 * (int) (j >>> fineBits);
+                double wr = fine[f] * coarse[c] - fine[f + 1] * coarse[c + 1];
+                double wi = fine[f] * coarse[c + 1] + fine[f + 1] * coarse[c];
+
+                double ar = state.getReal(i0), ai = state.getImaginary(i0);
+                double br = state.getReal(i1), bi = state.getImaginary(i1);
+                double dr = (ar - br) * scale, di = (ai - bi) * scale;
+                state.set(i0, (ar + br) * scale, (ai + bi) * scale);
+                state.set(i1, dr * wr - di * wi, dr * wi + di * wr);
+            }
+        };
+
+        if (state.getBuffer() instanceof SparseAmplitudeBuffer sparse) {
+            for (long i0 : sparseBases(sparse, stride, 0)) {
+                long k = ((i0 >>> (bitPosition + 1)) << bitPosition) | (i0 & (stride - 1));
+                butterflies.run(k, k + 1);
+            }
+            return;
+        }
+
+        Parallelism.forEach(state.length() >> 1, butterflies);
+    }
+
+    // e^(i step j) for j = 0 .. count - 1, interleaved
+    private static double[] twiddles(int count, double step) {
+        double[] table = new double[2 * count];
+        for (int j = 0; j < count; j++) {
+            table[2 * j] = Math.cos(step * j);
+            table[2 * j + 1] = Math.sin(step * j);
+        }
+        return table;
+    }
+
+    private static void setWithPhase(Vector state, long index, double real, double imaginary, LongToDoubleFunction phase, long value) {
+        if (phase == null) {
+            state.set(index, real, imaginary);
+            return;
+        }
+        double angle = phase.applyAsDouble(value);
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        state.set(index, real * cos - imaginary * sin, real * sin + imaginary * cos);
+    }
+
+    private static void phaseProduct(long index, long[] masks, double[][] phases, double[] target, int offset) {
+        double pr = 1;
+        double pi = 0;
+        for (int f = 0; f < masks.length; f++) {
+            int entry = 2 * (int) Long.compress(index, masks[f]);
+            double tr = phases[f][entry];
+            double ti = phases[f][entry + 1];
+            double real = pr * tr - pi * ti;
+            pi = pr * ti + pi * tr;
+            pr = real;
+        }
+        target[offset] = pr;
+        target[offset + 1] = pi;
+    }
+
+    private static void multiplyAmplitude(Vector state, long index, double real, double imaginary) {
+        double ar = state.getReal(index);
+        double ai = state.getImaginary(index);
+        state.set(index, ar * real - ai * imaginary, ar * imaginary + ai * real);
+    }
+
+    // Distinct group bases (index with the group bits cleared) of the stored amplitudes whose required
+    // bits are all set. Only these groups can hold a nonzero amplitude, so only they need updating.
+    private static long[] sparseBases(SparseAmplitudeBuffer sparse, long groupMask, long requiredMask) {
+        long[] bases = sparse.nonZeroIndices();
+        int count = 0;
+        for (long index : bases) {
+            if ((index & requiredMask) == requiredMask) {
+                bases[count++] = index & ~groupMask;
+            }
+        }
+        Arrays.sort(bases, 0, count);
+
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || bases[i] != bases[distinct - 1]) {
+                bases[distinct++] = bases[i];
+            }
+        }
+        return Arrays.copyOf(bases, distinct);
+    }
+
+    private static void swapAmplitudes(Vector state, long i, long j) {
+        double re = state.getReal(i);
+        double im = state.getImaginary(i);
+        state.set(i, state.getReal(j), state.getImaginary(j));
+        state.set(j, re, im);
+    }
+
+    private static long controlMask(int[] controlBitPositions, int targetBitPosition) {
+        long mask = 0;
+        for (int bitPosition : controlBitPositions) {
+            if (bitPosition == targetBitPosition || (mask & (1L << bitPosition)) != 0) {
+                throw new IllegalArgumentException("Control and target qubits must all be distinct.");
+            }
+            mask |= 1L << bitPosition;
+        }
+        return mask;
+    }
+
+    private static int[] sortedBitPositions(int[] controlBitPositions, int targetBitPosition) {
+        int[] bitPositions = Arrays.copyOf(controlBitPositions, controlBitPositions.length + 1);
+        bitPositions[controlBitPositions.length] = targetBitPosition;
+        Arrays.sort(bitPositions);
+        return bitPositions;
+    }
+
+    // Rearranges a diagonal over bitPositions (bitPositions[0] most significant) so that it is indexed by
+    // Long.compress(index, bitMask(bitPositions)), the layout applyDiagonal expects
+    public static double[] compressPhases(int[] bitPositions, double[] phases) {
+        int numBits = bitPositions.length;
+        if (phases.length != 2 << numBits) {
+            throw new IllegalArgumentException("Expected " + (2 << numBits) + " phase values, got " + phases.length);
+        }
+
+        int[] ranks = new int[numBits];
+        for (int t = 0; t < numBits; t++) {
+            for (int bitPosition : bitPositions) {
+                if (bitPosition < bitPositions[t]) {
+                    ranks[t]++;
+                }
+            }
+        }
+
+        double[] table = new double[phases.length];
+        for (int j = 0; j < 1 << numBits; j++) {
+            int compressed = 0;
+            for (int t = 0; t < numBits; t++) {
+                compressed |= ((j >> (numBits - 1 - t)) & 1) << ranks[t];
+            }
+            table[2 * compressed] = phases[2 * j];
+            table[2 * compressed + 1] = phases[2 * j + 1];
+        }
+        return table;
+    }
+
+    public static long bitMask(int[] bitPositions) {
+        long mask = 0;
+        for (int bitPosition : bitPositions) {
+            if ((mask & (1L << bitPosition)) != 0) {
+                throw new IllegalArgumentException("Kernel requires distinct qubits.");
+            }
+            mask |= 1L << bitPosition;
+        }
+        return mask;
+    }
+
+    // Spreads value over the bits that are not listed in ascending sortedBitPositions
+    static long insertZeroBits(long value, int[] sortedBitPositions) {
+        for (int bitPosition : sortedBitPositions) {
+            value = insertZeroBit(value, bitPosition);
+        }
+        return value;
+    }
+
+    static long insertZeroBit(long value, int bitPosition) {
+        long lowMask = (1L << bitPosition) - 1;
+        return ((value & ~lowMask) << 1) | (value & lowMask);
+    }
+}
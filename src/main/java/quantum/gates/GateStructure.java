@@ -0,0 +1,65 @@
+package quantum.gates;
+
+import quantum.math.Matrix;
+
+// Shape of a gate matrix, which decides how cheaply its kernel can touch the state
+public enum GateStructure {
+    // Only the diagonal is nonzero: every amplitude is multiplied by a phase, none are mixed
+    DIAGONAL,
+    // A 0/1 matrix with a single 1 per row and column: amplitudes are moved around without arithmetic
+    PERMUTATION,
+    GENERAL;
+
+    public static GateStructure of(Matrix matrix) {
+        int dimension = matrix.getRowCount();
+        if (dimension != matrix.getColumnCount()) {
+            return GENERAL;
+        }
+
+        boolean diagonal = true;
+        boolean permutation = true;
+        for (int row = 0; row < dimension; row++) {
+            int ones = 0;
+            for (int col = 0; col < dimension; col++) {
+                double real = matrix.getReal(row, col);
+                double imaginary = matrix.getImaginary(row, col);
+                if (real == 0 && imaginary == 0) {
+                    continue;
+                }
+                if (row != col) {
+                    diagonal = false;
+                }
+                if (real == 1 && imaginary == 0) {
+                    ones++;
+                } else {
+                    permutation = false;
+                }
+            }
+            if (ones != 1) {
+                permutation = false;
+            }
+        }
+
+        if (diagonal) {
+            return DIAGONAL;
+        }
+        // With one 1 per row, a repeated column would leave another column empty
+        return permutation && hasDistinctColumns(matrix) ? PERMUTATION : GENERAL;
+    }
+
+    private static boolean hasDistinctColumns(Matrix matrix) {
+        int dimension = matrix.getRowCount();
+        boolean[] used = new boolean[dimension];
+        for (int row = 0; row < dimension; row++) {
+            for (int col = 0; col < dimension; col++) {
+                if (matrix.getReal(row, col) == 1) {
+                    if (used[col]) {
+                        return false;
+                    }
+                    used[col] = true;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,36 @@
+package quantum.gates;
+
+import quantum.math.Matrix;
+
+public class MatrixGate extends QuantumGate {
+    private final double[] kernelMatrix;
+
+    public MatrixGate(Matrix matrixRepresentation) {
+        super(qubitCount(matrixRepresentation), matrixRepresentation);
+        this.kernelMatrix = matrixRepresentation.toInterleavedArray();
+    }
+
+    private static int qubitCount(Matrix matrix) {
+        int dimension = matrix.getRowCount();
+        if (dimension < 2 || Integer.bitCount(dimension) != 1 || matrix.getColumnCount() != dimension) {
+            throw new IllegalArgumentException("MatrixGate requires a square matrix whose size is a power of two, got (" +
+                    matrix.getRowCount() + "x" + matrix.getColumnCount() + ")");
+        }
+        return Integer.numberOfTrailingZeros(dimension);
+    }
+
+    @Override
+    public GateKernel kernel(int... bitPositions) {
+        GateKernel structured = structuredKernel(bitPositions);
+        if (structured != null) {
+            return structured;
+        }
+
+        int[] positions = bitPositions.clone();
+        return switch (inputSize) {
+            case 1 -> state -> GateKernels.applySingleQubit(state, positions[0], kernelMatrix);
+            case 2 -> state -> GateKernels.applyTwoQubit(state, positions[0], positions[1], kernelMatrix);
+            default -> state -> GateKernels.applyMultiQubit(state, positions, kernelMatrix);
+        };
+    }
+}
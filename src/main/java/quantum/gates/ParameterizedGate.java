@@ -0,0 +1,74 @@
+package quantum.gates;
+
+import quantum.gates.composit.UniversalGate;
+import quantum.gates.unary.RXGate;
+import quantum.gates.unary.RYGate;
+import quantum.gates.unary.RZGate;
+
+// A gate whose angles are read from a parameter vector when the circuit is bound, e.g. RX(p[3]).
+// parameters[i] is the index in the parameter vector of the factory's i-th angle.
+public final class ParameterizedGate {
+    @FunctionalInterface
+    public interface Factory {
+        IQuantumGate create(double... angles);
+    }
+
+    private final int inputSize;
+    private final Factory factory;
+    private final int[] parameters;
+
+    public ParameterizedGate(int inputSize, Factory factory, int... parameters) {
+        if (inputSize < 1) {
+            throw new IllegalArgumentException("A gate needs at least one input qubit.");
+        }
+        for (int parameter : parameters) {
+            if (parameter < 0) {
+                throw new IllegalArgumentException("Invalid parameter index: " + parameter);
+            }
+        }
+
+        this.inputSize = inputSize;
+        this.factory = factory;
+        this.parameters = parameters.clone();
+    }
+
+    public static ParameterizedGate rx(int parameter) {
+        return new ParameterizedGate(1, angles -> new RXGate(angles[0]), parameter);
+    }
+
+    public static ParameterizedGate ry(int parameter) {
+        return new ParameterizedGate(1, angles -> new RYGate(angles[0]), parameter);
+    }
+
+    public static ParameterizedGate rz(int parameter) {
+        return new ParameterizedGate(1, angles -> new RZGate(angles[0]), parameter);
+    }
+
+    public static ParameterizedGate universal(int theta, int phi, int lambda) {
+        return new ParameterizedGate(1, angles -> new UniversalGate(angles[0], angles[1], angles[2]), theta, phi, lambda);
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int[] getParameters() {
+        return parameters.clone();
+    }
+
+    public IQuantumGate bind(double[] point) {
+        double[] angles = new double[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i] >= point.length) {
+                throw new IllegalArgumentException("Parameter " + parameters[i] + " is missing from a point with " + point.length + " values.");
+            }
+            angles[i] = point[parameters[i]];
+        }
+
+        IQuantumGate gate = factory.create(angles);
+        if (gate.getInputSize() != inputSize) {
+            throw new IllegalArgumentException("Bound gate has " + gate.getInputSize() + " inputs instead of " + inputSize + ".");
+        }
+        return gate;
+    }
+}
@@ -0,0 +1,64 @@
+package quantum.gates;
+
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongUnaryOperator;
+
+// A gate given by a classical reversible function instead of a matrix: the basis state |x⟩ of its inputs is
+// sent to e^(i phase(x)) |permutation(x)⟩. As with PhaseOracle, input k is bit k of x. The 2^n x 2^n matrix
+// is never built, so oracles for modular exponentiation or arithmetic fit on any register that holds the state.
+public final class PermutationOracle extends QuantumGate {
+    private final LongUnaryOperator permutation;
+    private final LongToDoubleFunction phase;
+    private final boolean involution;
+
+    public PermutationOracle(int inputSize, LongUnaryOperator permutation) {
+        this(inputSize, permutation, null);
+    }
+
+    // The permutation must be a bijection on [0, 2^inputSize), or applying the gate throws; phase may be null
+    public PermutationOracle(int inputSize, LongUnaryOperator permutation, LongToDoubleFunction phase) {
+        this(inputSize, permutation, phase, false);
+    }
+
+    private PermutationOracle(int inputSize, LongUnaryOperator permutation, LongToDoubleFunction phase, boolean involution) {
+        super(inputSize, null);
+        if (inputSize < 1 || inputSize > 62) {
+            throw new IllegalArgumentException("PermutationOracle supports 1 to 62 input qubits, got " + inputSize);
+        }
+
+        this.permutation = permutation;
+        this.phase = phase;
+        this.involution = involution;
+    }
+
+    // The standard oracle |x⟩|y⟩ -> |x⟩|y ⊕ f(x)⟩: the first inputBits inputs hold x, the next outputBits hold y.
+    // It is its own inverse and is applied by swapping amplitude pairs in place.
+    public static PermutationOracle xor(int inputBits, int outputBits, LongUnaryOperator function) {
+        if (inputBits < 1 || outputBits < 1) {
+            throw new IllegalArgumentException("An XOR oracle needs at least one input and one output qubit.");
+        }
+        long inputMask = (1L << inputBits) - 1;
+        long outputMask = (1L << outputBits) - 1;
+        LongUnaryOperator permutation = value -> {
+            long x = value & inputMask;
+            return value ^ ((function.applyAsLong(x) & outputMask) << inputBits);
+        };
+        return new PermutationOracle(inputBits + outputBits, permutation, null, true);
+    }
+
+    public LongUnaryOperator getPermutation() {
+        return permutation;
+    }
+
+    @Override
+    public GateStructure getStructure() {
+        return phase == null ? GateStructure.PERMUTATION : GateStructure.GENERAL;
+    }
+
+    @Override
+    public GateKernel kernel(int... bitPositions) {
+        int[] positions = bitPositions.clone();
+        GateKernels.bitMask(positions);
+        return state -> GateKernels.applyPermutationOracle(state, positions, permutation, phase, involution);
+    }
+}
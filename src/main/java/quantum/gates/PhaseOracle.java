@@ -0,0 +1,50 @@
+package quantum.gates;
+
+import quantum.math.Parallelism;
+
+import java.util.function.LongPredicate;
+
+// Flips the sign of every basis state of its inputs that the predicate accepts, in a single pass over the
+// amplitudes. Input k is bit k of the value handed to the predicate, so for an oracle added on qubits
+// 0..n-1 the predicate sees the number that GroversAlgorithm reports.
+public final class PhaseOracle extends QuantumGate {
+    private final LongPredicate predicate;
+
+    public PhaseOracle(int inputSize, LongPredicate predicate) {
+        super(inputSize, null);
+        if (inputSize < 1 || inputSize > 62) {
+            throw new IllegalArgumentException("PhaseOracle supports 1 to 62 input qubits, got " + inputSize);
+        }
+
+        this.predicate = predicate;
+    }
+
+    public LongPredicate getPredicate() {
+        return predicate;
+    }
+
+    // Number of accepted inputs, found by evaluating the predicate on all 2^inputSize values
+    public long countSolutions() {
+        return (long) Parallelism.sum(1L << inputSize, (from, to) -> {
+            long count = 0;
+            for (long value = from; value < to; value++) {
+                if (predicate.test(value)) {
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    @Override
+    public GateStructure getStructure() {
+        return GateStructure.DIAGONAL;
+    }
+
+    @Override
+    public GateKernel kernel(int... bitPositions) {
+        int[] positions = bitPositions.clone();
+        GateKernels.bitMask(positions);
+        return state -> GateKernels.applyPhaseOracle(state, positions, predicate);
+    }
+}
@@ -2,27 +2,98 @@ package quantum.gates;
 
 import quantum.core.Qubit;
 import quantum.math.Matrix;
+import quantum.math.Vector;
 
 public abstract class QuantumGate implements IQuantumGate {
     protected final int inputSize;
     protected final Matrix matrixRepresentation;
+    private final GateStructure structure;
 
     protected QuantumGate(int inputSize, Matrix matrixRepresentation) {
         this.inputSize = inputSize;
-        this.matrixRepresentation = matrixRepresentation;
+        // Matrix has in-place operations, so the gate keeps its own copy and only ever hands out copies
+        this.matrixRepresentation = matrixRepresentation == null ? null : matrixRepresentation.copy();
+        this.structure = matrixRepresentation == null ? GateStructure.GENERAL : GateStructure.of(matrixRepresentation);
     }
 
     public int getInputSize() {
         return inputSize;
     }
 
-    protected Matrix createApplicationMatrix(Qubit target, int totalQubitCount) {
-        Matrix identity = Matrix.identity(2);
-        int targetIndex = target.getIndex();
+    // Dense matrix over the gate's input qubits, the first input being the most significant bit. Changing
+    // the returned matrix does not affect the gate.
+    public Matrix getMatrix() {
+        return matrixRepresentation == null ? null : matrixRepresentation.copy();
+    }
+
+    public GateStructure getStructure() {
+        return structure;
+    }
+
+    // Resolves the kernel for the given storage bit positions, one per input qubit
+    public abstract GateKernel kernel(int... bitPositions);
+
+    // Kernel that exploits a diagonal or permutation matrix, or null if the gate has to be applied densely
+    protected GateKernel structuredKernel(int... bitPositions) {
+        Matrix matrix = getMatrix();
+        if (matrix == null) {
+            return null;
+        }
 
-        Matrix beforeTarget = identity.tensorPower(targetIndex);
-        Matrix afterTarget = identity.tensorPower(totalQubitCount - targetIndex - inputSize);
+        int[] positions = bitPositions.clone();
+        int dimension = matrix.getRowCount();
+        switch (getStructure()) {
+            case DIAGONAL -> {
+                double[] phases = new double[2 * dimension];
+                boolean identity = true;
+                for (int j = 0; j < dimension; j++) {
+                    phases[2 * j] = matrix.getReal(j, j);
+                    phases[2 * j + 1] = matrix.getImaginary(j, j);
+                    identity &= phases[2 * j] == 1 && phases[2 * j + 1] == 0;
+                }
+                if (identity) {
+                    return state -> { };
+                }
+                if (positions.length == 1) {
+                    return state -> GateKernels.applySingleQubitDiagonal(state, positions[0], phases[0], phases[1], phases[2], phases[3]);
+                }
+                long[] masks = {GateKernels.bitMask(positions)};
+                double[][] tables = {GateKernels.compressPhases(positions, phases)};
+                return state -> GateKernels.applyDiagonal(state, masks, tables);
+            }
+            case PERMUTATION -> {
+                int[] targets = new int[dimension];
+                for (int row = 0; row < dimension; row++) {
+                    for (int col = 0; col < dimension; col++) {
+                        if (matrix.getReal(row, col) == 1) {
+                            targets[col] = row;
+                        }
+                    }
+                }
+                return state -> GateKernels.applyPermutation(state, positions, targets);
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    public Vector apply(Vector state, Qubit[] allQubits, Qubit[] inputQubits) {
+        if (inputQubits.length != inputSize) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + " requires exactly " + inputSize + " input qubits.");
+        }
+
+        int[] bitPositions = new int[inputSize];
+        for (int i = 0; i < inputSize; i++) {
+            bitPositions[i] = bitPosition(inputQubits[i], allQubits.length);
+        }
+
+        kernel(bitPositions).apply(state);
+        return state;
+    }
 
-        return beforeTarget.tensorProduct(matrixRepresentation).tensorProduct(afterTarget);
+    // Qubit index 0 is the most significant bit of a basis state
+    protected static int bitPosition(Qubit qubit, int totalQubitCount) {
+        return totalQubitCount - 1 - qubit.getIndex();
     }
 }
@@ -0,0 +1,116 @@
+package quantum.gates;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+// Vector API versions of the hot GateKernels loops on interleaved heap amplitudes. One DoubleVector holds
+// COMPLEX_LANES consecutive amplitudes, so a target bit below log2(COMPLEX_LANES) would mix both halves of a
+// pair within one vector; GateKernels keeps those positions on the scalar loops. A complex product m * a is
+// a * re(m) + swap(a) * (-im(m), im(m)), swap exchanging the real and imaginary lane of every amplitude.
+// Only loaded once GateKernels has found the jdk.incubator.vector module.
+final class SimdKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    static final int COMPLEX_LANES = SPECIES.length() / 2;
+
+    private static final VectorShuffle<Double> SWAP = VectorShuffle.fromOp(SPECIES, lane -> lane ^ 1);
+    private static final VectorShuffle<Double> REAL = VectorShuffle.fromOp(SPECIES, lane -> lane & ~1);
+    private static final VectorShuffle<Double> IMAGINARY = VectorShuffle.fromOp(SPECIES, lane -> lane | 1);
+    // -1 on real lanes, +1 on imaginary lanes
+    private static final DoubleVector SIGN = DoubleVector.fromArray(SPECIES, signs(), 0);
+
+    private SimdKernels() {
+    }
+
+    // Same as GateKernels.applySingleQubit for pairs from .. to - 1; needs 1 << bitPosition >= COMPLEX_LANES
+    // and from, to multiples of COMPLEX_LANES
+    static void applySingleQubit(double[] amplitudes, int bitPosition, double[] m, long from, long to) {
+        DoubleVector[] re = realParts(m);
+        DoubleVector[] im = imaginaryParts(m);
+        int stride = 2 << bitPosition;
+
+        for (long k = from; k < to; k += COMPLEX_LANES) {
+            int offset0 = (int) (2 * GateKernels.insertZeroBit(k, bitPosition));
+            int offset1 = offset0 + stride;
+            DoubleVector a = DoubleVector.fromArray(SPECIES, amplitudes, offset0);
+            DoubleVector b = DoubleVector.fromArray(SPECIES, amplitudes, offset1);
+            DoubleVector as = a.rearrange(SWAP);
+            DoubleVector bs = b.rearrange(SWAP);
+
+            a.fma(re[0], as.fma(im[0], b.fma(re[1], bs.mul(im[1])))).intoArray(amplitudes, offset0);
+            a.fma(re[2], as.fma(im[2], b.fma(re[3], bs.mul(im[3])))).intoArray(amplitudes, offset1);
+        }
+    }
+
+    // Same as GateKernels.applyTwoQubit for groups from .. to - 1; needs both bit positions to have
+    // 1 << bitPosition >= COMPLEX_LANES and from, to multiples of COMPLEX_LANES
+    static void applyTwoQubit(double[] amplitudes, int bitPosition1, int bitPosition2, double[] m, long from, long to) {
+        DoubleVector[] re = realParts(m);
+        DoubleVector[] im = imaginaryParts(m);
+        int low = Math.min(bitPosition1, bitPosition2);
+        int high = Math.max(bitPosition1, bitPosition2);
+        int[] offsets = {0, 2 << bitPosition2, 2 << bitPosition1, (2 << bitPosition1) | (2 << bitPosition2)};
+        DoubleVector[] values = new DoubleVector[4];
+        DoubleVector[] swapped = new DoubleVector[4];
+
+        for (long k = from; k < to; k += COMPLEX_LANES) {
+            int base = (int) (2 * GateKernels.insertZeroBit(GateKernels.insertZeroBit(k, low), high));
+            for (int j = 0; j < 4; j++) {
+                values[j] = DoubleVector.fromArray(SPECIES, amplitudes, base + offsets[j]);
+                swapped[j] = values[j].rearrange(SWAP);
+            }
+            for (int row = 0; row < 4; row++) {
+                DoubleVector sum = values[0].fma(re[4 * row], swapped[0].mul(im[4 * row]));
+                for (int col = 1; col < 4; col++) {
+                    sum = values[col].fma(re[4 * row + col], swapped[col].fma(im[4 * row + col], sum));
+                }
+                sum.intoArray(amplitudes, base + offsets[row]);
+            }
+        }
+    }
+
+    // Multiplies amplitudes from .. to - 1 by the same phase; from and to must be multiples of COMPLEX_LANES
+    static void multiplyRange(double[] amplitudes, long from, long to, double real, double imaginary) {
+        DoubleVector re = DoubleVector.broadcast(SPECIES, real);
+        DoubleVector im = SIGN.mul(imaginary);
+        for (int offset = (int) (2 * from); offset < 2 * to; offset += SPECIES.length()) {
+            DoubleVector a = DoubleVector.fromArray(SPECIES, amplitudes, offset);
+            a.fma(re, a.rearrange(SWAP).mul(im)).intoArray(amplitudes, offset);
+        }
+    }
+
+    // Multiplies amplitudes from .. to - 1 element-wise by phases (interleaved, starting at amplitude from)
+    static void multiplyElementwise(double[] amplitudes, long from, long to, double[] phases) {
+        for (int offset = (int) (2 * from), p = 0; offset < 2 * to; offset += SPECIES.length(), p += SPECIES.length()) {
+            DoubleVector a = DoubleVector.fromArray(SPECIES, amplitudes, offset);
+            DoubleVector phase = DoubleVector.fromArray(SPECIES, phases, p);
+            DoubleVector re = phase.rearrange(REAL);
+            DoubleVector im = phase.rearrange(IMAGINARY).mul(SIGN);
+            a.fma(re, a.rearrange(SWAP).mul(im)).intoArray(amplitudes, offset);
+        }
+    }
+
+    private static double[] signs() {
+        double[] signs = new double[SPECIES.length()];
+        for (int lane = 0; lane < signs.length; lane++) {
+            signs[lane] = lane % 2 == 0 ? -1 : 1;
+        }
+        return signs;
+    }
+
+    private static DoubleVector[] realParts(double[] m) {
+        DoubleVector[] parts = new DoubleVector[m.length / 2];
+        for (int j = 0; j < parts.length; j++) {
+            parts[j] = DoubleVector.broadcast(SPECIES, m[2 * j]);
+        }
+        return parts;
+    }
+
+    private static DoubleVector[] imaginaryParts(double[] m) {
+        DoubleVector[] parts = new DoubleVector[m.length / 2];
+        for (int j = 0; j < parts.length; j++) {
+            parts[j] = SIGN.mul(m[2 * j + 1]);
+        }
+        return parts;
+    }
+}
@@ -1,25 +1,23 @@
 package quantum.gates;
 
-import quantum.core.Qubit;
 import quantum.math.Matrix;
-import quantum.math.Vector;
 
 public abstract class UnaryQuantumGate extends QuantumGate {
+    private final double[] kernelMatrix;
+
     protected UnaryQuantumGate(Matrix matrixRepresentation) {
         super(1, matrixRepresentation);
+        this.kernelMatrix = matrixRepresentation.toInterleavedArray();
     }
 
-    public Vector apply(Vector state, Qubit[] allQubits, Qubit[] inputQubits) {
-        validateInputQubits(inputQubits);
-
-        Qubit target = inputQubits[0];
-        Matrix applicationMatrix = createApplicationMatrix(target, allQubits.length);
-        return applicationMatrix.multiply(state);
-    }
-
-    private void validateInputQubits(Qubit[] inputQubits) {
-        if (inputQubits.length != 1) {
-            throw new IllegalArgumentException("UnaryQuantumGate requires exactly one input qubit.");
+    @Override
+    public GateKernel kernel(int... bitPositions) {
+        GateKernel structured = structuredKernel(bitPositions);
+        if (structured != null) {
+            return structured;
         }
+
+        int bitPosition = bitPositions[0];
+        return state -> GateKernels.applySingleQubit(state, bitPosition, kernelMatrix);
     }
 }
@@ -1,15 +1,17 @@
 package quantum.gates.binary;
 
-import quantum.gates.QuantumGate;
+import quantum.core.Qubit;
+import quantum.gates.BinaryQuantumGate;
+import quantum.gates.GateKernel;
+import quantum.gates.GateKernels;
 import quantum.math.ComplexNumber;
 import quantum.math.Matrix;
 import quantum.math.Vector;
-import quantum.core.Qubit;
 
-public class SwapGate extends QuantumGate {
+public class SwapGate extends BinaryQuantumGate {
 
     public SwapGate() {
-        super(2, createSwapGateMatrix());
+        super(createSwapGateMatrix());
     }
 
     private static Matrix createSwapGateMatrix() {
@@ -22,6 +24,9 @@ public class SwapGate extends QuantumGate {
         return new Matrix(data);
     }
 
+    // A swap is only a relabeling: the register's qubit-to-index table is updated and
+    // the amplitudes are left untouched until someone reads the state in logical order.
+    @Override
     public Vector apply(Vector state, Qubit[] allQubits, Qubit[] inputQubits) {
         if (inputQubits.length != 2) {
             throw new IllegalArgumentException("Swap operation requires exactly two input qubits.");
@@ -30,46 +35,17 @@ public class SwapGate extends QuantumGate {
         Qubit qubit1 = inputQubits[0];
         Qubit qubit2 = inputQubits[1];
         int index1 = qubit1.getIndex();
-        int index2 = qubit2.getIndex();
-
-        state = moveQubit(state, allQubits, qubit1, index2);
-        state = moveQubit(state, allQubits, qubit2, index1);
-
-        return state;
-    }
+        qubit1.setIndex(qubit2.getIndex());
+        qubit2.setIndex(index1);
 
-    public Vector moveQubit(Vector state, Qubit[] allQubits, Qubit qubit1, int index) {
-        while (qubit1.getIndex() != index) {
-            int swapIdx = qubit1.getIndex() < index ? qubit1.getIndex() + 1 : qubit1.getIndex() - 1;
-            state = swapAdjacent(state, allQubits, qubit1, allQubits[swapIdx]);
-        }
         return state;
     }
 
-    private Vector swapAdjacent(Vector state, Qubit[] allQubits, Qubit qubit1, Qubit qubit2) {
-        if (Math.abs(qubit1.getIndex() - qubit2.getIndex()) != 1) {
-            throw new IllegalArgumentException("Qubits must be adjacent in a state to apply a swap operation.");
-        }
-
-        Matrix operationMatrix = Matrix.identity(1);
-
-        for (int i = 0; i < allQubits.length; i++) {
-            if (i == qubit1.getIndex() || i == qubit2.getIndex()) {
-                operationMatrix = operationMatrix.tensorProduct(matrixRepresentation);
-                i++;
-            } else {
-                Matrix identityMatrix = Matrix.identity(2);
-                operationMatrix = operationMatrix.tensorProduct(identityMatrix);
-            }
-        }
-
-        Vector newState = operationMatrix.multiply(state);
-
-        int index1 = qubit1.getIndex();
-        int index2 = qubit2.getIndex();
-        qubit1.setIndex(index2);
-        qubit2.setIndex(index1);
-        
-        return newState;
+    // Used when the swap has to be carried out on the amplitudes themselves
+    @Override
+    public GateKernel kernel(int... bitPositions) {
+        int bitPosition1 = bitPositions[0];
+        int bitPosition2 = bitPositions[1];
+        return state -> GateKernels.swapBits(state, bitPosition1, bitPosition2);
     }
 }
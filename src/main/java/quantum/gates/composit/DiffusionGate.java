@@ -0,0 +1,24 @@
+package quantum.gates.composit;
+
+import quantum.gates.GateKernel;
+import quantum.gates.GateKernels;
+import quantum.gates.QuantumGate;
+
+// Grover's diffusion operator 2|s⟩⟨s| - I on its inputs, |s⟩ being their uniform superposition. Equivalent
+// to H, X, multi-controlled Z, X, H on every input up to a global phase, but applied as a single reflection
+// of the amplitudes about their mean.
+public class DiffusionGate extends QuantumGate {
+    public DiffusionGate(int inputSize) {
+        super(inputSize, null);
+        if (inputSize < 1) {
+            throw new IllegalArgumentException("DiffusionGate requires at least one input qubit.");
+        }
+    }
+
+    @Override
+    public GateKernel kernel(int... bitPositions) {
+        int[] positions = bitPositions.clone();
+        GateKernels.bitMask(positions);
+        return state -> GateKernels.applyDiffusion(state, positions);
+    }
+}
@@ -0,0 +1,64 @@
+package quantum.gates.composit;
+
+import quantum.gates.GateKernel;
+import quantum.gates.GateKernels;
+import quantum.gates.QuantumGate;
+import quantum.math.Matrix;
+
+// Quantum Fourier transform |x⟩ -> 2^(-k/2) Σ_y e^(2πi xy / 2^k) |y⟩ over its k inputs, the first input being
+// the most significant bit of x and y, including the final bit reversal. The inputs can be any qubits, in
+// any order. Applied as an in-place FFT over the amplitudes instead of the H and controlled-phase ladder.
+public class QFTGate extends QuantumGate {
+    // Above this many inputs getMatrix() returns null instead of a dense matrix
+    private static final int MAX_DENSE_QUBITS = 10;
+
+    private final boolean inverse;
+
+    public QFTGate(int inputSize) {
+        this(inputSize, false);
+    }
+
+    private QFTGate(int inputSize, boolean inverse) {
+        super(inputSize, null);
+        if (inputSize < 1 || inputSize > 62) {
+            throw new IllegalArgumentException("QFTGate supports 1 to 62 input qubits, got " + inputSize);
+        }
+        this.inverse = inverse;
+    }
+
+    // The adjoint, e^(-2πi xy / 2^k), as used at the end of phase estimation
+    public static QFTGate inverse(int inputSize) {
+        return new QFTGate(inputSize, true);
+    }
+
+    public boolean isInverse() {
+        return inverse;
+    }
+
+    @Override
+    public Matrix getMatrix() {
+        if (inputSize > MAX_DENSE_QUBITS) {
+            return null;
+        }
+
+        int dimension = 1 << inputSize;
+        double scale = 1 / Math.sqrt(dimension);
+        double step = (inverse ? -2 : 2) * Math.PI / dimension;
+        Matrix matrix = new Matrix(dimension, dimension);
+        for (int row = 0; row < dimension; row++) {
+            for (int col = 0; col < dimension; col++) {
+                // row * col can be reduced first, keeping the angle small and the entries exact at multiples of π/2
+                double angle = step * ((long) row * col % dimension);
+                matrix.set(row, col, scale * Math.cos(angle), scale * Math.sin(angle));
+            }
+        }
+        return matrix;
+    }
+
+    @Override
+    public GateKernel kernel(int... bitPositions) {
+        int[] positions = bitPositions.clone();
+        GateKernels.bitMask(positions);
+        return state -> GateKernels.applyQft(state, positions, inverse);
+    }
+}
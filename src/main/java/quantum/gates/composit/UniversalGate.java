@@ -1,37 +1,38 @@
 package quantum.gates.composit;
 
-import quantum.core.Qubit;
-import quantum.gates.QuantumGate;
+import quantum.gates.UnaryQuantumGate;
 import quantum.gates.unary.RYGate;
 import quantum.gates.unary.RZGate;
-import quantum.math.Vector;
+import quantum.math.Matrix;
 
-public class UniversalGate extends QuantumGate {
+public class UniversalGate extends UnaryQuantumGate {
     private final double theta; // Rotation around the Y-axis
     private final double phi;   // First rotation around the Z-axis
     private final double lambda; // Second rotation around the Z-axis
 
     public UniversalGate(double theta, double phi, double lambda) {
-        super(3, null);
+        super(createUniversalMatrix(theta, phi, lambda));
         this.theta = theta;
         this.phi = phi;
         this.lambda = lambda;
     }
 
-    @Override
-    public Vector apply(Vector state, Qubit[] allQubits, Qubit... inputQubits) {
-        if (inputQubits.length != 1) {
-            throw new IllegalArgumentException("UniversalGate requires exactly one input qubit.");
-        }
+    // RZ(phi) is applied first, so it is the rightmost factor
+    private static Matrix createUniversalMatrix(double theta, double phi, double lambda) {
+        return new RZGate(lambda).getMatrix()
+                .multiply(new RYGate(theta).getMatrix())
+                .multiply(new RZGate(phi).getMatrix());
+    }
 
-        RZGate rzGatePhi = new RZGate(phi);
-        RYGate ryGateTheta = new RYGate(theta);
-        RZGate rzGateLambda = new RZGate(lambda);
+    public double getTheta() {
+        return theta;
+    }
 
-        state = rzGatePhi.apply(state, allQubits, inputQubits);
-        state = ryGateTheta.apply(state, allQubits, inputQubits);
-        state = rzGateLambda.apply(state, allQubits, inputQubits);
+    public double getPhi() {
+        return phi;
+    }
 
-        return state;
+    public double getLambda() {
+        return lambda;
     }
 }
@@ -1,9 +1,8 @@
 package quantum.gates.unary;
 
-import quantum.core.Qubit;
+import quantum.gates.GateKernel;
 import quantum.gates.UnaryQuantumGate;
 import quantum.math.Matrix;
-import quantum.math.Vector;
 
 public class IdentityGate extends UnaryQuantumGate {
     public IdentityGate() {
@@ -11,7 +10,8 @@ public class IdentityGate extends UnaryQuantumGate {
     }
 
     @Override
-    public Vector apply(Vector state, Qubit[] allQubits, Qubit[] inputQubits) {
-        return state;
+    public GateKernel kernel(int... bitPositions) {
+        return state -> {
+        };
     }
 }
@@ -0,0 +1,17 @@
+package quantum.math;
+
+public interface AmplitudeBuffer extends AutoCloseable {
+    long length();
+
+    double getReal(long index);
+
+    double getImaginary(long index);
+
+    void set(long index, double real, double imaginary);
+
+    AmplitudeBuffer copy();
+
+    @Override
+    default void close() {
+    }
+}
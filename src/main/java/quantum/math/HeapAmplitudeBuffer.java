@@ -0,0 +1,50 @@
+package quantum.math;
+
+public final class HeapAmplitudeBuffer implements AmplitudeBuffer {
+    public static final long MAX_LENGTH = (Integer.MAX_VALUE - 8) / 2;
+
+    // Interleaved amplitudes: element i lives at [2i] (real) and [2i + 1] (imaginary)
+    private final double[] amplitudes;
+
+    public HeapAmplitudeBuffer(long length) {
+        if (length < 0 || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Heap amplitude buffers hold at most " + MAX_LENGTH + " amplitudes, requested " + length + ".");
+        }
+        this.amplitudes = new double[(int) (2 * length)];
+    }
+
+    private HeapAmplitudeBuffer(double[] amplitudes) {
+        this.amplitudes = amplitudes;
+    }
+
+    // The interleaved backing array itself, for kernels that process several amplitudes per instruction
+    public double[] array() {
+        return amplitudes;
+    }
+
+    @Override
+    public long length() {
+        return amplitudes.length >> 1;
+    }
+
+    @Override
+    public double getReal(long index) {
+        return amplitudes[(int) (2 * index)];
+    }
+
+    @Override
+    public double getImaginary(long index) {
+        return amplitudes[(int) (2 * index + 1)];
+    }
+
+    @Override
+    public void set(long index, double real, double imaginary) {
+        amplitudes[(int) (2 * index)] = real;
+        amplitudes[(int) (2 * index + 1)] = imaginary;
+    }
+
+    @Override
+    public HeapAmplitudeBuffer copy() {
+        return new HeapAmplitudeBuffer(amplitudes.clone());
+    }
+}
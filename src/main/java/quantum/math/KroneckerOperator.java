@@ -0,0 +1,138 @@
+package quantum.math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// A ⊗ B ⊗ ... kept as its square factors instead of one dense matrix. The first factor acts on the most
+// significant digits of an index, as in Matrix.tensorProduct. Applying it contracts one factor at a time
+// against the vector, O(N * sum of factor dimensions) for N = product of the dimensions, and identity
+// factors are skipped altogether.
+public final class KroneckerOperator {
+    private final List<Matrix> factors;
+    private final long dimension;
+
+    public KroneckerOperator(Matrix... factors) {
+        this(List.of(factors));
+    }
+
+    private KroneckerOperator(List<Matrix> factors) {
+        long product = 1;
+        for (Matrix factor : factors) {
+            if (factor.getRowCount() != factor.getColumnCount() || factor.getRowCount() == 0) {
+                throw new IllegalArgumentException("Kronecker factors must be non-empty square matrices, got (" +
+                        factor.getRowCount() + "x" + factor.getColumnCount() + ")");
+            }
+            product = Math.multiplyExact(product, factor.getRowCount());
+        }
+
+        this.factors = List.copyOf(factors);
+        this.dimension = product;
+    }
+
+    // factor ⊗ factor ⊗ ... (exponent times); the factor is stored once per position, never multiplied out
+    public static KroneckerOperator power(Matrix factor, int exponent) {
+        if (exponent < 0) {
+            throw new IllegalArgumentException("Exponent cannot be negative.");
+        }
+        Matrix[] factors = new Matrix[exponent];
+        Arrays.fill(factors, factor);
+        return new KroneckerOperator(factors);
+    }
+
+    public KroneckerOperator tensorProduct(Matrix other) {
+        List<Matrix> combined = new ArrayList<>(factors);
+        combined.add(other);
+        return new KroneckerOperator(combined);
+    }
+
+    public KroneckerOperator tensorProduct(KroneckerOperator other) {
+        List<Matrix> combined = new ArrayList<>(factors);
+        combined.addAll(other.factors);
+        return new KroneckerOperator(combined);
+    }
+
+    public List<Matrix> getFactors() {
+        return factors;
+    }
+
+    public long getDimension() {
+        return dimension;
+    }
+
+    public Vector apply(Vector input) {
+        return applyInPlace(input.copy());
+    }
+
+    // Overwrites the vector with the operator applied to it
+    public Vector applyInPlace(Vector state) {
+        if (state.length() != dimension) {
+            throw new IllegalArgumentException("Operator of dimension " + dimension + " cannot be applied to a vector of length " + state.length());
+        }
+
+        // Dimensions of all factors to the right, i.e. the distance between consecutive digits of this factor
+        long stride = dimension;
+        for (Matrix factor : factors) {
+            int size = factor.getRowCount();
+            stride /= size;
+            if (!isIdentity(factor)) {
+                applyFactor(state, factor.toInterleavedArray(), size, stride);
+            }
+        }
+        return state;
+    }
+
+    // The dense matrix, for the rare cases that really need it
+    public Matrix materialize() {
+        Matrix result = Matrix.identity(1);
+        for (Matrix factor : factors) {
+            result = result.tensorProduct(factor);
+        }
+        return result;
+    }
+
+    private static void applyFactor(Vector state, double[] matrix, int size, long stride) {
+        long groups = state.length() / size;
+        Parallelism.RangeAction action = (from, to) -> {
+            double[] real = new double[size];
+            double[] imaginary = new double[size];
+            for (long group = from; group < to; group++) {
+                long base = (group / stride) * stride * size + group % stride;
+                for (int t = 0; t < size; t++) {
+                    real[t] = state.getReal(base + t * stride);
+                    imaginary[t] = state.getImaginary(base + t * stride);
+                }
+                for (int row = 0; row < size; row++) {
+                    double sumReal = 0;
+                    double sumImaginary = 0;
+                    for (int column = 0; column < size; column++) {
+                        double mr = matrix[2 * (row * size + column)];
+                        double mi = matrix[2 * (row * size + column) + 1];
+                        sumReal += mr * real[column] - mi * imaginary[column];
+                        sumImaginary += mr * imaginary[column] + mi * real[column];
+                    }
+                    state.set(base + row * stride, sumReal, sumImaginary);
+                }
+            }
+        };
+
+        // Sparse buffers must not be written from several threads
+        if (state.getBuffer() instanceof SparseAmplitudeBuffer) {
+            action.run(0, groups);
+        } else {
+            Parallelism.forEach(groups, action);
+        }
+    }
+
+    private static boolean isIdentity(Matrix matrix) {
+        for (int row = 0; row < matrix.getRowCount(); row++) {
+            for (int column = 0; column < matrix.getColumnCount(); column++) {
+                double expected = row == column ? 1 : 0;
+                if (matrix.getReal(row, column) != expected || matrix.getImaginary(row, column) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
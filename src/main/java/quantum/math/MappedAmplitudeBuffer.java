@@ -0,0 +1,146 @@
+package quantum.math;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Amplitudes stored in a memory-mapped file, for registers that do not fit in RAM.
+// The file is mapped as a sequence of 1 GiB regions because a single mapping is int-indexed.
+public final class MappedAmplitudeBuffer implements AmplitudeBuffer {
+    private static final int BYTES_PER_AMPLITUDE = 2 * Double.BYTES;
+    private static final int REGION_SHIFT = 30;
+    private static final long REGION_MASK = (1L << REGION_SHIFT) - 1;
+
+    // Page-in accounting granularity: 2^16 amplitudes = 1 MiB of file
+    public static final int BLOCK_AMPLITUDE_SHIFT = 16;
+
+    private final Path file;
+    private final boolean deleteOnClose;
+    private final long length;
+    private FileChannel channel;
+    private MappedByteBuffer[] regions;
+    private final boolean[] touchedBlocks;
+
+    public MappedAmplitudeBuffer(Path file, long length, boolean deleteOnClose) {
+        if (length < 0 || length > Long.MAX_VALUE / BYTES_PER_AMPLITUDE) {
+            throw new IllegalArgumentException("Invalid amplitude count: " + length);
+        }
+
+        this.file = file;
+        this.deleteOnClose = deleteOnClose;
+        this.length = length;
+        this.touchedBlocks = new boolean[Math.toIntExact(Math.max(1, ((length - 1) >>> BLOCK_AMPLITUDE_SHIFT) + 1))];
+
+        long totalBytes = length * BYTES_PER_AMPLITUDE;
+        try {
+            // Truncating first guarantees the (sparse) file starts out all zero
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.regions = new MappedByteBuffer[Math.toIntExact(((totalBytes - 1) >>> REGION_SHIFT) + 1)];
+            for (int region = 0; region < regions.length; region++) {
+                long start = (long) region << REGION_SHIFT;
+                long size = Math.min(1L << REGION_SHIFT, totalBytes - start);
+                regions[region] = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+                regions[region].order(ByteOrder.nativeOrder());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map state vector file " + file, e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public double getReal(long index) {
+        long offset = index * BYTES_PER_AMPLITUDE;
+        touchedBlocks[(int) (index >>> BLOCK_AMPLITUDE_SHIFT)] = true;
+        return regions[(int) (offset >>> REGION_SHIFT)].getDouble((int) (offset & REGION_MASK));
+    }
+
+    @Override
+    public double getImaginary(long index) {
+        long offset = index * BYTES_PER_AMPLITUDE + Double.BYTES;
+        touchedBlocks[(int) (index >>> BLOCK_AMPLITUDE_SHIFT)] = true;
+        return regions[(int) (offset >>> REGION_SHIFT)].getDouble((int) (offset & REGION_MASK));
+    }
+
+    @Override
+    public void set(long index, double real, double imaginary) {
+        long offset = index * BYTES_PER_AMPLITUDE;
+        touchedBlocks[(int) (index >>> BLOCK_AMPLITUDE_SHIFT)] = true;
+        MappedByteBuffer region = regions[(int) (offset >>> REGION_SHIFT)];
+        region.putDouble((int) (offset & REGION_MASK), real);
+        region.putDouble((int) (offset & REGION_MASK) + Double.BYTES, imaginary);
+    }
+
+    // Copies go to a temporary file next to this one that is deleted when the copy is closed
+    @Override
+    public MappedAmplitudeBuffer copy() {
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Path copyFile = Files.createTempFile(directory, file.getFileName().toString(), ".copy");
+            MappedAmplitudeBuffer copy = new MappedAmplitudeBuffer(copyFile, length, true);
+            for (long i = 0; i < length; i++) {
+                copy.set(i, getReal(i), getImaginary(i));
+            }
+            return copy;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not copy state vector file " + file, e);
+        }
+    }
+
+    // Bytes of the file accessed since the last reset, at 1 MiB block granularity.
+    // For a state larger than RAM this is the amount of data that had to be paged in.
+    public long getTouchedBytes() {
+        long blocks = 0;
+        for (boolean touched : touchedBlocks) {
+            if (touched) {
+                blocks++;
+            }
+        }
+        return Math.min(blocks << BLOCK_AMPLITUDE_SHIFT, length) * BYTES_PER_AMPLITUDE;
+    }
+
+    public void resetTouchedBytes() {
+        Arrays.fill(touchedBlocks, false);
+    }
+
+    public void flush() {
+        for (MappedByteBuffer region : regions) {
+            region.force();
+        }
+    }
+
+    // The mappings themselves are released by the garbage collector; the channel and,
+    // if requested, the file are released immediately.
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            regions = null;
+            channel.close();
+            channel = null;
+            if (deleteOnClose) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close state vector file " + file, e);
+        }
+    }
+}
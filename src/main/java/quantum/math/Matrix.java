@@ -1,168 +1,315 @@
 package quantum.math;
 
-import java.util.function.BiFunction;
+import java.util.Arrays;
 
+// Dense complex matrix stored row-major in one primitive array of interleaved real and imaginary parts.
+// Operations returning a Matrix leave their operands untouched; the *InPlace and *Into variants write into
+// an existing matrix instead of allocating. Gates copy the matrices they are built from and return copies
+// from getMatrix(), so neither can be used to change a gate.
 public class Matrix {
-    private final ComplexNumber[][] elements;
+    // Square tiles of this many complex entries keep three working tiles of a product within L1/L2
+    private static final int BLOCK_SIZE = 64;
+
+    private final int rows;
+    private final int columns;
+    private final double[] values;
 
     public Matrix(ComplexNumber[][] elements) {
-        this.elements = deepcopyElements(elements);
+        this.rows = elements.length;
+        this.columns = rows > 0 ? elements[0].length : 0;
+        this.values = new double[2 * rows * columns];
+        for (int i = 0; i < rows; i++) {
+            if (elements[i].length != columns) {
+                throw new IllegalArgumentException("Row " + i + " has " + elements[i].length + " columns instead of " + columns);
+            }
+            for (int j = 0; j < columns; j++) {
+                values[2 * (i * columns + j)] = elements[i][j].getReal();
+                values[2 * (i * columns + j) + 1] = elements[i][j].getImaginary();
+            }
+        }
     }
 
-    private static ComplexNumber[][] deepcopyElements(ComplexNumber[][] original) {
-        int rows = original.length;
-        ComplexNumber[][] copy = new ComplexNumber[rows][];
+    // Zero matrix, e.g. as the target of multiplyInto
+    public Matrix(int rows, int columns) {
+        this(rows, columns, allocate(rows, columns));
+    }
 
-        for (int i = 0; i < rows; i++) {
-            int cols = original[i].length;
-            copy[i] = new ComplexNumber[cols];
-            System.arraycopy(original[i], 0, copy[i], 0, cols);
-        }
+    private Matrix(int rows, int columns, double[] values) {
+        this.rows = rows;
+        this.columns = columns;
+        this.values = values;
+    }
 
-        return copy;
+    private static double[] allocate(int rows, int columns) {
+        if (rows < 0 || columns < 0) {
+            throw new IllegalArgumentException("Invalid matrix shape: (" + rows + "x" + columns + ")");
+        }
+        return new double[2 * rows * columns];
     }
 
     public ComplexNumber[][] getElements() {
-        return deepcopyElements(elements);
+        ComplexNumber[][] elements = new ComplexNumber[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                elements[i][j] = getElement(i, j);
+            }
+        }
+        return elements;
     }
 
     public ComplexNumber getElement(int row, int column) {
-        return elements[row][column];
+        return new ComplexNumber(getReal(row, column), getImaginary(row, column));
+    }
+
+    public double getReal(int row, int column) {
+        return values[2 * (row * columns + column)];
+    }
+
+    public double getImaginary(int row, int column) {
+        return values[2 * (row * columns + column) + 1];
+    }
+
+    public void set(int row, int column, double real, double imaginary) {
+        values[2 * (row * columns + column)] = real;
+        values[2 * (row * columns + column) + 1] = imaginary;
     }
 
     public ComplexNumber[] getRow(int row) {
-        return elements[row].clone();
+        ComplexNumber[] rowValues = new ComplexNumber[columns];
+        for (int j = 0; j < columns; j++) {
+            rowValues[j] = getElement(row, j);
+        }
+        return rowValues;
     }
 
     public int getRowCount() {
-        return elements.length;
+        return rows;
     }
 
     public int getColumnCount() {
-        return elements.length > 0 ? elements[0].length : 0;
+        return columns;
     }
 
-    public ComplexNumber[] getColumn(int col) {
-        ComplexNumber[] columnValues = new ComplexNumber[getRowCount()];
-        for (int i = 0; i < getRowCount(); i++) {
-            columnValues[i] = elements[i][col];
+    public double[] toInterleavedArray() {
+        return values.clone();
+    }
+
+    public static Matrix fromInterleavedArray(double[] values, int rows, int columns) {
+        if (values.length != 2 * rows * columns) {
+            throw new IllegalArgumentException("Expected " + 2 * rows * columns + " values for a (" + rows + "x" + columns + ") matrix, got " + values.length);
         }
-        return columnValues;
+
+        return new Matrix(rows, columns, values.clone());
     }
 
-    private Matrix scalarOperation(ComplexNumber scalar, BiFunction<ComplexNumber, ComplexNumber, ComplexNumber> operation) {
-        ComplexNumber[][] result = new ComplexNumber[getRowCount()][getColumnCount()];
-        for (int i = 0; i < getRowCount(); i++) {
-            for (int j = 0; j < getColumnCount(); j++) {
-                result[i][j] = operation.apply(elements[i][j], scalar);
-            }
+    public Matrix copy() {
+        return new Matrix(rows, columns, values.clone());
+    }
+
+    public ComplexNumber[] getColumn(int col) {
+        ComplexNumber[] columnValues = new ComplexNumber[rows];
+        for (int i = 0; i < rows; i++) {
+            columnValues[i] = getElement(i, col);
         }
-        return new Matrix(result);
+        return columnValues;
     }
 
-    private Matrix elementWiseOperation(Matrix other, BiFunction<ComplexNumber, ComplexNumber, ComplexNumber> operation) {
-        if (getRowCount() != other.getRowCount() || getColumnCount() != other.getColumnCount()) {
+    private void checkSameShape(Matrix other) {
+        if (rows != other.rows || columns != other.columns) {
             throw new IllegalArgumentException(
                     "RuntimeError: Matrix shapes do not match for element-wise operation: " +
-                            "(" + getRowCount() + "x" + getColumnCount() + ") and " +
-                            "(" + other.getRowCount() + "x" + other.getColumnCount() + ")"
+                            "(" + rows + "x" + columns + ") and " +
+                            "(" + other.rows + "x" + other.columns + ")"
             );
         }
-
-        ComplexNumber[][] result = new ComplexNumber[getRowCount()][getColumnCount()];
-        for (int i = 0; i < getRowCount(); i++) {
-            for (int j = 0; j < getColumnCount(); j++) {
-                result[i][j] = operation.apply(elements[i][j], other.getElement(i, j));
-            }
-        }
-        return new Matrix(result);
     }
 
     public Matrix add(ComplexNumber scalar) {
-        return scalarOperation(scalar, ComplexNumber::add);
+        return copy().addInPlace(scalar);
     }
 
     public Matrix add(Matrix other) {
-        return elementWiseOperation(other, ComplexNumber::add);
+        return copy().addInPlace(other);
     }
 
     public Matrix subtract(ComplexNumber scalar) {
-        return scalarOperation(scalar, ComplexNumber::subtract);
+        return copy().addInPlace(new ComplexNumber(-scalar.getReal(), -scalar.getImaginary()));
     }
 
     public Matrix subtract(Matrix other) {
-        return elementWiseOperation(other, ComplexNumber::subtract);
+        return copy().subtractInPlace(other);
     }
 
     public Matrix multiply(ComplexNumber scalar) {
-        return scalarOperation(scalar, ComplexNumber::multiply);
+        return copy().scaleInPlace(scalar);
+    }
+
+    // Adds the scalar to every element
+    public Matrix addInPlace(ComplexNumber scalar) {
+        double real = scalar.getReal();
+        double imaginary = scalar.getImaginary();
+        for (int i = 0; i < values.length; i += 2) {
+            values[i] += real;
+            values[i + 1] += imaginary;
+        }
+        return this;
+    }
+
+    public Matrix addInPlace(Matrix other) {
+        checkSameShape(other);
+        for (int i = 0; i < values.length; i++) {
+            values[i] += other.values[i];
+        }
+        return this;
+    }
+
+    public Matrix subtractInPlace(Matrix other) {
+        checkSameShape(other);
+        for (int i = 0; i < values.length; i++) {
+            values[i] -= other.values[i];
+        }
+        return this;
+    }
+
+    public Matrix scaleInPlace(ComplexNumber scalar) {
+        double real = scalar.getReal();
+        double imaginary = scalar.getImaginary();
+        for (int i = 0; i < values.length; i += 2) {
+            double r = values[i];
+            double im = values[i + 1];
+            values[i] = r * real - im * imaginary;
+            values[i + 1] = r * imaginary + im * real;
+        }
+        return this;
     }
 
     public Matrix multiply(Matrix other) {
-        if (this.getColumnCount() != other.getRowCount()) {
+        return multiplyInto(other, new Matrix(rows, other.columns));
+    }
+
+    // target = this * other without allocating. Row blocks of the target are computed independently,
+    // on the Parallelism pool once the product is large enough, so the result does not depend on the pool.
+    public Matrix multiplyInto(Matrix other, Matrix target) {
+        if (columns != other.rows) {
             throw new IllegalArgumentException(
                     "RuntimeError: Matrix shapes cannot be multiplied: " +
-                            "(" + getRowCount() + "x" + getColumnCount() + ") and " +
-                            "(" + other.getRowCount() + "x" + other.getColumnCount() + ")"
+                            "(" + rows + "x" + columns + ") and " +
+                            "(" + other.rows + "x" + other.columns + ")"
             );
         }
+        if (target.rows != rows || target.columns != other.columns) {
+            throw new IllegalArgumentException("Target must be (" + rows + "x" + other.columns + "), got (" + target.rows + "x" + target.columns + ")");
+        }
+        if (target == this || target == other) {
+            throw new IllegalArgumentException("Target of a matrix product must not be one of its operands.");
+        }
+
+        int rowBlocks = (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        long work = (long) rows * columns * other.columns;
+        Parallelism.forEachTask(rowBlocks, work, block -> multiplyRowBlock(other, target, block * BLOCK_SIZE));
+        return target;
+    }
 
-        ComplexNumber[][] result = new ComplexNumber[this.getRowCount()][other.getColumnCount()];
-        for (int i = 0; i < this.getRowCount(); i++) {
-            for (int j = 0; j < other.getColumnCount(); j++) {
-                result[i][j] = new ComplexNumber(0, 0);
-                for (int k = 0; k < this.getColumnCount(); k++) {
-                    result[i][j] = result[i][j].add(this.elements[i][k].multiply(other.elements[k][j]));
+    private void multiplyRowBlock(Matrix other, Matrix target, int rowStart) {
+        int rowEnd = Math.min(rowStart + BLOCK_SIZE, rows);
+        int outColumns = other.columns;
+        double[] a = values;
+        double[] b = other.values;
+        double[] c = target.values;
+        Arrays.fill(c, 2 * rowStart * outColumns, 2 * rowEnd * outColumns, 0);
+
+        for (int kStart = 0; kStart < columns; kStart += BLOCK_SIZE) {
+            int kEnd = Math.min(kStart + BLOCK_SIZE, columns);
+            for (int jStart = 0; jStart < outColumns; jStart += BLOCK_SIZE) {
+                int jEnd = Math.min(jStart + BLOCK_SIZE, outColumns);
+                for (int i = rowStart; i < rowEnd; i++) {
+                    int cRow = 2 * i * outColumns;
+                    for (int k = kStart; k < kEnd; k++) {
+                        double ar = a[2 * (i * columns + k)];
+                        double ai = a[2 * (i * columns + k) + 1];
+                        if (ar == 0 && ai == 0) {
+                            continue;
+                        }
+                        int bRow = 2 * k * outColumns;
+                        for (int j = 2 * jStart; j < 2 * jEnd; j += 2) {
+                            double br = b[bRow + j];
+                            double bi = b[bRow + j + 1];
+                            c[cRow + j] += ar * br - ai * bi;
+                            c[cRow + j + 1] += ar * bi + ai * br;
+                        }
+                    }
                 }
             }
         }
-        return new Matrix(result);
     }
 
     public Vector multiply(Vector inputVector) {
-        if (this.getColumnCount() != inputVector.size()) {
+        return multiplyInto(inputVector, new Vector(rows));
+    }
+
+    // output = this * input without allocating; output must be a different vector of length getRowCount()
+    public Vector multiplyInto(Vector input, Vector output) {
+        if (columns != input.size()) {
             throw new IllegalArgumentException(
                     "RuntimeError: Matrix and Vector shapes cannot be multiplied: " +
-                            "(" + getRowCount() + "x" + getColumnCount() + ") and " +
-                            inputVector.size()
+                            "(" + rows + "x" + columns + ") and " +
+                            input.size()
             );
         }
+        if (output.size() != rows || output == input) {
+            throw new IllegalArgumentException("Output must be a separate vector of length " + rows + ".");
+        }
 
-        ComplexNumber[] result = new ComplexNumber[getRowCount()];
-        for (int i = 0; i < getRowCount(); i++) {
-            ComplexNumber rowSum = new ComplexNumber(0, 0);
-            for (int j = 0; j < getColumnCount(); j++) {
-                ComplexNumber elementProduct = elements[i][j].multiply(inputVector.get(j));
-                rowSum = rowSum.add(elementProduct);
+        Parallelism.forEach(rows, (from, to) -> {
+            for (int i = (int) from; i < to; i++) {
+                double rowReal = 0;
+                double rowImaginary = 0;
+                int offset = 2 * i * columns;
+                for (int j = 0; j < columns; j++) {
+                    double er = values[offset + 2 * j];
+                    double ei = values[offset + 2 * j + 1];
+                    double vr = input.getReal(j);
+                    double vi = input.getImaginary(j);
+                    rowReal += er * vr - ei * vi;
+                    rowImaginary += er * vi + ei * vr;
+                }
+                output.set(i, rowReal, rowImaginary);
             }
-            result[i] = rowSum;
-        }
-        return new Vector(result);
+        });
+        return output;
     }
 
     public Matrix tensorProduct(Matrix otherMatrix) {
-        int thisRowCount = getRowCount();
-        int thisColumnCount = getColumnCount();
-        int otherRowCount = otherMatrix.getRowCount();
-        int otherColumnCount = otherMatrix.getColumnCount();
-
-        ComplexNumber[][] result = new ComplexNumber[thisRowCount * otherRowCount][thisColumnCount * otherColumnCount];
-
-        for (int thisRow = 0; thisRow < thisRowCount; thisRow++) {
-            for (int thisCol = 0; thisCol < thisColumnCount; thisCol++) {
-                for (int otherRow = 0; otherRow < otherRowCount; otherRow++) {
-                    for (int otherCol = 0; otherCol < otherColumnCount; otherCol++) {
-                        int resultRow = thisRow * otherRowCount + otherRow;
-                        int resultCol = thisCol * otherColumnCount + otherCol;
-                        result[resultRow][resultCol] = elements[thisRow][thisCol].multiply(otherMatrix.getElement(otherRow, otherCol));
+        int otherRows = otherMatrix.rows;
+        int otherColumns = otherMatrix.columns;
+        int resultColumns = columns * otherColumns;
+        double[] result = new double[2 * rows * otherRows * resultColumns];
+        double[] other = otherMatrix.values;
+
+        for (int thisRow = 0; thisRow < rows; thisRow++) {
+            for (int thisCol = 0; thisCol < columns; thisCol++) {
+                double ar = values[2 * (thisRow * columns + thisCol)];
+                double ai = values[2 * (thisRow * columns + thisCol) + 1];
+                if (ar == 0 && ai == 0) {
+                    continue;
+                }
+                for (int otherRow = 0; otherRow < otherRows; otherRow++) {
+                    int target = 2 * ((thisRow * otherRows + otherRow) * resultColumns + thisCol * otherColumns);
+                    int source = 2 * otherRow * otherColumns;
+                    for (int otherCol = 0; otherCol < 2 * otherColumns; otherCol += 2) {
+                        double br = other[source + otherCol];
+                        double bi = other[source + otherCol + 1];
+                        result[target + otherCol] = ar * br - ai * bi;
+                        result[target + otherCol + 1] = ar * bi + ai * br;
                     }
                 }
             }
         }
 
-        return new Matrix(result);
+        return new Matrix(rows * otherRows, resultColumns, result);
     }
 
+    // Materializes the full product; KroneckerOperator.power keeps it factored
     public Matrix tensorPower(int exponent) {
         Matrix operationMatrix = Matrix.identity(1);
         for (int i = 0; i < exponent; i++) {
@@ -174,9 +321,9 @@ public class Matrix {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (ComplexNumber[] row : elements) {
-            for (ComplexNumber cell : row) {
-                sb.append(cell).append(" ");
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                sb.append(getElement(i, j)).append(" ");
             }
             sb.append("\n");
         }
@@ -184,16 +331,10 @@ public class Matrix {
     }
 
     public static Matrix identity(int size) {
-        ComplexNumber[][] identityMatrixElements = new ComplexNumber[size][size];
+        Matrix identity = new Matrix(size, size);
         for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (i == j) {
-                    identityMatrixElements[i][j] = new ComplexNumber(1);
-                } else {
-                    identityMatrixElements[i][j] = new ComplexNumber(0);
-                }
-            }
+            identity.values[2 * (i * size + i)] = 1;
         }
-        return new Matrix(identityMatrixElements);
+        return identity;
     }
 }
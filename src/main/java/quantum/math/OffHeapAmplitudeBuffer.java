@@ -0,0 +1,65 @@
+package quantum.math;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+// Amplitudes stored outside the GC heap. Uses the java.lang.foreign API, which is a
+// preview API on Java 21: creating one requires running with --enable-preview.
+public final class OffHeapAmplitudeBuffer implements AmplitudeBuffer {
+    private static final long BYTES_PER_AMPLITUDE = 2 * Double.BYTES;
+    private static final long ALIGNMENT = 64;
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final long length;
+
+    public OffHeapAmplitudeBuffer(long length) {
+        if (length < 0 || length > Long.MAX_VALUE / BYTES_PER_AMPLITUDE) {
+            throw new IllegalArgumentException("Invalid amplitude count: " + length);
+        }
+        this.arena = Arena.ofShared();
+        this.segment = arena.allocate(length * BYTES_PER_AMPLITUDE, ALIGNMENT);
+        this.length = length;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public double getReal(long index) {
+        return segment.getAtIndex(ValueLayout.JAVA_DOUBLE, 2 * index);
+    }
+
+    @Override
+    public double getImaginary(long index) {
+        return segment.getAtIndex(ValueLayout.JAVA_DOUBLE, 2 * index + 1);
+    }
+
+    @Override
+    public void set(long index, double real, double imaginary) {
+        segment.setAtIndex(ValueLayout.JAVA_DOUBLE, 2 * index, real);
+        segment.setAtIndex(ValueLayout.JAVA_DOUBLE, 2 * index + 1, imaginary);
+    }
+
+    @Override
+    public OffHeapAmplitudeBuffer copy() {
+        OffHeapAmplitudeBuffer copy = new OffHeapAmplitudeBuffer(length);
+        copy.segment.copyFrom(segment);
+        return copy;
+    }
+
+    public boolean isOpen() {
+        return arena.scope().isAlive();
+    }
+
+    // Frees the native memory immediately; any further access fails with IllegalStateException
+    @Override
+    public void close() {
+        if (isOpen()) {
+            arena.close();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package quantum.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public final class Parallelism {
+    // Work is always cut at the same chunk boundaries so that serial and parallel runs
+    // perform the same floating point operations in the same order.
+    public static final int CHUNK_SIZE = 1 << 12;
+
+    // Partial tables kept by sum(count, buckets, body)
+    private static final int HISTOGRAM_GROUPS = 64;
+
+    private static volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+    private static volatile int threshold = 1 << 16;
+
+    private Parallelism() {
+    }
+
+    @FunctionalInterface
+    public interface RangeAction {
+        void run(long from, long to);
+    }
+
+    @FunctionalInterface
+    public interface RangeSum {
+        double sum(long from, long to);
+    }
+
+    @FunctionalInterface
+    public interface RangeHistogram {
+        void accumulate(long from, long to, double[] partial);
+    }
+
+    @FunctionalInterface
+    public interface TaskAction {
+        void run(int task);
+    }
+
+    public static ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public static void setPool(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("ForkJoinPool must not be null.");
+        }
+        Parallelism.pool = pool;
+    }
+
+    public static int getThreshold() {
+        return threshold;
+    }
+
+    // Minimum number of work items before a pass is split across the pool; Integer.MAX_VALUE disables it
+    public static void setThreshold(int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Parallel threshold must be positive.");
+        }
+        Parallelism.threshold = threshold;
+    }
+
+    public static boolean isParallel(long count) {
+        return count >= threshold && count > CHUNK_SIZE;
+    }
+
+    public static void forEach(long count, RangeAction action) {
+        if (!isParallel(count)) {
+            action.run(0, count);
+            return;
+        }
+
+        pool.invoke(new SplitTask(0, chunkCount(count), chunk -> action.run(chunkStart(chunk), chunkEnd(chunk, count))));
+    }
+
+    // Runs body for tasks 0 .. tasks - 1, spreading them over the pool when their combined work (in
+    // whatever unit the caller counts, e.g. multiply-adds) reaches the threshold
+    public static void forEachTask(int tasks, long work, TaskAction body) {
+        if (tasks > 1 && work >= threshold) {
+            pool.invoke(new SplitTask(0, tasks, body::run));
+            return;
+        }
+
+        for (int task = 0; task < tasks; task++) {
+            body.run(task);
+        }
+    }
+
+    public static double sum(long count, RangeSum body) {
+        int chunks = chunkCount(count);
+        double[] partials = new double[chunks];
+        IndexedTask task = chunk -> partials[chunk] = body.sum(chunkStart(chunk), chunkEnd(chunk, count));
+
+        if (isParallel(count)) {
+            pool.invoke(new SplitTask(0, chunks, task));
+        } else {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                task.run(chunk);
+            }
+        }
+
+        double total = 0;
+        for (double partial : partials) {
+            total += partial;
+        }
+        return total;
+    }
+
+    // Sums into `buckets` separate totals. Each of a fixed number of chunk groups fills its own partial
+    // array, and the partials are added in group order, so the result does not depend on the pool. The
+    // group count depends only on count and buckets: there are never more partial entries than items, so a
+    // large table over a state of similar size gets a single group instead of one copy per thread.
+    public static double[] sum(long count, int buckets, RangeHistogram body) {
+        int chunks = chunkCount(count);
+        int groups = (int) Math.max(1, Math.min(Math.min(chunks, HISTOGRAM_GROUPS), count / Math.max(1, buckets)));
+        double[][] partials = new double[groups][];
+        IndexedTask task = group -> {
+            long from = chunkStart((int) ((long) group * chunks / groups));
+            long to = Math.min(chunkStart((int) ((long) (group + 1) * chunks / groups)), count);
+            partials[group] = new double[buckets];
+            body.accumulate(from, to, partials[group]);
+        };
+
+        if (isParallel(count) && groups > 1) {
+            pool.invoke(new SplitTask(0, groups, task));
+            for (int group = 1; group < groups; group++) {
+                add(partials[0], partials[group]);
+            }
+            return partials[0];
+        }
+
+        // Same additions in the same order, but each partial is dropped as soon as it has been added
+        task.run(0);
+        for (int group = 1; group < groups; group++) {
+            task.run(group);
+            add(partials[0], partials[group]);
+            partials[group] = null;
+        }
+        return partials[0];
+    }
+
+    private static void add(double[] totals, double[] partial) {
+        for (int bucket = 0; bucket < totals.length; bucket++) {
+            totals[bucket] += partial[bucket];
+        }
+    }
+
+    private static int chunkCount(long count) {
+        return Math.toIntExact((count + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    }
+
+    private static long chunkStart(int chunk) {
+        return (long) chunk * CHUNK_SIZE;
+    }
+
+    private static long chunkEnd(int chunk, long count) {
+        return Math.min((long) (chunk + 1) * CHUNK_SIZE, count);
+    }
+
+    private interface IndexedTask {
+        void run(int index);
+    }
+
+    // Runs task for every index in [first, last) by recursive halving. Fork/join tasks are never serialized.
+    @SuppressWarnings("serial")
+    private static class SplitTask extends RecursiveAction {
+        private final int first;
+        private final int last;
+        private final IndexedTask task;
+
+        SplitTask(int first, int last, IndexedTask task) {
+            this.first = first;
+            this.last = last;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - first > 1) {
+                int middle = (first + last) >>> 1;
+                invokeAll(new SplitTask(first, middle, task), new SplitTask(middle, last, task));
+            } else if (last > first) {
+                task.run(first);
+            }
+        }
+    }
+}
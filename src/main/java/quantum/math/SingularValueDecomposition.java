@@ -0,0 +1,144 @@
+package quantum.math;
+
+import java.util.Arrays;
+
+// A = U diag(singularValues) V^H for a complex matrix, computed with one-sided (Hestenes) Jacobi rotations.
+// Matrices are row-major with interleaved re/im values. For an m x n matrix with k = min(m, n), u is m x k,
+// v is n x k and the singular values are sorted in descending order.
+public record SingularValueDecomposition(double[] u, double[] singularValues, double[] v, int rows, int cols) {
+    private static final double TOLERANCE = 1E-15;
+    private static final int MAX_SWEEPS = 80;
+
+    public int rank() {
+        return singularValues.length;
+    }
+
+    public static SingularValueDecomposition compute(double[] a, int rows, int cols) {
+        if (a.length != 2 * rows * cols) {
+            throw new IllegalArgumentException("Expected " + rows + "x" + cols + " complex entries, got " + a.length / 2 + ".");
+        }
+
+        // Jacobi rotations orthogonalize columns, so work on A^H when A is wide
+        if (cols > rows) {
+            SingularValueDecomposition transposed = decomposeTall(conjugateTranspose(a, rows, cols), cols, rows);
+            return new SingularValueDecomposition(transposed.v, transposed.singularValues, transposed.u, rows, cols);
+        }
+        return decomposeTall(a.clone(), rows, cols);
+    }
+
+    static double[] conjugateTranspose(double[] a, int rows, int cols) {
+        double[] result = new double[a.length];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                result[2 * (col * rows + row)] = a[2 * (row * cols + col)];
+                result[2 * (col * rows + row) + 1] = -a[2 * (row * cols + col) + 1];
+            }
+        }
+        return result;
+    }
+
+    // rows >= cols; a is overwritten
+    private static SingularValueDecomposition decomposeTall(double[] a, int rows, int cols) {
+        double[] v = new double[2 * cols * cols];
+        for (int i = 0; i < cols; i++) {
+            v[2 * (i * cols + i)] = 1;
+        }
+
+        for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+            boolean rotated = false;
+            for (int p = 0; p < cols - 1; p++) {
+                for (int q = p + 1; q < cols; q++) {
+                    rotated |= rotate(a, v, rows, cols, p, q);
+                }
+            }
+            if (!rotated) {
+                break;
+            }
+        }
+
+        // Column norms are the singular values; sort them in descending order
+        double[] norms = new double[cols];
+        Integer[] order = new Integer[cols];
+        for (int j = 0; j < cols; j++) {
+            double sum = 0;
+            for (int i = 0; i < rows; i++) {
+                sum += a[2 * (i * cols + j)] * a[2 * (i * cols + j)] + a[2 * (i * cols + j) + 1] * a[2 * (i * cols + j) + 1];
+            }
+            norms[j] = Math.sqrt(sum);
+            order[j] = j;
+        }
+        Arrays.sort(order, (x, y) -> Double.compare(norms[y], norms[x]));
+
+        double[] u = new double[2 * rows * cols];
+        double[] sortedV = new double[2 * cols * cols];
+        double[] singularValues = new double[cols];
+        for (int k = 0; k < cols; k++) {
+            int j = order[k];
+            singularValues[k] = norms[j];
+            double scale = norms[j] > 0 ? 1 / norms[j] : 0;
+            for (int i = 0; i < rows; i++) {
+                u[2 * (i * cols + k)] = a[2 * (i * cols + j)] * scale;
+                u[2 * (i * cols + k) + 1] = a[2 * (i * cols + j) + 1] * scale;
+            }
+            for (int i = 0; i < cols; i++) {
+                sortedV[2 * (i * cols + k)] = v[2 * (i * cols + j)];
+                sortedV[2 * (i * cols + k) + 1] = v[2 * (i * cols + j) + 1];
+            }
+        }
+        return new SingularValueDecomposition(u, singularValues, sortedV, rows, cols);
+    }
+
+    // Makes columns p and q orthogonal. The phase of their inner product is moved onto column q first,
+    // which reduces the step to a real Jacobi rotation. Returns false if they already were orthogonal.
+    private static boolean rotate(double[] a, double[] v, int rows, int cols, int p, int q) {
+        double alpha = 0;
+        double beta = 0;
+        double gammaReal = 0;
+        double gammaImaginary = 0;
+        for (int i = 0; i < rows; i++) {
+            double pr = a[2 * (i * cols + p)], pi = a[2 * (i * cols + p) + 1];
+            double qr = a[2 * (i * cols + q)], qi = a[2 * (i * cols + q) + 1];
+            alpha += pr * pr + pi * pi;
+            beta += qr * qr + qi * qi;
+            // conj(a_p) * a_q
+            gammaReal += pr * qr + pi * qi;
+            gammaImaginary += pr * qi - pi * qr;
+        }
+
+        double gamma = Math.hypot(gammaReal, gammaImaginary);
+        if (gamma <= TOLERANCE * Math.sqrt(alpha * beta) || gamma == 0) {
+            return false;
+        }
+
+        double zeta = (beta - alpha) / (2 * gamma);
+        double t = Math.signum(zeta) / (Math.abs(zeta) + Math.sqrt(1 + zeta * zeta));
+        if (zeta == 0) {
+            t = 1;
+        }
+        double c = 1 / Math.sqrt(1 + t * t);
+        double s = c * t;
+        // e^{-i phi}, where phi is the phase of gamma
+        double phaseReal = gammaReal / gamma;
+        double phaseImaginary = -gammaImaginary / gamma;
+
+        rotateColumns(a, rows, cols, p, q, c, s, phaseReal, phaseImaginary);
+        rotateColumns(v, cols, cols, p, q, c, s, phaseReal, phaseImaginary);
+        return true;
+    }
+
+    private static void rotateColumns(double[] m, int rows, int cols, int p, int q, double c, double s,
+                                      double phaseReal, double phaseImaginary) {
+        for (int i = 0; i < rows; i++) {
+            int pIndex = 2 * (i * cols + p);
+            int qIndex = 2 * (i * cols + q);
+            double pr = m[pIndex], pi = m[pIndex + 1];
+            double qr = m[qIndex] * phaseReal - m[qIndex + 1] * phaseImaginary;
+            double qi = m[qIndex] * phaseImaginary + m[qIndex + 1] * phaseReal;
+
+            m[pIndex] = c * pr - s * qr;
+            m[pIndex + 1] = c * pi - s * qi;
+            m[qIndex] = s * pr + c * qr;
+            m[qIndex + 1] = s * pi + c * qi;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package quantum.math;
+
+import java.util.Arrays;
+
+// Stores only the nonzero amplitudes, in an open-addressing map from basis index to complex value.
+// Amplitudes whose squared magnitude does not exceed epsilon^2 are dropped on write, so zeros never
+// occupy a slot. Unlike the dense buffers this one must not be written from several threads at once;
+// the gate kernels process sparse states serially.
+public final class SparseAmplitudeBuffer implements AmplitudeBuffer {
+    private static final long EMPTY = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final long length;
+    private final double epsilon;
+    private final double epsilonSquared;
+    private long[] keys;
+    // Interleaved amplitudes: the value of keys[slot] lives at [2 * slot] and [2 * slot + 1]
+    private double[] values;
+    private int size;
+
+    public SparseAmplitudeBuffer(long length) {
+        this(length, 0);
+    }
+
+    public SparseAmplitudeBuffer(long length, double epsilon) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Invalid amplitude count: " + length);
+        }
+        if (epsilon < 0) {
+            throw new IllegalArgumentException("Truncation epsilon cannot be negative.");
+        }
+
+        this.length = length;
+        this.epsilon = epsilon;
+        this.epsilonSquared = epsilon * epsilon;
+        this.keys = new long[INITIAL_CAPACITY];
+        this.values = new double[2 * INITIAL_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public int nonZeroCount() {
+        return size;
+    }
+
+    // Indices of the stored amplitudes in ascending order
+    public long[] nonZeroIndices() {
+        long[] indices = new long[size];
+        int next = 0;
+        for (long key : keys) {
+            if (key != EMPTY) {
+                indices[next++] = key;
+            }
+        }
+        Arrays.sort(indices);
+        return indices;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public double getReal(long index) {
+        int slot = find(index);
+        return slot < 0 ? 0 : values[2 * slot];
+    }
+
+    @Override
+    public double getImaginary(long index) {
+        int slot = find(index);
+        return slot < 0 ? 0 : values[2 * slot + 1];
+    }
+
+    @Override
+    public void set(long index, double real, double imaginary) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Amplitude index " + index + " is out of range for length " + length);
+        }
+
+        if (real * real + imaginary * imaginary <= epsilonSquared) {
+            remove(index);
+            return;
+        }
+
+        int mask = keys.length - 1;
+        int slot = (int) mix(index) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != index) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = index;
+            size++;
+        }
+        values[2 * slot] = real;
+        values[2 * slot + 1] = imaginary;
+
+        if (2 * size > keys.length) {
+            grow();
+        }
+    }
+
+    @Override
+    public SparseAmplitudeBuffer copy() {
+        SparseAmplitudeBuffer copy = new SparseAmplitudeBuffer(length, epsilon);
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    private int find(long index) {
+        int mask = keys.length - 1;
+        int slot = (int) mix(index) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == index) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Backward-shift deletion keeps every probe sequence free of holes without tombstones
+    private void remove(long index) {
+        int slot = find(index);
+        if (slot < 0) {
+            return;
+        }
+
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = (int) mix(keys[next]) & mask;
+            // Move the entry into the hole unless its home slot lies cyclically in (hole, next]
+            boolean reachable = hole <= next ? (home > hole && home <= next) : (home > hole || home <= next);
+            if (!reachable) {
+                keys[hole] = keys[next];
+                values[2 * hole] = values[2 * next];
+                values[2 * hole + 1] = values[2 * next + 1];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        values[2 * hole] = 0;
+        values[2 * hole + 1] = 0;
+        size--;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        keys = new long[2 * oldKeys.length];
+        values = new double[2 * keys.length];
+        Arrays.fill(keys, EMPTY);
+
+        int mask = keys.length - 1;
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            if (oldKeys[oldSlot] == EMPTY) {
+                continue;
+            }
+            int slot = (int) mix(oldKeys[oldSlot]) & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[oldSlot];
+            values[2 * slot] = oldValues[2 * oldSlot];
+            values[2 * slot + 1] = oldValues[2 * oldSlot + 1];
+        }
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -2,124 +2,221 @@ package quantum.math;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import java.util.function.BiFunction;
 
-public class Vector implements Iterable<ComplexNumber> {
-    private final ComplexNumber[] elements;
+public class Vector implements Iterable<ComplexNumber>, AutoCloseable {
+    private static final double EPSILON = 1E-10;
+
+    private final AmplitudeBuffer amplitudes;
+
+    public Vector(int size) {
+        this(new HeapAmplitudeBuffer(size));
+    }
+
+    public Vector(AmplitudeBuffer amplitudes) {
+        this.amplitudes = amplitudes;
+    }
 
     public Vector(ComplexNumber[] elements) {
-        this.elements = elements.clone();
+        this(elements.length);
+        for (int i = 0; i < elements.length; i++) {
+            amplitudes.set(i, elements[i].getReal(), elements[i].getImaginary());
+        }
+    }
+
+    public AmplitudeBuffer getBuffer() {
+        return amplitudes;
     }
 
     public ComplexNumber[] getElements() {
-        return elements.clone();
+        ComplexNumber[] elements = new ComplexNumber[size()];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = get(i);
+        }
+        return elements;
+    }
+
+    public ComplexNumber get(long index) {
+        return new ComplexNumber(getReal(index), getImaginary(index));
+    }
+
+    public double getReal(long index) {
+        return amplitudes.getReal(index);
+    }
+
+    public double getImaginary(long index) {
+        return amplitudes.getImaginary(index);
+    }
+
+    public double magnitudeSquared(long index) {
+        double real = amplitudes.getReal(index);
+        double imaginary = amplitudes.getImaginary(index);
+        return real * real + imaginary * imaginary;
+    }
+
+    public void set(long index, double real, double imaginary) {
+        amplitudes.set(index, real, imaginary);
     }
 
-    public ComplexNumber get(int index) {
-        return elements[index];
+    public void set(long index, ComplexNumber value) {
+        set(index, value.getReal(), value.getImaginary());
     }
 
     public int size() {
-        return elements.length;
+        return Math.toIntExact(length());
     }
 
-    private Vector scalarOperation(ComplexNumber scalar, BiFunction<ComplexNumber, ComplexNumber, ComplexNumber> operation) {
-        ComplexNumber[] newValues = new ComplexNumber[size()];
-        for (int i = 0; i < size(); i++) {
-            newValues[i] = operation.apply(elements[i], scalar);
-        }
-        return new Vector(newValues);
+    public long length() {
+        return amplitudes.length();
     }
 
-    private Vector elementWiseOperation(Vector other, BiFunction<ComplexNumber, ComplexNumber, ComplexNumber> operation) {
-        validateMatchingSize(other);
-        ComplexNumber[] newValues = new ComplexNumber[size()];
-        for (int i = 0; i < size(); i++) {
-            newValues[i] = operation.apply(elements[i], other.get(i));
-        }
-        return new Vector(newValues);
+    public Vector copy() {
+        return new Vector(amplitudes.copy());
     }
 
     public Vector add(ComplexNumber scalar) {
-        return scalarOperation(scalar, ComplexNumber::add);
+        Vector result = new Vector(size());
+        for (int i = 0; i < size(); i++) {
+            result.set(i, getReal(i) + scalar.getReal(), getImaginary(i) + scalar.getImaginary());
+        }
+        return result;
     }
 
     public Vector add(Vector other) {
-        return elementWiseOperation(other, ComplexNumber::add);
+        validateMatchingSize(other);
+        Vector result = new Vector(size());
+        for (int i = 0; i < size(); i++) {
+            result.set(i, getReal(i) + other.getReal(i), getImaginary(i) + other.getImaginary(i));
+        }
+        return result;
     }
 
     public Vector subtract(ComplexNumber scalar) {
-        return scalarOperation(scalar, ComplexNumber::subtract);
+        return add(new ComplexNumber(-scalar.getReal(), -scalar.getImaginary()));
     }
 
     public Vector subtract(Vector other) {
-        return elementWiseOperation(other, ComplexNumber::subtract);
+        validateMatchingSize(other);
+        Vector result = new Vector(size());
+        for (int i = 0; i < size(); i++) {
+            result.set(i, getReal(i) - other.getReal(i), getImaginary(i) - other.getImaginary(i));
+        }
+        return result;
     }
 
     public Vector multiply(ComplexNumber scalar) {
-        return scalarOperation(scalar, ComplexNumber::multiply);
+        double sr = scalar.getReal();
+        double si = scalar.getImaginary();
+        Vector result = new Vector(size());
+        for (int i = 0; i < size(); i++) {
+            double re = getReal(i);
+            double im = getImaginary(i);
+            result.set(i, re * sr - im * si, re * si + im * sr);
+        }
+        return result;
     }
 
     public Vector multiply(Vector other) {
-        return elementWiseOperation(other, ComplexNumber::multiply);
+        validateMatchingSize(other);
+        Vector result = new Vector(size());
+        for (int i = 0; i < size(); i++) {
+            double ar = getReal(i), ai = getImaginary(i);
+            double br = other.getReal(i), bi = other.getImaginary(i);
+            result.set(i, ar * br - ai * bi, ar * bi + ai * br);
+        }
+        return result;
     }
 
     public ComplexNumber dotProduct(Vector other) {
         validateMatchingSize(other);
-        ComplexNumber dotProduct = new ComplexNumber(0, 0);
+        double real = 0;
+        double imaginary = 0;
         for (int i = 0; i < size(); i++) {
-            dotProduct = dotProduct.add(elements[i].multiply(other.get(i)));
+            double ar = getReal(i), ai = getImaginary(i);
+            double br = other.getReal(i), bi = other.getImaginary(i);
+            real += ar * br - ai * bi;
+            imaginary += ar * bi + ai * br;
         }
-        return dotProduct;
+        return new ComplexNumber(real, imaginary);
     }
 
     public Vector tensorProduct(Vector other) {
-        ComplexNumber[] newValues = new ComplexNumber[size() * other.size()];
+        int otherSize = other.size();
+        Vector result = new Vector(Math.multiplyExact(size(), otherSize));
         for (int i = 0; i < size(); i++) {
-            for (int j = 0; j < other.size(); j++) {
-                newValues[i * other.size() + j] = elements[i].multiply(other.get(j));
+            double ar = getReal(i), ai = getImaginary(i);
+            for (int j = 0; j < otherSize; j++) {
+                double br = other.getReal(j), bi = other.getImaginary(j);
+                result.set(i * otherSize + j, ar * br - ai * bi, ar * bi + ai * br);
             }
         }
-        return new Vector(newValues);
+        return result;
     }
 
     public double magnitude() {
-        double sum = 0.0;
-        for (ComplexNumber element : elements) {
-            sum += element.magnitude() * element.magnitude();
+        return Math.sqrt(normSquared());
+    }
+
+    public double normSquared() {
+        if (amplitudes instanceof SparseAmplitudeBuffer sparse) {
+            double sum = 0.0;
+            for (long i : sparse.nonZeroIndices()) {
+                sum += magnitudeSquared(i);
+            }
+            return sum;
         }
-        return Math.sqrt(sum);
+
+        return Parallelism.sum(length(), (from, to) -> {
+            double sum = 0.0;
+            for (long i = from; i < to; i++) {
+                sum += magnitudeSquared(i);
+            }
+            return sum;
+        });
     }
 
     public Vector normalize() {
-        double norm = 0;
-        for (ComplexNumber amplitude : elements) {
-            norm += amplitude.magnitudeSquared();
-        }
-        norm = Math.sqrt(norm);
+        Vector result = copy();
+        result.normalizeInPlace();
+        return result;
+    }
 
-        ComplexNumber[] normalizedAmplitudes = new ComplexNumber[size()];
+    public void normalizeInPlace() {
+        scaleInPlace(1 / magnitude());
+    }
 
-        for (int i = 0; i < size(); i++) {
-            ComplexNumber amplitude = elements[i];
-            normalizedAmplitudes[i] = amplitude.divide(norm);
+    public void scaleInPlace(double factor) {
+        if (amplitudes instanceof SparseAmplitudeBuffer sparse) {
+            for (long i : sparse.nonZeroIndices()) {
+                set(i, getReal(i) * factor, getImaginary(i) * factor);
+            }
+            return;
         }
 
-        return new Vector(normalizedAmplitudes);
+        Parallelism.forEach(length(), (from, to) -> {
+            for (long i = from; i < to; i++) {
+                set(i, getReal(i) * factor, getImaginary(i) * factor);
+            }
+        });
+    }
+
+    // Releases the backing storage; only meaningful for off-heap or file-backed buffers
+    @Override
+    public void close() {
+        amplitudes.close();
     }
 
     private void validateMatchingSize(Vector other) {
-        if (size() != other.size()) {
-            throw new IllegalArgumentException("Vector sizes do not match: " + size() + " and " + other.size());
+        if (length() != other.length()) {
+            throw new IllegalArgumentException("Vector sizes do not match: " + length() + " and " + other.length());
         }
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < elements.length; i++) {
-            sb.append(elements[i]);
-            if (i < elements.length - 1) {
+        for (long i = 0; i < length(); i++) {
+            sb.append(get(i));
+            if (i < length() - 1) {
                 sb.append(", ");
             }
         }
@@ -130,8 +227,9 @@ public class Vector implements Iterable<ComplexNumber> {
     public boolean equals(Vector other) {
         validateMatchingSize(other);
 
-        for (int i = 0; i < size(); i++) {
-            if (!elements[i].equals(other.get(i))) {
+        for (long i = 0; i < length(); i++) {
+            if (Math.abs(getReal(i) - other.getReal(i)) >= EPSILON
+                    || Math.abs(getImaginary(i) - other.getImaginary(i)) >= EPSILON) {
                 return false;
             }
         }
@@ -145,11 +243,11 @@ public class Vector implements Iterable<ComplexNumber> {
     }
 
     private class VectorIterator implements Iterator<ComplexNumber> {
-        private int currentIndex = 0;
+        private long currentIndex = 0;
 
         @Override
         public boolean hasNext() {
-            return currentIndex < elements.length;
+            return currentIndex < length();
         }
 
         @Override
@@ -157,7 +255,7 @@ public class Vector implements Iterable<ComplexNumber> {
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
-            return elements[currentIndex++];
+            return get(currentIndex++);
         }
     }
 }
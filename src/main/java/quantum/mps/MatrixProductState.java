@@ -0,0 +1,482 @@
+package quantum.mps;
+
+import quantum.core.MeasurementResult;
+import quantum.core.QuantumBackend;
+import quantum.gates.IQuantumGate;
+import quantum.gates.QuantumGate;
+import quantum.gates.binary.SwapGate;
+import quantum.gates.unary.IdentityGate;
+import quantum.math.ComplexNumber;
+import quantum.math.Matrix;
+import quantum.math.SingularValueDecomposition;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Matrix product state simulation: the state is a chain of site tensors, one per qubit, whose shared bond
+// indices are capped at maxBondDimension. Memory and gate cost grow with the entanglement across each cut
+// rather than with 2^n, so shallow or nearest-neighbour circuits on many qubits stay cheap. Whenever a
+// gate creates more entanglement than the cap allows, the smallest Schmidt values are discarded and their
+// weight is added to getTruncationError().
+//
+// Gates on non-adjacent qubits first bring their qubits together with adjacent swaps, and the qubit
+// stored at each site is tracked, so SWAP gates themselves are only relabels.
+public final class MatrixProductState implements QuantumBackend {
+    // Schmidt values below this fraction of the largest one are dropped as numerical noise
+    private static final double RELATIVE_CUTOFF = 1E-14;
+    private static final double[] SWAP = new SwapGate().getMatrix().toInterleavedArray();
+
+    private final int numQubits;
+    private final int maxBondDimension;
+    private final Random random;
+    // Site tensor (left bond, physical, right bond) as interleaved complex values, right bond fastest
+    private final double[][] sites;
+    // bonds[s] is the bond dimension between sites s - 1 and s; bonds[0] = bonds[n] = 1
+    private final int[] bonds;
+    private final int[] siteOfQubit;
+    private final int[] qubitAtSite;
+    // All sites left of the center are left-orthonormal and all sites right of it right-orthonormal
+    private int center;
+    private double truncationError;
+
+    public MatrixProductState(int numQubits, int maxBondDimension) {
+        this(numQubits, maxBondDimension, new Random());
+    }
+
+    // Starts in |0...0⟩
+    public MatrixProductState(int numQubits, int maxBondDimension, Random random) {
+        if (numQubits < 1) {
+            throw new IllegalArgumentException("Unsupported number of qubits: " + numQubits);
+        }
+        if (maxBondDimension < 1) {
+            throw new IllegalArgumentException("Maximum bond dimension must be positive.");
+        }
+
+        this.numQubits = numQubits;
+        this.maxBondDimension = maxBondDimension;
+        this.random = random;
+        this.sites = new double[numQubits][];
+        this.bonds = new int[numQubits + 1];
+        this.siteOfQubit = new int[numQubits];
+        this.qubitAtSite = new int[numQubits];
+        Arrays.fill(bonds, 1);
+        for (int i = 0; i < numQubits; i++) {
+            sites[i] = new double[]{1, 0, 0, 0};
+            siteOfQubit[i] = i;
+            qubitAtSite[i] = i;
+        }
+    }
+
+    @Override
+    public int getNumQubits() {
+        return numQubits;
+    }
+
+    public int getMaxBondDimension() {
+        return maxBondDimension;
+    }
+
+    // Bond dimension of the cut between chain sites site and site + 1
+    public int getBondDimension(int site) {
+        if (site < 0 || site >= numQubits - 1) {
+            throw new IllegalArgumentException("There is no bond after site " + site + ".");
+        }
+        return bonds[site + 1];
+    }
+
+    public int getLargestBondDimension() {
+        return Arrays.stream(bonds).max().orElse(1);
+    }
+
+    // Sum of the squared Schmidt values discarded so far, i.e. roughly one minus the fidelity with the
+    // untruncated state
+    public double getTruncationError() {
+        return truncationError;
+    }
+
+    @Override
+    public void applyGate(IQuantumGate gate, int... qubitIds) {
+        if (qubitIds.length != gate.getInputSize()) {
+            throw new IllegalArgumentException(gate.getClass().getSimpleName() + " requires exactly " + gate.getInputSize() + " input qubits.");
+        }
+        for (int i = 0; i < qubitIds.length; i++) {
+            validateQubit(qubitIds[i]);
+            for (int j = 0; j < i; j++) {
+                if (qubitIds[i] == qubitIds[j]) {
+                    throw new IllegalArgumentException("Qubit with id " + qubitIds[i] + " is used twice by the same gate.");
+                }
+            }
+        }
+
+        if (gate instanceof IdentityGate) {
+            return;
+        }
+        if (gate instanceof SwapGate) {
+            int first = siteOfQubit[qubitIds[0]];
+            int second = siteOfQubit[qubitIds[1]];
+            siteOfQubit[qubitIds[0]] = second;
+            siteOfQubit[qubitIds[1]] = first;
+            qubitAtSite[first] = qubitIds[1];
+            qubitAtSite[second] = qubitIds[0];
+            return;
+        }
+        Matrix gateMatrix = gate instanceof QuantumGate quantumGate ? quantumGate.getMatrix() : null;
+        if (gateMatrix == null) {
+            throw new IllegalArgumentException(gate.getClass().getSimpleName() + " has no matrix the MPS simulator could apply.");
+        }
+
+        double[] matrix = gateMatrix.toInterleavedArray();
+        if (qubitIds.length == 1) {
+            int site = siteOfQubit[qubitIds[0]];
+            sites[site] = applyMatrix(sites[site], bonds[site], 2, bonds[site + 1], matrix);
+            return;
+        }
+
+        int[] order = gatherQubits(qubitIds);
+        int first = siteOfQubit[qubitIds[order[0]]];
+        int count = qubitIds.length;
+        moveCenter(first);
+        double[] theta = mergeSites(first, count);
+        theta = applyMatrix(theta, bonds[first], 1 << count, bonds[first + count], permuteMatrix(matrix, order));
+        splitLeftToRight(theta, first, count);
+    }
+
+    @Override
+    public MeasurementResult measure(int qubitId) {
+        validateQubit(qubitId);
+        int site = siteOfQubit[qubitId];
+        moveCenter(site);
+
+        // With the center on this site its tensor alone holds the reduced probabilities
+        double[] tensor = sites[site];
+        int right = bonds[site + 1];
+        double[] weights = new double[2];
+        for (int left = 0; left < bonds[site]; left++) {
+            for (int bit = 0; bit < 2; bit++) {
+                int offset = 2 * ((left * 2 + bit) * right);
+                for (int i = offset; i < offset + 2 * right; i++) {
+                    weights[bit] += tensor[i] * tensor[i];
+                }
+            }
+        }
+
+        double probabilityOfZero = weights[0] / (weights[0] + weights[1]);
+        int outcome = random.nextDouble() < probabilityOfZero ? 0 : 1;
+        double scale = 1 / Math.sqrt(outcome == 0 ? weights[0] : weights[1]);
+        for (int left = 0; left < bonds[site]; left++) {
+            for (int bit = 0; bit < 2; bit++) {
+                int offset = 2 * ((left * 2 + bit) * right);
+                double factor = bit == outcome ? scale : 0;
+                for (int i = offset; i < offset + 2 * right; i++) {
+                    tensor[i] *= factor;
+                }
+            }
+        }
+        return new MeasurementResult(qubitId, outcome);
+    }
+
+    // Amplitude of a basis state, qubit 0 being the most significant bit as in QuantumRegister
+    public ComplexNumber getAmplitude(long basisState) {
+        if (numQubits >= Long.SIZE || basisState < 0 || basisState >= 1L << numQubits) {
+            throw new IllegalArgumentException("Basis state " + basisState + " does not exist for " + numQubits + " qubits.");
+        }
+
+        double[] vector = {1, 0};
+        for (int site = 0; site < numQubits; site++) {
+            int bit = (int) (basisState >>> (numQubits - 1 - qubitAtSite[site])) & 1;
+            int left = bonds[site];
+            int right = bonds[site + 1];
+            double[] next = new double[2 * right];
+            for (int l = 0; l < left; l++) {
+                double vr = vector[2 * l], vi = vector[2 * l + 1];
+                int offset = 2 * ((l * 2 + bit) * right);
+                for (int r = 0; r < right; r++) {
+                    double tr = sites[site][offset + 2 * r], ti = sites[site][offset + 2 * r + 1];
+                    next[2 * r] += vr * tr - vi * ti;
+                    next[2 * r + 1] += vr * ti + vi * tr;
+                }
+            }
+            vector = next;
+        }
+        return new ComplexNumber(vector[0], vector[1]);
+    }
+
+    // Moves the gate's qubits onto consecutive sites with as few adjacent swaps as possible and returns
+    // the gate input indices in site order
+    private int[] gatherQubits(int[] qubitIds) {
+        int count = qubitIds.length;
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        order = Arrays.stream(order).boxed()
+                .sorted((a, b) -> Integer.compare(siteOfQubit[qubitIds[a]], siteOfQubit[qubitIds[b]]))
+                .mapToInt(Integer::intValue).toArray();
+
+        // The window start minimizing the total distance is the median of site(j) - j
+        int[] offsets = new int[count];
+        for (int j = 0; j < count; j++) {
+            offsets[j] = siteOfQubit[qubitIds[order[j]]] - j;
+        }
+        int[] sortedOffsets = offsets.clone();
+        Arrays.sort(sortedOffsets);
+        int start = sortedOffsets[count / 2];
+
+        // Qubits left of their target slide right starting with the rightmost, the others slide left
+        // starting with the leftmost, so no gate qubit ever has to pass another
+        for (int j = count - 1; j >= 0; j--) {
+            for (int site = siteOfQubit[qubitIds[order[j]]]; site < start + j; site++) {
+                swapSites(site);
+            }
+        }
+        for (int j = 0; j < count; j++) {
+            for (int site = siteOfQubit[qubitIds[order[j]]]; site > start + j; site--) {
+                swapSites(site - 1);
+            }
+        }
+        return order;
+    }
+
+    // Rewrites the gate matrix for inputs listed in site order: window bit j belongs to gate input order[j]
+    private static double[] permuteMatrix(double[] matrix, int[] order) {
+        int count = order.length;
+        int dimension = 1 << count;
+        int[] gateIndex = new int[dimension];
+        for (int window = 0; window < dimension; window++) {
+            for (int j = 0; j < count; j++) {
+                int bit = (window >>> (count - 1 - j)) & 1;
+                gateIndex[window] |= bit << (count - 1 - order[j]);
+            }
+        }
+
+        double[] permuted = new double[matrix.length];
+        for (int row = 0; row < dimension; row++) {
+            for (int column = 0; column < dimension; column++) {
+                int source = 2 * (gateIndex[row] * dimension + gateIndex[column]);
+                permuted[2 * (row * dimension + column)] = matrix[source];
+                permuted[2 * (row * dimension + column) + 1] = matrix[source + 1];
+            }
+        }
+        return permuted;
+    }
+
+    // Exchanges the qubits on sites site and site + 1
+    private void swapSites(int site) {
+        if (center < site) {
+            moveCenter(site);
+        } else if (center > site + 1) {
+            moveCenter(site + 1);
+        }
+        boolean movingLeft = center == site + 1;
+        double[] theta = applyMatrix(mergeSites(site, 2), bonds[site], 4, bonds[site + 2], SWAP);
+        // Leave the center on whichever side the previous swap came from, which is where the next one happens
+        if (movingLeft) {
+            splitRightToLeft(theta, site, 2);
+        } else {
+            splitLeftToRight(theta, site, 2);
+        }
+
+        int left = qubitAtSite[site];
+        int right = qubitAtSite[site + 1];
+        qubitAtSite[site] = right;
+        qubitAtSite[site + 1] = left;
+        siteOfQubit[right] = site;
+        siteOfQubit[left] = site + 1;
+    }
+
+    private void moveCenter(int target) {
+        while (center < target) {
+            int left = bonds[center];
+            int right = bonds[center + 1];
+            SingularValueDecomposition svd = SingularValueDecomposition.compute(sites[center], 2 * left, right);
+            int kept = truncate(svd.singularValues(), Integer.MAX_VALUE);
+            sites[center] = leftColumns(svd, kept);
+            sites[center + 1] = contractBond(weightedAdjointRows(svd, kept), kept, right, sites[center + 1], 2 * bonds[center + 2]);
+            bonds[center + 1] = kept;
+            center++;
+        }
+        while (center > target) {
+            int left = bonds[center];
+            int right = bonds[center + 1];
+            SingularValueDecomposition svd = SingularValueDecomposition.compute(sites[center], left, 2 * right);
+            int kept = truncate(svd.singularValues(), Integer.MAX_VALUE);
+            sites[center] = adjointRows(svd, kept);
+            sites[center - 1] = contractBond(sites[center - 1], 2 * bonds[center - 1], left, weightedLeftColumns(svd, kept), kept);
+            bonds[center] = kept;
+            center--;
+        }
+    }
+
+    // Contracts count consecutive sites into a (left, 2^count, right) tensor
+    private double[] mergeSites(int first, int count) {
+        double[] theta = sites[first];
+        int outer = 2 * bonds[first];
+        for (int site = first + 1; site < first + count; site++) {
+            theta = contractBond(theta, outer, bonds[site], sites[site], 2 * bonds[site + 1]);
+            outer *= 2;
+        }
+        return theta;
+    }
+
+    // Splits a (left, 2^count, right) tensor back into sites, sweeping left to right so that the center
+    // ends on the last site
+    private void splitLeftToRight(double[] theta, int first, int count) {
+        int left = bonds[first];
+        int right = bonds[first + count];
+        int remaining = 1 << count;
+        for (int site = first; site < first + count - 1; site++) {
+            remaining >>>= 1;
+            SingularValueDecomposition svd = SingularValueDecomposition.compute(theta, 2 * left, remaining * right);
+            int kept = truncate(svd.singularValues(), maxBondDimension);
+            sites[site] = leftColumns(svd, kept);
+            theta = weightedAdjointRows(svd, kept);
+            bonds[site + 1] = kept;
+            left = kept;
+        }
+        sites[first + count - 1] = theta;
+        center = first + count - 1;
+    }
+
+    private void splitRightToLeft(double[] theta, int first, int count) {
+        int left = bonds[first];
+        int right = bonds[first + count];
+        int remaining = 1 << count;
+        for (int site = first + count - 1; site > first; site--) {
+            remaining >>>= 1;
+            SingularValueDecomposition svd = SingularValueDecomposition.compute(theta, left * remaining, 2 * right);
+            int kept = truncate(svd.singularValues(), maxBondDimension);
+            sites[site] = adjointRows(svd, kept);
+            theta = weightedLeftColumns(svd, kept);
+            bonds[site] = kept;
+            right = kept;
+        }
+        sites[first] = theta;
+        center = first;
+    }
+
+    // Keeps at most limit Schmidt values, records the discarded weight and rescales the kept values so
+    // the state stays normalized. Returns the number kept.
+    private int truncate(double[] singularValues, int limit) {
+        double total = 0;
+        for (double value : singularValues) {
+            total += value * value;
+        }
+        if (total == 0) {
+            return 1;
+        }
+
+        int kept = 1;
+        while (kept < Math.min(limit, singularValues.length) && singularValues[kept] > RELATIVE_CUTOFF * singularValues[0]) {
+            kept++;
+        }
+        double keptWeight = 0;
+        for (int i = 0; i < kept; i++) {
+            keptWeight += singularValues[i] * singularValues[i];
+        }
+        truncationError += (total - keptWeight) / total;
+
+        double scale = Math.sqrt(total / keptWeight);
+        for (int i = 0; i < kept; i++) {
+            singularValues[i] *= scale;
+        }
+        return kept;
+    }
+
+    // First kept columns of U, an isometry of shape rows x kept
+    private static double[] leftColumns(SingularValueDecomposition svd, int kept) {
+        return columnsOfU(svd, kept, false);
+    }
+
+    // First kept columns of U scaled by the singular values
+    private static double[] weightedLeftColumns(SingularValueDecomposition svd, int kept) {
+        return columnsOfU(svd, kept, true);
+    }
+
+    private static double[] columnsOfU(SingularValueDecomposition svd, int kept, boolean weighted) {
+        int rows = svd.rows();
+        int rank = svd.rank();
+        double[] u = svd.u();
+        double[] result = new double[2 * rows * kept];
+        for (int i = 0; i < rows; i++) {
+            for (int k = 0; k < kept; k++) {
+                double scale = weighted ? svd.singularValues()[k] : 1;
+                result[2 * (i * kept + k)] = u[2 * (i * rank + k)] * scale;
+                result[2 * (i * kept + k) + 1] = u[2 * (i * rank + k) + 1] * scale;
+            }
+        }
+        return result;
+    }
+
+    // First kept rows of V^H, of shape kept x cols
+    private static double[] adjointRows(SingularValueDecomposition svd, int kept) {
+        return rowsOfAdjointV(svd, kept, false);
+    }
+
+    // First kept rows of V^H scaled by the singular values
+    private static double[] weightedAdjointRows(SingularValueDecomposition svd, int kept) {
+        return rowsOfAdjointV(svd, kept, true);
+    }
+
+    private static double[] rowsOfAdjointV(SingularValueDecomposition svd, int kept, boolean weighted) {
+        int cols = svd.cols();
+        int rank = svd.rank();
+        double[] v = svd.v();
+        double[] result = new double[2 * kept * cols];
+        for (int k = 0; k < kept; k++) {
+            double scale = weighted ? svd.singularValues()[k] : 1;
+            for (int j = 0; j < cols; j++) {
+                result[2 * (k * cols + j)] = v[2 * (j * rank + k)] * scale;
+                result[2 * (k * cols + j) + 1] = -v[2 * (j * rank + k) + 1] * scale;
+            }
+        }
+        return result;
+    }
+
+    // (outer x shared) times (shared x inner)
+    private static double[] contractBond(double[] a, int outer, int shared, double[] b, int inner) {
+        double[] result = new double[2 * outer * inner];
+        for (int i = 0; i < outer; i++) {
+            for (int m = 0; m < shared; m++) {
+                double ar = a[2 * (i * shared + m)], ai = a[2 * (i * shared + m) + 1];
+                if (ar == 0 && ai == 0) {
+                    continue;
+                }
+                for (int j = 0; j < inner; j++) {
+                    double br = b[2 * (m * inner + j)], bi = b[2 * (m * inner + j) + 1];
+                    result[2 * (i * inner + j)] += ar * br - ai * bi;
+                    result[2 * (i * inner + j) + 1] += ar * bi + ai * br;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Applies a dimension x dimension matrix to the middle index of a (left, dimension, right) tensor
+    private static double[] applyMatrix(double[] tensor, int left, int dimension, int right, double[] matrix) {
+        double[] result = new double[tensor.length];
+        for (int l = 0; l < left; l++) {
+            for (int row = 0; row < dimension; row++) {
+                int target = 2 * ((l * dimension + row) * right);
+                for (int column = 0; column < dimension; column++) {
+                    double mr = matrix[2 * (row * dimension + column)], mi = matrix[2 * (row * dimension + column) + 1];
+                    if (mr == 0 && mi == 0) {
+                        continue;
+                    }
+                    int source = 2 * ((l * dimension + column) * right);
+                    for (int r = 0; r < 2 * right; r += 2) {
+                        double tr = tensor[source + r], ti = tensor[source + r + 1];
+                        result[target + r] += mr * tr - mi * ti;
+                        result[target + r + 1] += mr * ti + mi * tr;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private void validateQubit(int qubit) {
+        if (qubit < 0 || qubit >= numQubits) {
+            throw new IllegalArgumentException("Qubit with id " + qubit + " does not exist.");
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package quantum.observables;
+
+import quantum.math.Parallelism;
+import quantum.math.SparseAmplitudeBuffer;
+import quantum.math.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Pauli strings that agree on every shared qubit. In the basis where each qubit's common Pauli is
+// diagonal, every term is a parity of the measured bits, so one pass that rotates small blocks of
+// amplitudes into that basis yields all of the group's expectation values together.
+final class CommutingGroup {
+    // Groups with more X/Y qubits would need too large a block; their terms are evaluated one at a time
+    private static final int MAX_BLOCK_QUBITS = 10;
+    private static final double INVERSE_SQRT_2 = 1 / Math.sqrt(2);
+
+    private final List<Integer> indices = new ArrayList<>();
+    private final List<PauliString> terms = new ArrayList<>();
+    // Union of the terms' masks; because the terms agree on shared qubits, x & z marks the Y qubits
+    private long xMask;
+    private long zMask;
+
+    boolean accepts(PauliString term) {
+        long shared = term.support() & (xMask | zMask);
+        return ((term.xMask() ^ xMask) & shared) == 0 && ((term.zMask() ^ zMask) & shared) == 0;
+    }
+
+    void add(int index, PauliString term) {
+        indices.add(index);
+        terms.add(term);
+        xMask |= term.xMask();
+        zMask |= term.zMask();
+    }
+
+    // Writes <psi|P|psi> of each term into values at the term's index. The state must be in logical order.
+    void evaluate(Vector state, int numQubits, double[] values) {
+        if (state.getBuffer() instanceof SparseAmplitudeBuffer sparse) {
+            long[] nonZeroIndices = sparse.nonZeroIndices();
+            for (int t = 0; t < terms.size(); t++) {
+                values[indices.get(t)] = evaluateSparse(state, nonZeroIndices, terms.get(t), numQubits);
+            }
+            return;
+        }
+        if (Long.bitCount(xMask) > MAX_BLOCK_QUBITS) {
+            for (int t = 0; t < terms.size(); t++) {
+                values[indices.get(t)] = evaluatePairs(state, terms.get(t), numQubits);
+            }
+            return;
+        }
+
+        double[] groupValues = evaluateRotated(state, numQubits);
+        for (int t = 0; t < terms.size(); t++) {
+            values[indices.get(t)] = groupValues[t];
+        }
+    }
+
+    private double[] evaluateRotated(Vector state, int numQubits) {
+        long rotated = storageMask(xMask, numQubits);
+        long yQubits = storageMask(xMask & zMask, numQubits);
+        int blockQubits = Long.bitCount(rotated);
+        int blockSize = 1 << blockQubits;
+        long outside = ~rotated & (state.length() - 1);
+
+        // offsets[s] spreads the bits of s over the rotated positions; local bit j is the j-th lowest of them
+        long[] offsets = new long[blockSize];
+        for (int s = 0; s < blockSize; s++) {
+            offsets[s] = Long.expand(s, rotated);
+        }
+        boolean[] isY = new boolean[blockQubits];
+        for (int j = 0; j < blockQubits; j++) {
+            isY[j] = (Long.expand(1L << j, rotated) & yQubits) != 0;
+        }
+        long[] supports = new long[terms.size()];
+        for (int t = 0; t < supports.length; t++) {
+            supports[t] = storageMask(terms.get(t).support(), numQubits);
+        }
+
+        return Parallelism.sum(state.length() >>> blockQubits, supports.length, (from, to, partial) -> {
+            double[] real = new double[blockSize];
+            double[] imaginary = new double[blockSize];
+            for (long block = from; block < to; block++) {
+                long base = Long.expand(block, outside);
+                for (int s = 0; s < blockSize; s++) {
+                    real[s] = state.getReal(base | offsets[s]);
+                    imaginary[s] = state.getImaginary(base | offsets[s]);
+                }
+                rotateBlock(real, imaginary, isY);
+
+                for (int s = 0; s < blockSize; s++) {
+                    double probability = real[s] * real[s] + imaginary[s] * imaginary[s];
+                    if (probability == 0) {
+                        continue;
+                    }
+                    long index = base | offsets[s];
+                    for (int t = 0; t < supports.length; t++) {
+                        partial[t] += (Long.bitCount(index & supports[t]) & 1) == 0 ? probability : -probability;
+                    }
+                }
+            }
+        });
+    }
+
+    // H on X qubits and H S† on Y qubits, which turns the group's Paulis into Z
+    private static void rotateBlock(double[] real, double[] imaginary, boolean[] isY) {
+        for (int j = 0; j < isY.length; j++) {
+            int bit = 1 << j;
+            for (int s = 0; s < real.length; s++) {
+                if ((s & bit) != 0) {
+                    continue;
+                }
+                int partner = s | bit;
+                double pr = real[partner];
+                double pi = imaginary[partner];
+                if (isY[j]) {
+                    // S†: multiply by -i
+                    double previous = pr;
+                    pr = pi;
+                    pi = -previous;
+                }
+                double r = real[s];
+                double i = imaginary[s];
+                real[s] = (r + pr) * INVERSE_SQRT_2;
+                imaginary[s] = (i + pi) * INVERSE_SQRT_2;
+                real[partner] = (r - pr) * INVERSE_SQRT_2;
+                imaginary[partner] = (i - pi) * INVERSE_SQRT_2;
+            }
+        }
+    }
+
+    // Re(i^y * sum_b conj(psi[b ^ x]) (-1)^|b & z| psi[b]), where y counts the Y factors
+    private static double evaluatePairs(Vector state, PauliString term, int numQubits) {
+        long flip = storageMask(term.xMask(), numQubits);
+        long phase = storageMask(term.zMask(), numQubits);
+        int yCount = Long.bitCount(term.xMask() & term.zMask());
+        double[] sums = Parallelism.sum(state.length(), 2, (from, to, partial) -> {
+            for (long b = from; b < to; b++) {
+                accumulatePair(state, b, flip, phase, partial);
+            }
+        });
+        return applyYPhase(sums, yCount);
+    }
+
+    private static double evaluateSparse(Vector state, long[] nonZeroIndices, PauliString term, int numQubits) {
+        long flip = storageMask(term.xMask(), numQubits);
+        long phase = storageMask(term.zMask(), numQubits);
+        double[] sums = new double[2];
+        for (long b : nonZeroIndices) {
+            accumulatePair(state, b, flip, phase, sums);
+        }
+        return applyYPhase(sums, Long.bitCount(term.xMask() & term.zMask()));
+    }
+
+    private static void accumulatePair(Vector state, long b, long flip, long phase, double[] sums) {
+        double cr = state.getReal(b);
+        double ci = state.getImaginary(b);
+        if (cr == 0 && ci == 0) {
+            return;
+        }
+        double ar = state.getReal(b ^ flip);
+        double ai = state.getImaginary(b ^ flip);
+        double sign = (Long.bitCount(b & phase) & 1) == 0 ? 1 : -1;
+        sums[0] += sign * (ar * cr + ai * ci);
+        sums[1] += sign * (ar * ci - ai * cr);
+    }
+
+    private static double applyYPhase(double[] sums, int yCount) {
+        return switch (yCount & 3) {
+            case 0 -> sums[0];
+            case 1 -> -sums[1];
+            case 2 -> -sums[0];
+            default -> sums[1];
+        };
+    }
+
+    // Qubit id q lives at storage bit n - 1 - q once the register is in logical order
+    private static long storageMask(long qubitMask, int numQubits) {
+        return Long.reverse(qubitMask) >>> (Long.SIZE - numQubits);
+    }
+}
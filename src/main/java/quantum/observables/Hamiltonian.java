@@ -0,0 +1,98 @@
+package quantum.observables;
+
+import quantum.core.QuantumRegister;
+import quantum.math.Vector;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// A weighted sum of Pauli strings. Expectation values are computed exactly from the register's amplitudes
+// instead of from sampled shots. Terms that commute qubit-wise are grouped, and each group is evaluated in
+// a single pass over the state.
+public final class Hamiltonian {
+    private final List<PauliString> terms;
+    private final List<Double> coefficients;
+    private List<CommutingGroup> groups;
+
+    public Hamiltonian() {
+        this.terms = new ArrayList<>();
+        this.coefficients = new ArrayList<>();
+    }
+
+    public void addTerm(double coefficient, PauliString term) {
+        terms.add(term);
+        coefficients.add(coefficient);
+        groups = null;
+    }
+
+    public void addTerm(double coefficient, String paulis) {
+        addTerm(coefficient, PauliString.parse(paulis));
+    }
+
+    public int getTermCount() {
+        return terms.size();
+    }
+
+    // Number of passes over the state needed to evaluate every term
+    public int getGroupCount() {
+        return groups().size();
+    }
+
+    public double expectation(QuantumRegister register) {
+        double[] values = termExpectations(register);
+        double total = 0;
+        for (int i = 0; i < values.length; i++) {
+            total += coefficients.get(i) * values[i];
+        }
+        return total;
+    }
+
+    // <psi|P|psi> of every term without its coefficient, in the order the terms were added
+    public double[] termExpectations(QuantumRegister register) {
+        int numQubits = register.getNumQubits();
+        for (PauliString term : terms) {
+            if (Long.SIZE - Long.numberOfLeadingZeros(term.support()) > numQubits) {
+                throw new IllegalArgumentException("Term " + term + " acts on qubits outside the " + numQubits + "-qubit register.");
+            }
+        }
+
+        Vector state = register.getState();
+        double[] values = new double[terms.size()];
+        for (CommutingGroup group : groups()) {
+            group.evaluate(state, numQubits, values);
+        }
+        return values;
+    }
+
+    // Greedy first-fit grouping, placing terms that act on the most qubits first since they are the
+    // hardest to fit
+    private List<CommutingGroup> groups() {
+        if (groups == null) {
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < terms.size(); i++) {
+                order.add(i);
+            }
+            order.sort(Comparator.comparingInt((Integer i) -> Long.bitCount(terms.get(i).support())).reversed());
+
+            List<CommutingGroup> grouped = new ArrayList<>();
+            for (int i : order) {
+                PauliString term = terms.get(i);
+                CommutingGroup target = null;
+                for (CommutingGroup group : grouped) {
+                    if (group.accepts(term)) {
+                        target = group;
+                        break;
+                    }
+                }
+                if (target == null) {
+                    target = new CommutingGroup();
+                    grouped.add(target);
+                }
+                target.add(i, term);
+            }
+            groups = grouped;
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,101 @@
+package quantum.observables;
+
+import quantum.core.QuantumRegister;
+
+// A tensor product of I, X, Y and Z on up to 64 qubits, stored as two bit masks indexed by qubit id:
+// X sets the x bit, Z the z bit and Y both.
+public final class PauliString {
+    private final long xMask;
+    private final long zMask;
+    private final int length;
+
+    private PauliString(long xMask, long zMask, int length) {
+        this.xMask = xMask;
+        this.zMask = zMask;
+        this.length = length;
+    }
+
+    // Qubit 0 first, e.g. "XIZ" is X on qubit 0 and Z on qubit 2
+    public static PauliString parse(String paulis) {
+        if (paulis.isEmpty() || paulis.length() > Long.SIZE) {
+            throw new IllegalArgumentException("A Pauli string needs between 1 and " + Long.SIZE + " factors.");
+        }
+
+        long x = 0;
+        long z = 0;
+        for (int qubit = 0; qubit < paulis.length(); qubit++) {
+            long bit = 1L << qubit;
+            switch (paulis.charAt(qubit)) {
+                case 'I' -> {
+                }
+                case 'X' -> x |= bit;
+                case 'Y' -> {
+                    x |= bit;
+                    z |= bit;
+                }
+                case 'Z' -> z |= bit;
+                default -> throw new IllegalArgumentException("Invalid Pauli operator '" + paulis.charAt(qubit) + "' in " + paulis);
+            }
+        }
+        return new PauliString(x, z, paulis.length());
+    }
+
+    public char getPauli(int qubit) {
+        if (qubit < 0 || qubit >= length) {
+            throw new IllegalArgumentException("Qubit with id " + qubit + " is outside the Pauli string.");
+        }
+        boolean x = (xMask >>> qubit & 1) != 0;
+        boolean z = (zMask >>> qubit & 1) != 0;
+        return x ? (z ? 'Y' : 'X') : (z ? 'Z' : 'I');
+    }
+
+    public int length() {
+        return length;
+    }
+
+    long xMask() {
+        return xMask;
+    }
+
+    long zMask() {
+        return zMask;
+    }
+
+    // Qubits on which the string is not the identity
+    long support() {
+        return xMask | zMask;
+    }
+
+    // True if on every qubit where both strings act they apply the same Pauli, so that a single
+    // measurement basis diagonalizes both
+    public boolean commutesQubitWiseWith(PauliString other) {
+        long shared = support() & other.support();
+        return ((xMask ^ other.xMask) & shared) == 0 && ((zMask ^ other.zMask) & shared) == 0;
+    }
+
+    // <psi|P|psi> for the register's current state
+    public double expectation(QuantumRegister register) {
+        Hamiltonian hamiltonian = new Hamiltonian();
+        hamiltonian.addTerm(1, this);
+        return hamiltonian.expectation(register);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof PauliString string && string.xMask == xMask && string.zMask == zMask && string.length == length;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(xMask) * 31 + Long.hashCode(zMask);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(length);
+        for (int qubit = 0; qubit < length; qubit++) {
+            builder.append(getPauli(qubit));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,315 @@
+package quantum.stabilizer;
+
+import quantum.core.MeasurementResult;
+import quantum.core.QuantumBackend;
+import quantum.gates.ControlledGate;
+import quantum.gates.IQuantumGate;
+import quantum.gates.UnaryQuantumGate;
+import quantum.gates.binary.CNOTGate;
+import quantum.gates.binary.SwapGate;
+import quantum.gates.unary.HadamardGate;
+import quantum.gates.unary.IdentityGate;
+import quantum.gates.unary.PauliXGate;
+import quantum.gates.unary.PauliYGate;
+import quantum.gates.unary.PauliZGate;
+import quantum.gates.unary.SGate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Aaronson-Gottesman (CHP) simulation of Clifford circuits. The state is described by n destabilizer and
+// n stabilizer Pauli strings instead of 2^n amplitudes: gates cost O(n) and measurements O(n^2) word
+// operations, with the X and Z parts of every row packed 64 qubits to a long.
+public final class StabilizerTableau implements QuantumBackend {
+    private final int numQubits;
+    private final int words;
+    private final Random random;
+    // Rows 0..n-1 are destabilizers, n..2n-1 stabilizers and row 2n is scratch space
+    private final long[][] x;
+    private final long[][] z;
+    private final boolean[] sign;
+
+    public StabilizerTableau(int numQubits) {
+        this(numQubits, new Random());
+    }
+
+    // Starts in |0...0⟩
+    public StabilizerTableau(int numQubits, Random random) {
+        if (numQubits < 1) {
+            throw new IllegalArgumentException("Unsupported number of qubits: " + numQubits);
+        }
+
+        this.numQubits = numQubits;
+        this.words = (numQubits + 63) >>> 6;
+        this.random = random;
+        this.x = new long[2 * numQubits + 1][words];
+        this.z = new long[2 * numQubits + 1][words];
+        this.sign = new boolean[2 * numQubits + 1];
+        for (int i = 0; i < numQubits; i++) {
+            x[i][i >>> 6] |= 1L << i;
+            z[numQubits + i][i >>> 6] |= 1L << i;
+        }
+    }
+
+    private StabilizerTableau(StabilizerTableau other) {
+        this.numQubits = other.numQubits;
+        this.words = other.words;
+        this.random = other.random;
+        this.x = new long[other.x.length][];
+        this.z = new long[other.z.length][];
+        for (int row = 0; row < x.length; row++) {
+            x[row] = other.x[row].clone();
+            z[row] = other.z[row].clone();
+        }
+        this.sign = other.sign.clone();
+    }
+
+    // Independent tableau in the same state, drawing from the same Random
+    public StabilizerTableau copy() {
+        return new StabilizerTableau(this);
+    }
+
+    @Override
+    public int getNumQubits() {
+        return numQubits;
+    }
+
+    // Whether applyGate accepts the gate: H, S, the Paulis, CNOT, SWAP and singly controlled Paulis
+    public static boolean supports(IQuantumGate gate) {
+        if (gate instanceof ControlledGate controlled) {
+            return controlled.getNumControls() == 1 && isPauli(controlled.getTargetGate());
+        }
+        return gate instanceof IdentityGate || gate instanceof HadamardGate || gate instanceof SGate
+                || isPauli(gate) || gate instanceof CNOTGate || gate instanceof SwapGate;
+    }
+
+    private static boolean isPauli(IQuantumGate gate) {
+        return gate instanceof PauliXGate || gate instanceof PauliYGate || gate instanceof PauliZGate;
+    }
+
+    @Override
+    public void applyGate(IQuantumGate gate, int... qubitIds) {
+        if (!supports(gate)) {
+            throw new IllegalArgumentException(gate.getClass().getSimpleName() + " is not a Clifford gate supported by the stabilizer simulator.");
+        }
+        if (qubitIds.length != gate.getInputSize()) {
+            throw new IllegalArgumentException(gate.getClass().getSimpleName() + " requires exactly " + gate.getInputSize() + " input qubits.");
+        }
+        for (int i = 0; i < qubitIds.length; i++) {
+            validateQubit(qubitIds[i]);
+            for (int j = 0; j < i; j++) {
+                if (qubitIds[i] == qubitIds[j]) {
+                    throw new IllegalArgumentException("Qubit with id " + qubitIds[i] + " is used twice by the same gate.");
+                }
+            }
+        }
+
+        if (gate instanceof ControlledGate controlled) {
+            applyControlledPauli(controlled.getTargetGate(), qubitIds[0], qubitIds[1]);
+        } else if (gate instanceof HadamardGate) {
+            hadamard(qubitIds[0]);
+        } else if (gate instanceof SGate) {
+            phase(qubitIds[0]);
+        } else if (gate instanceof PauliXGate) {
+            pauliX(qubitIds[0]);
+        } else if (gate instanceof PauliYGate) {
+            pauliY(qubitIds[0]);
+        } else if (gate instanceof PauliZGate) {
+            pauliZ(qubitIds[0]);
+        } else if (gate instanceof CNOTGate) {
+            cnot(qubitIds[0], qubitIds[1]);
+        } else if (gate instanceof SwapGate) {
+            swap(qubitIds[0], qubitIds[1]);
+        }
+    }
+
+    private void applyControlledPauli(UnaryQuantumGate target, int control, int targetQubit) {
+        if (target instanceof PauliXGate) {
+            cnot(control, targetQubit);
+        } else if (target instanceof PauliZGate) {
+            hadamard(targetQubit);
+            cnot(control, targetQubit);
+            hadamard(targetQubit);
+        } else {
+            // CY = S CNOT S†, with S† = S^3
+            phase(targetQubit);
+            phase(targetQubit);
+            phase(targetQubit);
+            cnot(control, targetQubit);
+            phase(targetQubit);
+        }
+    }
+
+    private void hadamard(int qubit) {
+        int word = qubit >>> 6;
+        long bit = 1L << qubit;
+        for (int row = 0; row < 2 * numQubits; row++) {
+            long xBit = x[row][word] & bit;
+            long zBit = z[row][word] & bit;
+            if (xBit != 0 && zBit != 0) {
+                sign[row] = !sign[row];
+            }
+            x[row][word] ^= xBit ^ zBit;
+            z[row][word] ^= xBit ^ zBit;
+        }
+    }
+
+    private void phase(int qubit) {
+        int word = qubit >>> 6;
+        long bit = 1L << qubit;
+        for (int row = 0; row < 2 * numQubits; row++) {
+            long xBit = x[row][word] & bit;
+            if (xBit != 0 && (z[row][word] & bit) != 0) {
+                sign[row] = !sign[row];
+            }
+            z[row][word] ^= xBit;
+        }
+    }
+
+    private void cnot(int control, int target) {
+        int controlWord = control >>> 6;
+        long controlBit = 1L << control;
+        int targetWord = target >>> 6;
+        long targetBit = 1L << target;
+        for (int row = 0; row < 2 * numQubits; row++) {
+            boolean xControl = (x[row][controlWord] & controlBit) != 0;
+            boolean zControl = (z[row][controlWord] & controlBit) != 0;
+            boolean xTarget = (x[row][targetWord] & targetBit) != 0;
+            boolean zTarget = (z[row][targetWord] & targetBit) != 0;
+
+            if (xControl && zTarget && xTarget == zControl) {
+                sign[row] = !sign[row];
+            }
+            if (xControl) {
+                x[row][targetWord] ^= targetBit;
+            }
+            if (zTarget) {
+                z[row][controlWord] ^= controlBit;
+            }
+        }
+    }
+
+    // A Pauli flips the sign of every row that anticommutes with it
+    private void pauliX(int qubit) {
+        flipSigns(qubit, z);
+    }
+
+    private void pauliZ(int qubit) {
+        flipSigns(qubit, x);
+    }
+
+    private void pauliY(int qubit) {
+        flipSigns(qubit, x);
+        flipSigns(qubit, z);
+    }
+
+    private void swap(int qubit1, int qubit2) {
+        cnot(qubit1, qubit2);
+        cnot(qubit2, qubit1);
+        cnot(qubit1, qubit2);
+    }
+
+    private void flipSigns(int qubit, long[][] part) {
+        int word = qubit >>> 6;
+        long bit = 1L << qubit;
+        for (int row = 0; row < 2 * numQubits; row++) {
+            if ((part[row][word] & bit) != 0) {
+                sign[row] = !sign[row];
+            }
+        }
+    }
+
+    @Override
+    public MeasurementResult measure(int qubit) {
+        validateQubit(qubit);
+        int word = qubit >>> 6;
+        long bit = 1L << qubit;
+
+        int pivot = -1;
+        for (int row = numQubits; row < 2 * numQubits; row++) {
+            if ((x[row][word] & bit) != 0) {
+                pivot = row;
+                break;
+            }
+        }
+
+        if (pivot >= 0) {
+            // Some stabilizer anticommutes with Z on this qubit: the outcome is uniformly random
+            for (int row = 0; row < 2 * numQubits; row++) {
+                if (row != pivot && (x[row][word] & bit) != 0) {
+                    rowSum(row, pivot);
+                }
+            }
+            copyRow(pivot, pivot - numQubits);
+            Arrays.fill(x[pivot], 0);
+            Arrays.fill(z[pivot], 0);
+            z[pivot][word] = bit;
+            sign[pivot] = random.nextBoolean();
+            return new MeasurementResult(qubit, sign[pivot] ? 1 : 0);
+        }
+
+        // Otherwise Z on this qubit is a product of stabilizers, whose combined sign is the outcome
+        int scratch = 2 * numQubits;
+        Arrays.fill(x[scratch], 0);
+        Arrays.fill(z[scratch], 0);
+        sign[scratch] = false;
+        for (int row = 0; row < numQubits; row++) {
+            if ((x[row][word] & bit) != 0) {
+                rowSum(scratch, row + numQubits);
+            }
+        }
+        return new MeasurementResult(qubit, sign[scratch] ? 1 : 0);
+    }
+
+    // The stabilizer generators as signed Pauli strings, qubit 0 first, e.g. "+XX" and "+ZZ" for a Bell pair
+    public List<String> getStabilizers() {
+        List<String> stabilizers = new ArrayList<>(numQubits);
+        for (int row = numQubits; row < 2 * numQubits; row++) {
+            StringBuilder builder = new StringBuilder(sign[row] ? "-" : "+");
+            for (int qubit = 0; qubit < numQubits; qubit++) {
+                boolean xBit = (x[row][qubit >>> 6] & (1L << qubit)) != 0;
+                boolean zBit = (z[row][qubit >>> 6] & (1L << qubit)) != 0;
+                builder.append(xBit ? (zBit ? 'Y' : 'X') : (zBit ? 'Z' : 'I'));
+            }
+            stabilizers.add(builder.toString());
+        }
+        return stabilizers;
+    }
+
+    // Multiplies row target by row source, tracking the phase as in Aaronson-Gottesman's rowsum.
+    // The per-qubit phase contributions (+1, 0 or -1) are counted a whole word at a time.
+    private void rowSum(int target, int source) {
+        long phase = 0;
+        for (int word = 0; word < words; word++) {
+            long xs = x[source][word], zs = z[source][word];
+            long xt = x[target][word], zt = z[target][word];
+            long sourceY = xs & zs;
+            long sourceX = xs & ~zs;
+            long sourceZ = ~xs & zs;
+
+            long plus = (sourceY & zt & ~xt) | (sourceX & zt & xt) | (sourceZ & xt & ~zt);
+            long minus = (sourceY & xt & ~zt) | (sourceX & zt & ~xt) | (sourceZ & xt & zt);
+            phase += Long.bitCount(plus) - Long.bitCount(minus);
+
+            x[target][word] = xt ^ xs;
+            z[target][word] = zt ^ zs;
+        }
+
+        phase += (sign[target] ? 2 : 0) + (sign[source] ? 2 : 0);
+        sign[target] = Math.floorMod(phase, 4) == 2;
+    }
+
+    private void copyRow(int source, int target) {
+        System.arraycopy(x[source], 0, x[target], 0, words);
+        System.arraycopy(z[source], 0, z[target], 0, words);
+        sign[target] = sign[source];
+    }
+
+    private void validateQubit(int qubit) {
+        if (qubit < 0 || qubit >= numQubits) {
+            throw new IllegalArgumentException("Qubit with id " + qubit + " does not exist.");
+        }
+    }
+}
@@ -1,22 +1,30 @@
 package utils;
 
-import quantum.math.*;
+import quantum.core.QuantumRegister;
+import quantum.math.SparseAmplitudeBuffer;
+import quantum.math.Vector;
 
-import java.util.Arrays;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class StateParser {
+    public static String parseState(QuantumRegister register) {
+        return parseState(register.getState(), register.getNumQubits());
+    }
+
     public static String parseState(Vector state, int numQubits) {
         StringBuilder result = new StringBuilder();
-        ComplexNumber[] elements = state.getElements();
+        long[] nonZeroIndices = state.getBuffer() instanceof SparseAmplitudeBuffer sparse ? sparse.nonZeroIndices() : null;
+        long count = nonZeroIndices != null ? nonZeroIndices.length : state.length();
 
-        for (int i = 0; i < elements.length; i++) {
-            ComplexNumber cn = elements[i];
+        for (long position = 0; position < count; position++) {
+            long i = nonZeroIndices != null ? nonZeroIndices[(int) position] : position;
+            double real = state.getReal(i);
+            double imaginary = state.getImaginary(i);
 
-            if (!cn.isZero()) {
-                String complexPart = formatComplexNumber(cn);
-                String binaryString = String.format("%" + numQubits + "s", Integer.toBinaryString(i)).replace(' ', '0');
+            if (real != 0 || imaginary != 0) {
+                String complexPart = formatComplexNumber(real, imaginary);
+                String binaryString = String.format("%" + numQubits + "s", Long.toBinaryString(i)).replace(' ', '0');
 
                 result.append(complexPart).append("|").append(binaryString).append("⟩ ");
             }
@@ -25,9 +33,9 @@ public class StateParser {
         return !result.isEmpty() ? result.toString().trim() : state.toString();
     }
 
-    private static String formatComplexNumber(ComplexNumber cn) {
-        String realPart = cn.getReal() == 0 ? "" : formatDouble(cn.getReal());
-        String imaginaryPart = cn.getImaginary() == 0 ? "" : formatDouble(cn.getImaginary()) + "i";
+    private static String formatComplexNumber(double real, double imaginary) {
+        String realPart = real == 0 ? "" : formatDouble(real);
+        String imaginaryPart = imaginary == 0 ? "" : formatDouble(imaginary) + "i";
 
         if (!realPart.isEmpty() && imaginaryPart.startsWith("-")) {
             imaginaryPart = " - " + imaginaryPart.substring(1);
@@ -59,12 +67,11 @@ public class StateParser {
         String imaginaryPartStr = matcher.group(2);
         String binaryStr = matcher.group(3);
 
+        // A basis state has a single nonzero amplitude, so it is kept sparse
         int numQubits = binaryStr.length();
-        int numStates = (int) Math.pow(2, numQubits);
-        ComplexNumber[] stateArray = new ComplexNumber[numStates];
-        Arrays.fill(stateArray, new ComplexNumber(0, 0));
+        Vector state = new Vector(new SparseAmplitudeBuffer(1L << numQubits));
 
-        int index = Integer.parseInt(binaryStr, 2);
+        long index = Long.parseLong(binaryStr, 2);
         double realPart = 0.0;
         double imaginaryPart = 0.0;
 
@@ -80,8 +87,8 @@ public class StateParser {
             imaginaryPart *= -1;
         }
 
-        stateArray[index] = new ComplexNumber(realPart, imaginaryPart);
+        state.set(index, realPart, imaginaryPart);
 
-        return new Vector(stateArray);
+        return state;
     }
 }
@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import quantum.core.QuantumRegister;
 import quantum.core.Qubit;
+import quantum.core.ShotHistogram;
 import quantum.gates.BinaryQuantumGate;
 import quantum.gates.IQuantumGate;
 import quantum.gates.binary.CNOTGate;
@@ -46,6 +47,24 @@ public class DeutschJoszaTest {
         assertFalse(isConstant, "Oracle should be identified as balanced");
     }
 
+    @Test
+    public void testSampledBalancedOracleNeverReadsZero() {
+        QuantumRegister register = new QuantumRegister(2);
+
+        ShotHistogram histogram = DeutschJosza.sample(register, new CNOTGate(), 10_000);
+
+        assertEquals(10_000, histogram.getCount(1));
+        assertEquals(1, histogram.size());
+    }
+
+    @Test
+    public void testClassicalFunctionOracles() {
+        assertTrue(DeutschJosza.run(new QuantumRegister(11), x -> true));
+        assertTrue(DeutschJosza.run(new QuantumRegister(11), x -> false));
+        assertFalse(DeutschJosza.run(new QuantumRegister(11), x -> Long.bitCount(x) % 2 == 1));
+        assertFalse(DeutschJosza.run(new QuantumRegister(11), x -> x >= 512));
+    }
+
     @Test
     public void testWithInvalidNumberOfQubits() {
         QuantumRegister register = new QuantumRegister(3);
@@ -1,2 +1,97 @@
-package quantum.algorithms;public class GroversAlgorithmTest {
+package quantum.algorithms;
+
+import org.junit.jupiter.api.Test;
+import quantum.core.QuantumRegister;
+import quantum.core.ShotHistogram;
+import quantum.gates.ControlledGate;
+import quantum.gates.PhaseOracle;
+import quantum.gates.composit.DiffusionGate;
+import quantum.gates.unary.HadamardGate;
+import quantum.gates.unary.PauliXGate;
+import quantum.gates.unary.PauliZGate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static utils.TestRegisters.prepare;
+
+public class GroversAlgorithmTest {
+
+    @Test
+    void testFindsSingleMarkedValue() {
+        assertEquals(173, GroversAlgorithm.run(new QuantumRegister(8, 1), x -> x == 173));
+    }
+
+    @Test
+    void testFindsOneOfSeveralSolutions() {
+        int result = GroversAlgorithm.run(new QuantumRegister(10, 2), x -> x % 100 == 7);
+        assertEquals(7, result % 100, "Result " + result + " is not a solution");
+    }
+
+    @Test
+    void testOpaqueOracleIsAppliedToAllQubits() {
+        assertEquals(5, GroversAlgorithm.run(new QuantumRegister(6, 3), new PhaseOracle(6, x -> x == 5)));
+    }
+
+    @Test
+    void testSamplingOpaqueOracleWithSeveralSolutions() {
+        // 16 of 1024 values are marked; assuming a single solution would overshoot far past the optimum
+        PhaseOracle oracle = new PhaseOracle(10, x -> x % 64 == 5);
+        ShotHistogram histogram = GroversAlgorithm.sample(new QuantumRegister(10, 4), oracle, 16, 1_000);
+
+        long hits = 0;
+        for (long outcome : histogram.outcomes()) {
+            if (outcome % 64 == 5) {
+                hits += histogram.getCount(outcome);
+            }
+        }
+        assertTrue(hits > 950, "Only " + hits + " of 1000 shots found a solution");
+    }
+
+    @Test
+    void testOptimalIterations() {
+        assertEquals(25, GroversAlgorithm.optimalIterations(10, 1));
+        assertEquals(6, GroversAlgorithm.optimalIterations(10, 16));
+        assertEquals(0, GroversAlgorithm.optimalIterations(10, 0));
+        assertEquals(4096L - 2, new PhaseOracle(12, x -> x != 0 && x != 4095).countSolutions());
+    }
+
+    @Test
+    void testDiffusionMatchesGateLadder() {
+        int n = 4;
+        QuantumRegister ladder = prepare(n, false);
+        QuantumRegister diffusion = prepare(n, false);
+
+        // H X (multi-controlled Z) X H is -(2|s⟩⟨s| - I)
+        for (int i = 0; i < n; i++) {
+            ladder.applyGate(new HadamardGate(), i);
+            ladder.applyGate(new PauliXGate(), i);
+        }
+        ladder.applyGate(new ControlledGate(new PauliZGate(), n - 1), 0, 1, 2, 3);
+        for (int i = 0; i < n; i++) {
+            ladder.applyGate(new PauliXGate(), i);
+            ladder.applyGate(new HadamardGate(), i);
+        }
+        diffusion.applyGate(new DiffusionGate(n), 0, 1, 2, 3);
+
+        for (int state = 0; state < 1 << n; state++) {
+            assertEquals(-ladder.getState().getReal(state), diffusion.getState().getReal(state), 1E-12);
+            assertEquals(-ladder.getState().getImaginary(state), diffusion.getState().getImaginary(state), 1E-12);
+        }
+    }
+
+    @Test
+    void testDiffusionOnQubitSubsetReflectsEachGroup() {
+        QuantumRegister register = prepare(3, false);
+        double[] before = new double[8];
+        for (int state = 0; state < 8; state++) {
+            before[state] = register.getState().getReal(state);
+        }
+
+        register.applyGate(new DiffusionGate(1), 1);
+
+        // Qubit 1 is the middle bit: pairs (s, s | 2) are reflected about their mean
+        for (int state = 0; state < 8; state++) {
+            double mean = (before[state & ~2] + before[state | 2]) / 2;
+            assertEquals(2 * mean - before[state], register.getState().getReal(state), 1E-12);
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package quantum.core;
+
+import org.junit.jupiter.api.Test;
+import quantum.gates.ParameterizedGate;
+import quantum.gates.binary.CNOTGate;
+import quantum.gates.unary.HadamardGate;
+import quantum.gates.unary.RYGate;
+import quantum.math.Vector;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParameterizedCircuitTest {
+
+    private static ParameterizedCircuit ansatz(int numQubits) {
+        ParameterizedCircuit template = new ParameterizedCircuit(numQubits);
+        for (int i = 0; i < numQubits; i++) {
+            template.addGate(new HadamardGate(), i);
+        }
+        for (int i = 0; i < numQubits; i++) {
+            template.addGate(ParameterizedGate.ry(i), i);
+            template.addGate(ParameterizedGate.universal(numQubits, i, numQubits + 1), i);
+        }
+        for (int i = 0; i + 1 < numQubits; i++) {
+            template.addGate(new CNOTGate(), i, i + 1);
+            template.addGate(ParameterizedGate.rz(numQubits + 1), i + 1);
+        }
+        return template;
+    }
+
+    @Test
+    void testSweepMatchesBoundCircuits() {
+        int numQubits = 5;
+        ParameterizedCircuit template = ansatz(numQubits);
+        assertEquals(numQubits + 2, template.getNumParameters());
+
+        Random random = new Random(5);
+        double[][] points = new double[64][numQubits + 2];
+        for (double[] point : points) {
+            for (int i = 0; i < point.length; i++) {
+                point[i] = random.nextDouble() * 2 * Math.PI;
+            }
+        }
+
+        Vector[] expected = new Vector[points.length];
+        for (int p = 0; p < points.length; p++) {
+            QuantumRegister register = new QuantumRegister(numQubits);
+            QuantumCircuit circuit = template.bind(points[p]);
+            circuit.compile().execute(register);
+            expected[p] = register.getState();
+        }
+
+        AtomicInteger visited = new AtomicInteger();
+        template.sweep(points, (point, register) -> {
+            Vector state = register.getState();
+            for (long i = 0; i < state.length(); i++) {
+                assertEquals(expected[point].getReal(i), state.getReal(i), 1E-10);
+                assertEquals(expected[point].getImaginary(i), state.getImaginary(i), 1E-10);
+            }
+            visited.incrementAndGet();
+        });
+        assertEquals(points.length, visited.get());
+    }
+
+    @Test
+    void testSweepEvaluatesEveryPoint() {
+        ParameterizedCircuit template = new ParameterizedCircuit(1);
+        template.addGate(ParameterizedGate.ry(0), 0);
+
+        double[][] points = new double[100][1];
+        for (int p = 0; p < points.length; p++) {
+            points[p][0] = p * Math.PI / 50;
+        }
+        // P(0) after RY(theta) is cos^2(theta / 2)
+        double[] probabilities = template.sweep(points, register -> register.getState().magnitudeSquared(0));
+        for (int p = 0; p < points.length; p++) {
+            assertEquals(Math.pow(Math.cos(points[p][0] / 2), 2), probabilities[p], 1E-12);
+        }
+
+        // The template keeps working after it changes
+        template.addGate(new RYGate(Math.PI), 0);
+        assertEquals(Math.pow(Math.sin(0.3), 2), template.sweep(new double[][]{{0.6}}, register -> register.getState().magnitudeSquared(0))[0], 1E-12);
+    }
+
+    @Test
+    void testSweepMeasurementsAreReproducible() {
+        double[][] points = new double[256][1];
+        for (int p = 0; p < points.length; p++) {
+            points[p][0] = Math.PI / 2;
+        }
+
+        double[][] outcomes = new double[2][];
+        for (int run = 0; run < 2; run++) {
+            ParameterizedCircuit template = new ParameterizedCircuit(4, new Random(11));
+            for (int i = 0; i < 4; i++) {
+                template.addGate(ParameterizedGate.ry(0), i);
+            }
+            outcomes[run] = template.sweep(points, register -> {
+                int outcome = 0;
+                for (MeasurementResult result : register.measure(0, 1, 2, 3)) {
+                    outcome = (outcome << 1) | result.value();
+                }
+                return outcome;
+            });
+        }
+
+        // Same seed, same outcome per point, whatever the thread each point ran on
+        assertArrayEquals(outcomes[0], outcomes[1]);
+        assertTrue(Arrays.stream(outcomes[0]).distinct().count() > 1);
+    }
+
+    @Test
+    void testSweepRejectsShortPoints() {
+        ParameterizedCircuit template = new ParameterizedCircuit(2);
+        template.addGate(ParameterizedGate.rx(1), 0);
+        assertThrows(IllegalArgumentException.class, () -> template.sweep(new double[][]{{0.5}}, register -> 0));
+        assertThrows(IllegalArgumentException.class, () -> template.addGate(ParameterizedGate.rx(0), 2));
+    }
+}
@@ -1,12 +1,24 @@
 package quantum.core;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import static org.junit.jupiter.api.Assertions.*;
+import static utils.StateParser.parseState;
 
+import quantum.gates.ControlledGate;
 import quantum.gates.binary.CNOTGate;
-import quantum.gates.unary.HadamardGate;
+import quantum.gates.binary.SwapGate;
+import quantum.gates.composit.CCNOTGate;
+import quantum.gates.composit.UniversalGate;
+import quantum.gates.unary.*;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 public class QuantumCircuitTest {
 
@@ -56,4 +68,229 @@ public class QuantumCircuitTest {
         MeasurementResult result = circuit.getMeasurementResults().get(0);
         assertEquals(0, result.value());
     }
+
+    @Test
+    void testSingleQubitRunsAreFused() {
+        QuantumRegister register = new QuantumRegister(2);
+        QuantumCircuit circuit = new QuantumCircuit(register);
+
+        circuit.addGate(new HadamardGate(), 0);
+        circuit.addGate(new PauliXGate(), 1);
+        circuit.addGate(new PauliXGate(), 0);
+        circuit.addGate(new PauliXGate(), 0);
+        circuit.addGate(new HadamardGate(), 0);
+        circuit.addGate(new UniversalGate(Math.PI / 3, Math.PI / 5, Math.PI / 7), 1);
+        circuit.addGate(new CNOTGate(), 0, 1);
+
+        circuit.execute();
+
+        FusionReport report = circuit.getFusionReport();
+        assertEquals(7, report.gatesBefore());
+        assertEquals(2, report.gatesAfter(), "H X X H cancels; X and U merge into one gate; CNOT stays");
+        assertEquals(5, report.passesSaved());
+    }
+
+    @Test
+    void testDiagonalLayerIsFusedIntoOnePass() {
+        int numQubits = 12;
+        QuantumRegister unfused = new QuantumRegister(numQubits);
+        QuantumRegister fused = new QuantumRegister(numQubits);
+        FusionReport report = null;
+
+        for (QuantumRegister register : new QuantumRegister[]{unfused, fused}) {
+            QuantumCircuit circuit = new QuantumCircuit(register);
+            circuit.setMaxFusedQubits(register == unfused ? 0 : 1);
+            for (int i = 0; i < numQubits; i++) {
+                circuit.addGate(new HadamardGate(), i);
+            }
+            for (int i = 0; i + 1 < numQubits; i++) {
+                circuit.addGate(new CNOTGate(), i, i + 1);
+            }
+            for (int i = 0; i < numQubits; i++) {
+                circuit.addGate(i % 2 == 0 ? new TGate() : new RZGate(0.1 * i), i);
+            }
+            circuit.addGate(new ControlledGate(new PauliZGate(), 1), 0, 11);
+            circuit.addGate(new SGate(), 5);
+            circuit.execute();
+            report = circuit.getFusionReport();
+        }
+
+        assertEquals(2 * numQubits, report.gatesAfter(), "Hadamards and CNOTs stay; T, RZ, CZ and S become one pass");
+        assertTrue(unfused.getState().equals(fused.getState()),
+                "Expected: " + parseState(unfused) + "\nActual: " + parseState(fused));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3})
+    void testFusedCircuitMatchesUnfusedCircuit(int maxFusedQubits) {
+        QuantumRegister unfused = new QuantumRegister(4);
+        QuantumRegister fused = new QuantumRegister(4);
+
+        for (QuantumRegister register : new QuantumRegister[]{unfused, fused}) {
+            QuantumCircuit circuit = new QuantumCircuit(register);
+            circuit.setMaxFusedQubits(register == unfused ? 0 : maxFusedQubits);
+            circuit.addGate(new HadamardGate(), 0);
+            circuit.addGate(new RYGate(0.3), 1);
+            circuit.addGate(new CNOTGate(), 0, 1);
+            circuit.addGate(new TGate(), 1);
+            circuit.addGate(new CNOTGate(), 1, 2);
+            circuit.addGate(new RXGate(1.1), 2);
+            circuit.addGate(new SwapGate(), 2, 3);
+            circuit.addGate(new CCNOTGate(), 3, 0, 1);
+            circuit.addGate(new UniversalGate(0.4, 0.5, 0.6), 3);
+            circuit.addGate(new HadamardGate(), 1);
+            circuit.execute();
+        }
+
+        assertTrue(unfused.getState().equals(fused.getState()),
+                "Expected: " + parseState(unfused) + "\nActual: " + parseState(fused));
+    }
+
+    @Test
+    void testCompiledCircuitMatchesInterpretedCircuit() {
+        QuantumCircuit template = new QuantumCircuit(4);
+        QuantumRegister interpreted = new QuantumRegister(4);
+        QuantumCircuit circuit = new QuantumCircuit(interpreted);
+        for (QuantumCircuit c : new QuantumCircuit[]{template, circuit}) {
+            c.setMaxFusedQubits(2);
+            c.addGate(new HadamardGate(), 0);
+            c.addGate(new SwapGate(), 0, 3);
+            c.addGate(new CNOTGate(), 3, 1);
+            c.addGate(new RYGate(0.7), 2);
+            c.addGate(new SwapGate(), 1, 2);
+            c.addGate(new CCNOTGate(), 1, 2, 0);
+            c.addGate(new TGate(), 2);
+        }
+        circuit.execute();
+
+        CompiledCircuit compiled = template.compile();
+        for (int run = 0; run < 3; run++) {
+            try (QuantumRegister register = new QuantumRegister(4)) {
+                assertTrue(compiled.execute(register).isEmpty());
+                assertTrue(interpreted.getState().equals(register.getState()),
+                        "Expected: " + parseState(interpreted) + "\nActual: " + parseState(register));
+            }
+        }
+    }
+
+    @Test
+    void testCompiledCircuitRunsConcurrently() throws Exception {
+        QuantumCircuit circuit = new QuantumCircuit(3);
+        circuit.addGate(new HadamardGate(), 0);
+        circuit.addGate(new CNOTGate(), 0, 1);
+        circuit.addGate(new SwapGate(), 1, 2);
+        circuit.addMeasurement(0);
+        circuit.addMeasurement(2);
+        circuit.addMeasurement(1);
+        CompiledCircuit compiled = circuit.compile();
+
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < 4; t++) {
+            long seed = t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int shot = 0; shot < 50; shot++) {
+                        List<MeasurementResult> results = compiled.execute(new QuantumRegister(3, seed * 100 + shot));
+                        assertEquals(List.of(0, 2, 1), results.stream().map(MeasurementResult::qubitId).toList());
+                        assertEquals(results.get(0).value(), results.get(1).value());
+                        assertEquals(0, results.get(2).value());
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.isEmpty(), failures.toString());
+    }
+
+    @Test
+    void testCompileRejectsInvalidQubits() {
+        QuantumCircuit circuit = new QuantumCircuit(2);
+        circuit.addGate(new CNOTGate(), 0, 2);
+        assertThrows(IllegalArgumentException.class, circuit::compile);
+        assertThrows(IllegalArgumentException.class, circuit::execute);
+    }
+
+    @Test
+    void testSamplingTerminalMeasurementsSimulatesOnce() {
+        QuantumRegister register = new QuantumRegister(3, 7);
+        QuantumCircuit circuit = new QuantumCircuit(register);
+        circuit.addGate(new HadamardGate(), 0);
+        circuit.addGate(new CNOTGate(), 0, 2);
+        circuit.addGate(new RYGate(2 * Math.acos(Math.sqrt(0.9))), 1);
+        circuit.addMeasurement(2);
+        circuit.addMeasurement(1);
+        circuit.addMeasurement(0);
+
+        ShotHistogram histogram = circuit.sample(100_000);
+
+        assertEquals(100_000, histogram.getTotalShots());
+        assertArrayEquals(new long[]{0b000, 0b010, 0b101, 0b111}, histogram.outcomes());
+        assertEquals(0.45, histogram.getFrequency(0b000), 0.01);
+        assertEquals(0.05, histogram.getFrequency(0b010), 0.01);
+        assertEquals(0.45, histogram.getFrequency(0b101), 0.01);
+        // The register is left unmeasured
+        assertEquals("0.67|000⟩ 0.22|010⟩ 0.67|101⟩ 0.22|111⟩", parseState(register));
+    }
+
+    @Test
+    void testSamplingFileBackedRegisterGoesThroughTheRegister(@TempDir Path directory) {
+        int numQubits = 17;
+        try (QuantumRegister register = QuantumRegister.fileBacked(numQubits, directory.resolve("state.bin"), new Random(7))) {
+            QuantumCircuit circuit = new QuantumCircuit(register);
+            circuit.addGate(new HadamardGate(), 0);
+            circuit.addGate(new CNOTGate(), 0, 16);
+            circuit.addGate(new SwapGate(), 0, 5);
+            circuit.addMeasurement(5);
+            circuit.addMeasurement(16);
+
+            ShotHistogram histogram = circuit.sample(1_000);
+
+            assertArrayEquals(new long[]{0b00, 0b11}, histogram.outcomes());
+            assertNotEquals(0, register.getQubit(0).getIndex(), "High-order qubit should have been moved into the block window");
+            List<GateIoStatistics> statistics = register.getIoStatistics();
+            assertFalse(statistics.isEmpty());
+            assertEquals("HadamardGate", statistics.get(0).operation());
+            assertTrue(statistics.get(0).bytesPagedIn() > 0);
+        }
+    }
+
+    @Test
+    void testSamplingManyMeasuredQubits() {
+        QuantumCircuit circuit = new QuantumCircuit(21);
+        circuit.addGate(new PauliXGate(), 3);
+        circuit.addGate(new HadamardGate(), 20);
+        for (int i = 0; i < 21; i++) {
+            circuit.addMeasurement(i);
+        }
+
+        ShotHistogram histogram = circuit.compile().sample(new QuantumRegister(21, 3), 10_000);
+
+        assertArrayEquals(new long[]{1L << 3, (1L << 3) | (1L << 20)}, histogram.outcomes());
+        assertEquals(0.5, histogram.getFrequency(1L << 3), 0.03);
+    }
+
+    @Test
+    void testSamplingMidCircuitMeasurementRepeatsShots() {
+        QuantumCircuit circuit = new QuantumCircuit(2);
+        circuit.addGate(new HadamardGate(), 0);
+        circuit.addMeasurement(0);
+        circuit.addGate(new CNOTGate(), 0, 1);
+        circuit.addMeasurement(1);
+        CompiledCircuit compiled = circuit.compile();
+        QuantumRegister register = new QuantumRegister(2, 11);
+
+        ShotHistogram histogram = compiled.sample(register, 2_000);
+
+        assertFalse(compiled.hasTerminalMeasurements());
+        assertArrayEquals(new long[]{0b00, 0b11}, histogram.outcomes());
+        assertEquals("|00⟩", parseState(register));
+    }
 }
@@ -1,11 +1,24 @@
 package quantum.core;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
 import quantum.gates.IQuantumGate;
+import quantum.gates.binary.CNOTGate;
+import quantum.gates.binary.SwapGate;
 import quantum.gates.unary.HadamardGate;
+import quantum.gates.unary.PauliXGate;
 import quantum.math.ComplexNumber;
+import quantum.math.SparseAmplitudeBuffer;
+import quantum.math.Vector;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static utils.StateParser.parseState;
 
 public class QuantumRegisterTest {
 
@@ -54,4 +67,183 @@ public class QuantumRegisterTest {
         assertEquals(expectedProbability, register.getProbabilityOfZero(register.getQubit(0)),
                 "Probability should collapse to 1.0 or 0.0 post measurement.");
     }
+
+    @Test
+    void testCollapseKeepsOtherQubits() {
+        QuantumRegister register = new QuantumRegister(2);
+        register.applyGate(new PauliXGate(), 0);
+
+        assertEquals(1, register.measure(0).value());
+        assertEquals(new ComplexNumber(1, 0), register.getState().get(2), "State should remain |10⟩ after measurement");
+        assertEquals(0, register.measure(1).value());
+    }
+
+    @Test
+    void testSwapOnlyRelabelsQubits() {
+        QuantumRegister register = new QuantumRegister(3);
+        register.applyGate(new PauliXGate(), 0);
+        register.applyGate(new SwapGate(), 0, 2);
+
+        assertEquals(2, register.getQubit(0).getIndex(), "Swap should move qubit 0 to index 2");
+        assertEquals(0, register.getQubit(2).getIndex(), "Swap should move qubit 2 to index 0");
+
+        // |001⟩ after the swap, then H on qubit 1 and flips of both swapped qubits
+        register.applyGate(new HadamardGate(), 1);
+        register.applyGate(new PauliXGate(), 0);
+        register.applyGate(new PauliXGate(), 2);
+
+        assertEquals("0.71|100⟩ 0.71|110⟩", parseState(register));
+        assertEquals(0, register.getQubit(0).getIndex(), "Reading the state should restore logical order");
+    }
+
+    @Test
+    void testOffHeapRegisterMatchesHeapRegisterAndFreesOnClose() {
+        QuantumRegister heapRegister = new QuantumRegister(3, 7L);
+        QuantumRegister offHeapRegister = QuantumRegister.offHeap(3, new Random(7L));
+
+        for (QuantumRegister register : new QuantumRegister[]{heapRegister, offHeapRegister}) {
+            register.applyGate(new HadamardGate(), 0);
+            register.applyGate(new CNOTGate(), 0, 2);
+            register.applyGate(new SwapGate(), 1, 2);
+        }
+
+        assertTrue(heapRegister.getState().equals(offHeapRegister.getState()), "Off-heap state should match the heap state");
+        assertEquals(heapRegister.measure(1), offHeapRegister.measure(1));
+
+        Vector state = offHeapRegister.getState();
+        offHeapRegister.close();
+        assertThrows(IllegalStateException.class, () -> state.get(0), "Closed off-heap state should not be readable");
+    }
+
+    @Test
+    void testFileBackedRegisterMatchesHeapRegister(@TempDir Path directory) {
+        int numQubits = 17;
+        QuantumRegister heapRegister = new QuantumRegister(numQubits, 3L);
+
+        try (QuantumRegister fileRegister = QuantumRegister.fileBacked(numQubits, directory.resolve("state.bin"), new Random(3L))) {
+            for (QuantumRegister register : new QuantumRegister[]{heapRegister, fileRegister}) {
+                register.applyGate(new HadamardGate(), 0);
+                register.applyGate(new CNOTGate(), 0, 16);
+                register.applyGate(new HadamardGate(), 5);
+            }
+
+            assertNotEquals(0, fileRegister.getQubit(0).getIndex(), "High-order qubit should have been moved into the block window");
+            assertEquals(heapRegister.measure(16), fileRegister.measure(16));
+            assertTrue(heapRegister.getState().equals(fileRegister.getState()), "File-backed state should match the heap state");
+
+            List<GateIoStatistics> statistics = fileRegister.getIoStatistics();
+            assertEquals(4, statistics.size());
+            assertEquals("HadamardGate", statistics.get(0).operation());
+            assertTrue(statistics.get(0).bytesPagedIn() > 0);
+        }
+    }
+
+    @Test
+    void testMeasureAllCollapsesToOneBasisState() {
+        QuantumRegister register = new QuantumRegister(3, 5);
+        register.applyGate(new HadamardGate(), 0);
+        register.applyGate(new CNOTGate(), 0, 2);
+        register.applyGate(new HadamardGate(), 1);
+
+        List<MeasurementResult> results = register.measureAll();
+
+        assertEquals(List.of(0, 1, 2), results.stream().map(MeasurementResult::qubitId).toList());
+        assertEquals(results.get(0).value(), results.get(2).value());
+        String expected = "|" + results.get(0).value() + results.get(1).value() + results.get(2).value() + "⟩";
+        assertEquals(expected, parseState(register));
+    }
+
+    @Test
+    void testMeasuringTwentyQubitsFitsInASmallHeap() throws Exception {
+        // The 16 MB state and its 8 MB marginal table must fit; one table per chunk group would need 512 MB
+        String classPath = Path.of(QuantumRegister.class.getProtectionDomain().getCodeSource().getLocation().toURI()) +
+                File.pathSeparator + Path.of(LargeMeasurement.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx96m", "--enable-preview", "-cp", classPath, LargeMeasurement.class.getName())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes());
+
+        assertEquals(0, process.waitFor(), output);
+        assertEquals(Marginals.MAX_BITS, output.strip().length(), output);
+    }
+
+    // Run in its own JVM by the test above
+    static class LargeMeasurement {
+        public static void main(String[] args) {
+            QuantumRegister register = new QuantumRegister(Marginals.MAX_BITS, 1);
+            for (int i = 0; i < Marginals.MAX_BITS; i++) {
+                register.applyGate(new HadamardGate(), i);
+            }
+            StringBuilder outcome = new StringBuilder();
+            for (MeasurementResult result : register.measureAll()) {
+                outcome.append(result.value());
+            }
+            System.out.println(outcome);
+        }
+    }
+
+    @Test
+    void testJointMeasurementOfSomeQubitsRenormalizesTheRest() {
+        QuantumRegister register = new QuantumRegister(3, 9);
+        register.applyGate(new HadamardGate(), 0);
+        register.applyGate(new CNOTGate(), 0, 2);
+        register.applyGate(new HadamardGate(), 1);
+
+        List<MeasurementResult> results = register.measure(2, 1);
+
+        assertEquals(List.of(2, 1), results.stream().map(MeasurementResult::qubitId).toList());
+        String expected = "|" + results.get(0).value() + results.get(1).value() + results.get(0).value() + "⟩";
+        assertEquals(expected, parseState(register));
+        assertThrows(IllegalArgumentException.class, () -> register.measure(1, 1));
+    }
+
+    @Test
+    void testMeasureAllBeyondTabulatedQubits() {
+        QuantumRegister register = new QuantumRegister(21, 1);
+        register.applyGate(new HadamardGate(), 0);
+        register.applyGate(new CNOTGate(), 0, 20);
+
+        List<MeasurementResult> results = register.measureAll();
+
+        assertEquals(results.get(0).value(), results.get(20).value());
+        assertEquals(1.0, register.getState().magnitudeSquared(results.get(0).value() == 0 ? 0 : (1L << 20) | 1), 1E-12);
+    }
+
+    @Test
+    void testSparseRegisterHandlesWideBasisStateCircuits() {
+        QuantumRegister register = QuantumRegister.sparse(48);
+        register.applyGate(new HadamardGate(), 0);
+        for (int i = 1; i < 48; i++) {
+            register.applyGate(new CNOTGate(), 0, i);
+        }
+        register.applyGate(new SwapGate(), 3, 40);
+
+        assertTrue(register.isSparse());
+        assertEquals(2, ((SparseAmplitudeBuffer) register.getState().getBuffer()).nonZeroCount());
+        List<MeasurementResult> results = register.measure(47, 2);
+        assertEquals(results.get(0).value(), results.get(1).value());
+        assertEquals(1, ((SparseAmplitudeBuffer) register.getState().getBuffer()).nonZeroCount());
+    }
+
+    @Test
+    void testSparseRegisterSwitchesToDenseAndBack() {
+        QuantumRegister sparse = QuantumRegister.sparse(8, SparsePolicy.DEFAULT, new Random(4));
+        QuantumRegister dense = new QuantumRegister(8, 4);
+
+        for (QuantumRegister register : new QuantumRegister[]{sparse, dense}) {
+            for (int i = 0; i < 8; i++) {
+                register.applyGate(new HadamardGate(), i);
+            }
+            register.applyGate(new CNOTGate(), 7, 2);
+            register.applyGate(new SwapGate(), 1, 6);
+        }
+
+        assertFalse(sparse.isSparse());
+        assertTrue(dense.getState().equals(sparse.getState()));
+
+        assertEquals(dense.measureAll(), sparse.measureAll());
+        assertTrue(sparse.isSparse());
+        assertTrue(dense.getState().equals(sparse.getState()));
+    }
 }
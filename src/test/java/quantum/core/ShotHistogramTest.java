@@ -0,0 +1,38 @@
+package quantum.core;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+public class ShotHistogramTest {
+
+    @Test
+    void testCountsManyDistinctOutcomes() {
+        ShotHistogram histogram = new ShotHistogram(0, 1);
+        for (long outcome = 0; outcome < 1_000_000; outcome++) {
+            histogram.add(outcome * 0x9E3779B97F4A7C15L, outcome % 3 + 1);
+        }
+        histogram.increment(0);
+
+        assertEquals(1_000_000, histogram.size());
+        assertEquals(2, histogram.getCount(0));
+        assertEquals(3, histogram.getCount(2 * 0x9E3779B97F4A7C15L));
+        assertEquals(0, histogram.getCount(-1));
+        assertEquals(1_999_999 + 1, histogram.getTotalShots());
+    }
+
+    @Test
+    void testConvertsBackToMeasurementResults() {
+        ShotHistogram histogram = new ShotHistogram(3, 1);
+        histogram.add(0b10, 2);
+        histogram.add(0b01, 1);
+
+        assertEquals(0b10, histogram.mostFrequent());
+        assertEquals(List.of(new MeasurementResult(3, 0), new MeasurementResult(1, 1)), histogram.toMeasurementResults(0b10));
+        List<List<MeasurementResult>> shots = histogram.toMeasurementResults();
+        assertEquals(3, shots.size());
+        assertEquals(List.of(new MeasurementResult(3, 1), new MeasurementResult(1, 0)), shots.get(0));
+        assertEquals("{1=1, 2=2}", histogram.toString());
+    }
+}
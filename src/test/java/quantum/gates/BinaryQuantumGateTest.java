@@ -1,5 +1,6 @@
 package quantum.gates;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -10,6 +11,7 @@ import quantum.gates.unary.IdentityGate;
 import quantum.gates.unary.PauliXGate;
 import quantum.math.*;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static utils.StateParser.parseState;
 import static utils.StateParser.stateFromStr;
 
@@ -76,4 +78,19 @@ class BinaryQuantumGateTest {
                         "Expected: " + parseState(params.expectedState(), inumInputs) + "\n" +
                         "Actual: " + parseState(actualState, inumInputs) + "\n");
     }
+
+    @Test
+    void testNonAdjacentQubitsInReverseOrder() {
+        QuantumRegister register = new QuantumRegister(3);
+        register.applyGate(new PauliXGate(), 2);
+
+        // Control on the last qubit, target on the first, with qubit 1 in between
+        register.applyGate(new CNOTGate(), 2, 0);
+        assertTrue(stateFromStr("|101⟩").equals(register.getState()),
+                "Actual: " + parseState(register.getState(), 3));
+
+        register.applyGate(new SwapGate(), 0, 1);
+        assertTrue(stateFromStr("|011⟩").equals(register.getState()),
+                "Actual: " + parseState(register.getState(), 3));
+    }
 }
@@ -0,0 +1,84 @@
+package quantum.gates;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import quantum.core.QuantumRegister;
+import quantum.gates.composit.CCNOTGate;
+import quantum.gates.unary.HadamardGate;
+import quantum.gates.unary.PauliXGate;
+import quantum.gates.unary.PauliZGate;
+import quantum.gates.unary.RYGate;
+import quantum.math.Matrix;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static utils.StateParser.parseState;
+import static utils.StateParser.stateFromStr;
+
+class ControlledGateTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "|000⟩, |000⟩",
+            "|010⟩, |010⟩",
+            "|100⟩, |100⟩",
+            "|110⟩, |111⟩",
+            "|111⟩, |110⟩"
+    })
+    void testCCNOTTruthTable(String initialState, String expectedState) {
+        QuantumRegister register = new QuantumRegister(3);
+        String bits = initialState.substring(1, 4);
+        for (int i = 0; i < bits.length(); i++) {
+            if (bits.charAt(i) == '1') {
+                register.applyGate(new PauliXGate(), i);
+            }
+        }
+
+        register.applyGate(new CCNOTGate(), 0, 1, 2);
+
+        assertTrue(stateFromStr(expectedState).equals(register.getState()),
+                "Expected: " + expectedState + "\n" + "Actual: " + parseState(register));
+    }
+
+    @Test
+    void testMultiControlledZMarksOnlyAllOnesState() {
+        QuantumRegister register = new QuantumRegister(4);
+        for (int i = 0; i < 4; i++) {
+            register.applyGate(new HadamardGate(), i);
+        }
+
+        register.applyGate(new ControlledGate(new PauliZGate(), 3), 3, 1, 0, 2);
+
+        for (int state = 0; state < 16; state++) {
+            double expected = state == 15 ? -0.25 : 0.25;
+            assertEquals(expected, register.getState().getReal(state), 1E-10, "Amplitude of basis state " + state);
+        }
+    }
+
+    @Test
+    void testMultiControlledXWithNonContiguousControls() {
+        QuantumRegister register = new QuantumRegister(5);
+        register.applyGate(new PauliXGate(), 0);
+        register.applyGate(new PauliXGate(), 4);
+
+        register.applyGate(ControlledGate.multiControlledX(2), 4, 0, 2);
+        assertEquals("|10101⟩", parseState(register));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> register.applyGate(ControlledGate.multiControlledX(2), 4, 0, 0));
+    }
+
+    @Test
+    void testMatrixIsOnlyBuiltForSmallGates() {
+        Matrix matrix = new ControlledGate(new RYGate(0.8), 2).getMatrix();
+        Matrix target = new RYGate(0.8).getMatrix();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                double expected = row >= 6 && col >= 6 ? target.getReal(row - 6, col - 6) : row == col ? 1 : 0;
+                assertEquals(expected, matrix.getReal(row, col), 1E-12, "Entry (" + row + ", " + col + ")");
+            }
+        }
+
+        assertNull(ControlledGate.multiControlledX(12).getMatrix());
+    }
+}
@@ -0,0 +1,94 @@
+package quantum.gates;
+
+import org.junit.jupiter.api.Test;
+import quantum.core.QuantumRegister;
+import quantum.gates.binary.CNOTGate;
+import quantum.gates.binary.SwapGate;
+import quantum.gates.composit.CCNOTGate;
+import quantum.gates.unary.*;
+import quantum.math.Matrix;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static utils.TestRegisters.assertMatchesReference;
+import static utils.TestRegisters.assertSameState;
+import static utils.TestRegisters.prepare;
+
+class DiagonalGateTest {
+
+    @Test
+    void testGatesReportTheirStructure() {
+        for (QuantumGate gate : List.of(new PauliZGate(), new SGate(), new TGate(), new TDaggerGate(), new RZGate(0.7),
+                new ControlledGate(new PauliZGate(), 2))) {
+            assertEquals(GateStructure.DIAGONAL, gate.getStructure(), gate.getClass().getSimpleName());
+        }
+        for (QuantumGate gate : List.of(new PauliXGate(), new CNOTGate(), new SwapGate(), new CCNOTGate())) {
+            assertEquals(GateStructure.PERMUTATION, gate.getStructure(), gate.getClass().getSimpleName());
+        }
+        for (QuantumGate gate : List.of(new HadamardGate(), new PauliYGate(), new RXGate(0.3))) {
+            assertEquals(GateStructure.GENERAL, gate.getStructure(), gate.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    void testStructuredKernelsMatchDenseKernels() {
+        assertMatchesReference(4, DiagonalGateTest::entangle, dense -> {
+            dense.applyGate(new DenseGate(new RZGate(0.7).getMatrix()), 2);
+            dense.applyGate(new DenseGate(new TGate().getMatrix()), 0);
+            dense.applyGate(new DenseGate(new CNOTGate().getMatrix()), 3, 1);
+        }, structured -> {
+            structured.applyGate(new RZGate(0.7), 2);
+            structured.applyGate(new TGate(), 0);
+            structured.applyGate(new CNOTGate(), 3, 1);
+        });
+    }
+
+    @Test
+    void testFactoredDiagonalMatchesItsMatrix() {
+        double[] cz = {1, 0, 1, 0, 1, 0, -1, 0};
+        double[] phase = {Math.cos(0.4), Math.sin(0.4), Math.cos(1.3), Math.sin(1.3)};
+        DiagonalGate gate = new DiagonalGate(3, List.of(
+                new DiagonalGate.Factor(new int[]{2, 0}, cz),
+                new DiagonalGate.Factor(new int[]{1}, phase)));
+
+        QuantumRegister factored = prepare(4, false, DiagonalGateTest::entangle);
+        QuantumRegister dense = prepare(4, false, DiagonalGateTest::entangle);
+        factored.applyGate(gate, 3, 0, 1);
+        dense.applyGate(new DenseGate(gate.getMatrix()), 3, 0, 1);
+
+        assertSameState(dense, factored);
+        assertEquals(-Math.cos(1.3), gate.getPhase(0b111)[0], 1E-12);
+    }
+
+    @Test
+    void testRejectsMalformedPhaseTables() {
+        assertThrows(IllegalArgumentException.class, () -> new DiagonalGate(new double[]{1, 0, 1}));
+        assertThrows(IllegalArgumentException.class, () -> new DiagonalGate(2, List.of(
+                new DiagonalGate.Factor(new int[]{0, 0}, new double[8]))));
+    }
+
+    private static void entangle(QuantumRegister register) {
+        register.applyGate(new CNOTGate(), 0, 2);
+    }
+
+    // Always goes through the dense matrix kernel, as a reference for the structured ones
+    private static class DenseGate extends QuantumGate {
+        private final double[] matrix;
+
+        DenseGate(Matrix matrix) {
+            super(Integer.numberOfTrailingZeros(matrix.getRowCount()), matrix);
+            this.matrix = matrix.toInterleavedArray();
+        }
+
+        @Override
+        public GateStructure getStructure() {
+            return GateStructure.GENERAL;
+        }
+
+        @Override
+        public GateKernel kernel(int... bitPositions) {
+            return state -> GateKernels.applyMultiQubit(state, bitPositions.clone(), matrix);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package quantum.gates;
+
+import org.junit.jupiter.api.Test;
+import quantum.core.QuantumRegister;
+import quantum.gates.composit.CCNOTGate;
+import quantum.gates.unary.HadamardGate;
+import quantum.gates.unary.PauliXGate;
+import quantum.gates.unary.RYGate;
+import quantum.math.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static utils.StateParser.parseState;
+import static utils.TestRegisters.assertMatchesReference;
+
+class PermutationOracleTest {
+
+    @Test
+    void testModularMultiplicationMapsBasisStates() {
+        // x -> 7x mod 16 is a bijection because 7 is odd
+        PermutationOracle oracle = new PermutationOracle(4, x -> 7 * x % 16);
+        for (int x = 0; x < 16; x++) {
+            QuantumRegister register = basisState(4, x);
+            register.applyGate(oracle, 0, 1, 2, 3);
+            assertEquals(1, register.getState().getReal(storageIndex(7 * x % 16, 4)), 1E-12, "Image of " + x);
+        }
+    }
+
+    @Test
+    void testXorOracleMatchesToffoli() {
+        PermutationOracle oracle = PermutationOracle.xor(2, 1, x -> x == 3 ? 1 : 0);
+        assertMatchesReference(4, expected -> expected.applyGate(new CCNOTGate(), 3, 0, 1),
+                actual -> actual.applyGate(oracle, 3, 0, 1));
+    }
+
+    @Test
+    void testPhasesFollowTheSourceValue() {
+        PermutationOracle oracle = new PermutationOracle(2, x -> (x + 1) % 4, x -> x * Math.PI / 2);
+        QuantumRegister register = new QuantumRegister(2);
+        register.applyGate(new HadamardGate(), 0);
+        register.applyGate(new HadamardGate(), 1);
+
+        register.applyGate(oracle, 0, 1);
+
+        // |x⟩ gets e^(i x π/2) and moves to |x + 1⟩
+        for (int x = 0; x < 4; x++) {
+            long index = storageIndex((x + 1) % 4, 2);
+            assertEquals(0.5 * Math.cos(x * Math.PI / 2), register.getState().getReal(index), 1E-12);
+            assertEquals(0.5 * Math.sin(x * Math.PI / 2), register.getState().getImaginary(index), 1E-12);
+        }
+    }
+
+    @Test
+    void testCyclesOnInnerQubitsMoveEveryGroup() {
+        int[] qubits = {4, 1, 2};
+        PermutationOracle oracle = new PermutationOracle(3, x -> (5 * x + 3) % 8);
+        QuantumRegister register = new QuantumRegister(6);
+        for (int q = 0; q < 6; q++) {
+            register.applyGate(new RYGate(0.3 + 0.4 * q), q);
+        }
+        Vector before = register.getState().copy();
+
+        register.applyGate(oracle, qubits);
+
+        Vector after = register.getState();
+        for (long i = 0; i < before.length(); i++) {
+            long x = 0;
+            long cleared = i;
+            for (int k = 0; k < qubits.length; k++) {
+                int bit = 5 - qubits[k];
+                x |= ((i >> bit) & 1) << k;
+                cleared &= ~(1L << bit);
+            }
+            long image = (5 * x + 3) % 8;
+            long j = cleared;
+            for (int k = 0; k < qubits.length; k++) {
+                j |= ((image >> k) & 1) << (5 - qubits[k]);
+            }
+            assertEquals(before.getReal(i), after.getReal(j), 1E-12, "Amplitude of " + i);
+        }
+    }
+
+    @Test
+    void testRejectsImagesOutsideTheInputRange() {
+        QuantumRegister register = new QuantumRegister(3);
+        assertThrows(IllegalArgumentException.class, () -> register.applyGate(new PermutationOracle(3, x -> x + 1), 0, 1, 2));
+    }
+
+    @Test
+    void testRejectsFunctionsThatAreNotOneToOne() {
+        PermutationOracle oracle = new PermutationOracle(3, x -> x / 2);
+        for (boolean sparse : new boolean[]{false, true}) {
+            QuantumRegister register = sparse ? QuantumRegister.sparse(8) : new QuantumRegister(8);
+            // |0⟩ and |1⟩ of qubit 0 both map to 0
+            register.applyGate(new HadamardGate(), 0);
+            assertEquals(sparse, register.isSparse());
+            String state = parseState(register);
+
+            assertThrows(IllegalArgumentException.class, () -> register.applyGate(oracle, 0, 1, 2));
+            assertEquals(state, parseState(register), "The state must be left untouched");
+        }
+    }
+
+    private static QuantumRegister basisState(int numQubits, int value) {
+        QuantumRegister register = new QuantumRegister(numQubits);
+        for (int k = 0; k < numQubits; k++) {
+            if (((value >> k) & 1) != 0) {
+                register.applyGate(new PauliXGate(), k);
+            }
+        }
+        return register;
+    }
+
+    // Bit k of the value is qubit k, and qubit 0 is the most significant bit of the storage index
+    private static long storageIndex(int value, int numQubits) {
+        return Long.reverse(value) >>> (64 - numQubits);
+    }
+}
@@ -0,0 +1,60 @@
+package quantum.gates;
+
+import org.junit.jupiter.api.Test;
+import quantum.core.QuantumRegister;
+import quantum.gates.composit.QFTGate;
+import quantum.gates.unary.PauliXGate;
+import quantum.gates.unary.RYGate;
+import quantum.gates.unary.RZGate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static utils.TestRegisters.assertMatchesReference;
+import static utils.TestRegisters.assertSameState;
+import static utils.TestRegisters.prepare;
+
+class QFTGateTest {
+
+    @Test
+    void testMatchesDenseFourierMatrixOnArbitraryQubits() {
+        int[][] qubitSets = {{0, 1, 2, 3, 4}, {4, 1, 3}, {2}, {1, 4, 0, 3}};
+        for (int[] qubits : qubitSets) {
+            for (boolean inverse : new boolean[]{false, true}) {
+                QFTGate gate = inverse ? QFTGate.inverse(qubits.length) : new QFTGate(qubits.length);
+                assertMatchesReference(5, QFTGateTest::addPhases, dense -> dense.applyGate(new MatrixGate(gate.getMatrix()), qubits),
+                        fft -> fft.applyGate(gate, qubits));
+            }
+        }
+    }
+
+    @Test
+    void testInverseUndoesTransform() {
+        QuantumRegister register = prepare(5, false, QFTGateTest::addPhases);
+        QuantumRegister original = prepare(5, false, QFTGateTest::addPhases);
+
+        register.applyGate(new QFTGate(4), 3, 0, 2, 1);
+        register.applyGate(QFTGate.inverse(4), 3, 0, 2, 1);
+
+        assertSameState(original, register);
+    }
+
+    @Test
+    void testTransformOfBasisStateHasLinearPhases() {
+        // |x = 5⟩ on three qubits, qubit 0 the most significant bit
+        QuantumRegister register = new QuantumRegister(3);
+        register.applyGate(new PauliXGate(), 0);
+        register.applyGate(new PauliXGate(), 2);
+
+        register.applyGate(new QFTGate(3), 0, 1, 2);
+
+        for (int y = 0; y < 8; y++) {
+            double angle = 2 * Math.PI * 5 * y / 8;
+            assertEquals(Math.cos(angle) / Math.sqrt(8), register.getState().getReal(y), 1E-12);
+            assertEquals(Math.sin(angle) / Math.sqrt(8), register.getState().getImaginary(y), 1E-12);
+        }
+    }
+
+    private static void addPhases(QuantumRegister register) {
+        register.applyGate(new RZGate(1.3), 3);
+        register.applyGate(new RYGate(2.1), 4);
+    }
+}
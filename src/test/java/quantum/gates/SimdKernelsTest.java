@@ -0,0 +1,94 @@
+package quantum.gates;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import quantum.core.QuantumRegister;
+import quantum.gates.composit.UniversalGate;
+import quantum.gates.unary.*;
+import quantum.math.Matrix;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static utils.StateParser.parseState;
+
+class SimdKernelsTest {
+    private static final int NUM_QUBITS = 9;
+
+    private final boolean initiallyEnabled = GateKernels.isSimdEnabled();
+
+    @AfterEach
+    void restore() {
+        if (GateKernels.isSimdAvailable()) {
+            GateKernels.setSimdEnabled(initiallyEnabled);
+        }
+    }
+
+    @Test
+    void testSingleQubitKernelsMatchScalarAtEveryPosition() {
+        for (int qubit = 0; qubit < NUM_QUBITS; qubit++) {
+            int target = qubit;
+            assertSameAsScalar(register -> register.applyGate(new UniversalGate(0.3, 1.1, -0.7), target));
+            assertSameAsScalar(register -> register.applyGate(new RZGate(0.9), target));
+            assertSameAsScalar(register -> register.applyGate(new TGate(), target));
+        }
+    }
+
+    @Test
+    void testTwoQubitKernelMatchesScalarForEveryPair() {
+        Matrix matrix = new UniversalGate(0.4, 0.2, 1.3).getMatrix().tensorProduct(new UniversalGate(1.7, -0.5, 0.8).getMatrix());
+        for (int first = 0; first < NUM_QUBITS; first++) {
+            for (int second = 0; second < NUM_QUBITS; second++) {
+                if (first != second) {
+                    int[] qubits = {first, second};
+                    assertSameAsScalar(register -> register.applyGate(new MatrixGate(matrix), qubits));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFactoredDiagonalMatchesScalar() {
+        DiagonalGate gate = new DiagonalGate(3, List.of(
+                new DiagonalGate.Factor(new int[]{0, 2}, new double[]{1, 0, 0, 1, -1, 0, Math.sqrt(0.5), Math.sqrt(0.5)}),
+                new DiagonalGate.Factor(new int[]{1}, new double[]{Math.cos(0.3), Math.sin(0.3), Math.cos(2.0), Math.sin(2.0)})));
+        assertSameAsScalar(register -> register.applyGate(gate, 8, 0, 4));
+    }
+
+    @Test
+    void testCannotEnableWithoutVectorApi() {
+        assumeTrue(!GateKernels.isSimdAvailable());
+        assertThrows(UnsupportedOperationException.class, () -> GateKernels.setSimdEnabled(true));
+    }
+
+    private static void assertSameAsScalar(Consumer<QuantumRegister> operation) {
+        assumeTrue(GateKernels.isSimdAvailable(), "Run with --add-modules jdk.incubator.vector to test the SIMD kernels");
+
+        QuantumRegister scalar = randomState();
+        QuantumRegister simd = randomState();
+
+        GateKernels.setSimdEnabled(false);
+        operation.accept(scalar);
+        GateKernels.setSimdEnabled(true);
+        operation.accept(simd);
+
+        assertTrue(scalar.getState().equals(simd.getState()),
+                "Expected: " + parseState(scalar) + "\nActual: " + parseState(simd));
+    }
+
+    private static QuantumRegister randomState() {
+        QuantumRegister register = new QuantumRegister(NUM_QUBITS);
+        Random random = new Random(7);
+        for (int qubit = 0; qubit < NUM_QUBITS; qubit++) {
+            register.applyGate(new UniversalGate(random.nextDouble() * 3, random.nextDouble() * 3, random.nextDouble() * 3), qubit);
+            if (qubit > 0) {
+                register.applyGate(new MatrixGate(new UniversalGate(1, 2, 3).getMatrix()
+                        .tensorProduct(new HadamardGate().getMatrix())), qubit - 1, qubit);
+            }
+        }
+        return register;
+    }
+}
@@ -1,13 +1,18 @@
 package quantum.gates;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
+import quantum.core.QuantumCircuit;
 import quantum.core.QuantumRegister;
 import quantum.gates.unary.*;
 import quantum.math.ComplexNumber;
+import quantum.math.Matrix;
 import quantum.math.Vector;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static utils.StateParser.parseState;
 import static utils.StateParser.stateFromStr;
 
@@ -153,4 +158,46 @@ class UnaryQuantumGateTest {
                         "Expected: " + parseState(params.expectedState(), numInputs) + "\n" +
                         "Actual: " + parseState(actualState, numInputs) + "\n");
     }
+
+    @Test
+    void testGateOnInnerQubitOfLargerRegister() {
+        QuantumRegister register = new QuantumRegister(3);
+        register.applyGate(new PauliXGate(), 0);
+        register.applyGate(new PauliYGate(), 1);
+        register.applyGate(new HadamardGate(), 2);
+
+        double amplitude = 1 / Math.sqrt(2);
+        Vector expectedState = new Vector(8);
+        expectedState.set(6, 0, amplitude); // i/√2 |110⟩
+        expectedState.set(7, 0, amplitude); // i/√2 |111⟩
+
+        Vector actualState = register.getState();
+        assertTrue(expectedState.equals(actualState),
+                "Expected: " + parseState(expectedState, 3) + "\n" +
+                        "Actual: " + parseState(actualState, 3) + "\n");
+    }
+
+    @Test
+    void testChangingAMatrixDoesNotChangeTheGate() {
+        HadamardGate hadamard = new HadamardGate();
+        hadamard.getMatrix().set(1, 1, 1, 0);
+        Matrix matrix = new HadamardGate().getMatrix();
+        MatrixGate gate = new MatrixGate(matrix);
+        matrix.set(1, 1, 1, 0);
+
+        for (IQuantumGate changed : new IQuantumGate[]{hadamard, gate}) {
+            QuantumRegister direct = new QuantumRegister(1);
+            direct.applyGate(new PauliXGate(), 0);
+            direct.applyGate(changed, 0);
+
+            QuantumCircuit circuit = new QuantumCircuit(1);
+            circuit.addGate(new PauliXGate(), 0);
+            circuit.addGate(changed, 0);
+            QuantumRegister fused = new QuantumRegister(1);
+            circuit.compile().execute(fused);
+
+            assertEquals("0.71|0⟩ -0.71|1⟩", parseState(direct));
+            assertEquals(parseState(direct), parseState(fused));
+        }
+    }
 }
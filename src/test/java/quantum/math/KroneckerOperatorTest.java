@@ -0,0 +1,76 @@
+package quantum.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KroneckerOperatorTest {
+
+    private static Matrix randomMatrix(int size, Random random) {
+        ComplexNumber[][] elements = new ComplexNumber[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                elements[i][j] = new ComplexNumber(random.nextGaussian(), random.nextGaussian());
+            }
+        }
+        return new Matrix(elements);
+    }
+
+    private static Vector randomVector(int size, Random random) {
+        Vector vector = new Vector(size);
+        for (int i = 0; i < size; i++) {
+            vector.set(i, random.nextGaussian(), random.nextGaussian());
+        }
+        return vector;
+    }
+
+    @Test
+    void testApplyMatchesMaterializedProduct() {
+        Random random = new Random(6);
+        KroneckerOperator operator = new KroneckerOperator(randomMatrix(2, random), randomMatrix(3, random), Matrix.identity(2))
+                .tensorProduct(randomMatrix(2, random));
+        assertEquals(24, operator.getDimension());
+
+        Vector input = randomVector(24, random);
+        Vector expected = operator.materialize().multiply(input);
+        Vector actual = operator.apply(input);
+        for (int i = 0; i < 24; i++) {
+            assertEquals(expected.getReal(i), actual.getReal(i), 1E-10);
+            assertEquals(expected.getImaginary(i), actual.getImaginary(i), 1E-10);
+        }
+    }
+
+    @Test
+    void testIdentityPowerIsNeverMaterialized() {
+        Random random = new Random(7);
+        // A dense 2^20 x 2^20 identity would need 16 TB
+        KroneckerOperator identity = KroneckerOperator.power(Matrix.identity(2), 20);
+        Vector input = randomVector(1 << 20, random);
+        Vector output = identity.apply(input);
+        for (int i = 0; i < input.size(); i += 4097) {
+            assertEquals(input.getReal(i), output.getReal(i));
+            assertEquals(input.getImaginary(i), output.getImaginary(i));
+        }
+
+        // Hadamard on the middle qubit of 20, identity elsewhere
+        double h = 1 / Math.sqrt(2);
+        Matrix hadamard = Matrix.fromInterleavedArray(new double[]{h, 0, h, 0, h, 0, -h, 0}, 2, 2);
+        KroneckerOperator single = KroneckerOperator.power(Matrix.identity(2), 10)
+                .tensorProduct(hadamard)
+                .tensorProduct(KroneckerOperator.power(Matrix.identity(2), 9));
+        Vector basis = new Vector(1 << 20);
+        basis.set(0, 1, 0);
+        single.applyInPlace(basis);
+        assertEquals(h, basis.getReal(0), 1E-12);
+        assertEquals(h, basis.getReal(1 << 9), 1E-12);
+        assertEquals(1, basis.normSquared(), 1E-12);
+    }
+
+    @Test
+    void testRejectsMismatchedShapes() {
+        assertThrows(IllegalArgumentException.class, () -> new KroneckerOperator(new Matrix(2, 3)));
+        assertThrows(IllegalArgumentException.class, () -> KroneckerOperator.power(Matrix.identity(2), 2).apply(new Vector(8)));
+    }
+}
@@ -0,0 +1,107 @@
+package quantum.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatrixTest {
+
+    private static Matrix randomMatrix(int rows, int columns, Random random) {
+        ComplexNumber[][] elements = new ComplexNumber[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                elements[i][j] = new ComplexNumber(random.nextGaussian(), random.nextGaussian());
+            }
+        }
+        return new Matrix(elements);
+    }
+
+    private static ComplexNumber[][] naiveProduct(Matrix a, Matrix b) {
+        ComplexNumber[][] result = new ComplexNumber[a.getRowCount()][b.getColumnCount()];
+        for (int i = 0; i < a.getRowCount(); i++) {
+            for (int j = 0; j < b.getColumnCount(); j++) {
+                ComplexNumber sum = new ComplexNumber(0);
+                for (int k = 0; k < a.getColumnCount(); k++) {
+                    sum = sum.add(a.getElement(i, k).multiply(b.getElement(k, j)));
+                }
+                result[i][j] = sum;
+            }
+        }
+        return result;
+    }
+
+    private static void assertMatrixEquals(ComplexNumber[][] expected, Matrix actual) {
+        assertEquals(expected.length, actual.getRowCount());
+        for (int i = 0; i < expected.length; i++) {
+            for (int j = 0; j < expected[i].length; j++) {
+                assertEquals(expected[i][j].getReal(), actual.getReal(i, j), 1E-9);
+                assertEquals(expected[i][j].getImaginary(), actual.getImaginary(i, j), 1E-9);
+            }
+        }
+    }
+
+    @Test
+    void testBlockedProductMatchesNaiveProduct() {
+        Random random = new Random(2);
+        // Shapes that are not multiples of the block size
+        Matrix a = randomMatrix(70, 130, random);
+        Matrix b = randomMatrix(130, 65, random);
+        assertMatrixEquals(naiveProduct(a, b), a.multiply(b));
+
+        int threshold = Parallelism.getThreshold();
+        try {
+            Parallelism.setThreshold(1);
+            Matrix target = new Matrix(70, 65);
+            assertSame(target, a.multiplyInto(b, target));
+            assertMatrixEquals(naiveProduct(a, b), target);
+        } finally {
+            Parallelism.setThreshold(threshold);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> b.multiply(b));
+        Matrix square = randomMatrix(4, 4, random);
+        assertThrows(IllegalArgumentException.class, () -> square.multiplyInto(square, square));
+    }
+
+    @Test
+    void testInPlaceOperations() {
+        Random random = new Random(3);
+        Matrix a = randomMatrix(3, 3, random);
+        Matrix b = randomMatrix(3, 3, random);
+        ComplexNumber scalar = new ComplexNumber(0.5, -2);
+
+        Matrix expected = a.add(b).multiply(scalar).subtract(b);
+        Matrix inPlace = a.copy().addInPlace(b).scaleInPlace(scalar).subtractInPlace(b);
+        assertMatrixEquals(expected.getElements(), inPlace);
+        // The non-mutating variants leave their operands alone
+        assertMatrixEquals(a.getElements(), Matrix.fromInterleavedArray(a.toInterleavedArray(), 3, 3));
+    }
+
+    @Test
+    void testMatrixVectorAndTensorProducts() {
+        Random random = new Random(4);
+        Matrix a = randomMatrix(3, 2, random);
+        Matrix b = randomMatrix(2, 4, random);
+
+        Vector input = new Vector(new ComplexNumber[]{new ComplexNumber(1, 2), new ComplexNumber(-1, 0.5)});
+        Vector output = a.multiplyInto(input, new Vector(3));
+        for (int i = 0; i < 3; i++) {
+            ComplexNumber expected = a.getElement(i, 0).multiply(input.get(0)).add(a.getElement(i, 1).multiply(input.get(1)));
+            assertEquals(expected.getReal(), output.getReal(i), 1E-12);
+            assertEquals(expected.getImaginary(), output.getImaginary(i), 1E-12);
+        }
+
+        Matrix product = a.tensorProduct(b);
+        assertEquals(6, product.getRowCount());
+        assertEquals(8, product.getColumnCount());
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < 8; j++) {
+                ComplexNumber expected = a.getElement(i / 2, j / 4).multiply(b.getElement(i % 2, j % 4));
+                assertEquals(expected.getReal(), product.getReal(i, j), 1E-12);
+                assertEquals(expected.getImaginary(), product.getImaginary(i, j), 1E-12);
+            }
+        }
+    }
+}
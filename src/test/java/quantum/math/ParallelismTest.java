@@ -0,0 +1,116 @@
+package quantum.math;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import quantum.core.MeasurementResult;
+import quantum.core.QuantumRegister;
+import quantum.gates.ControlledGate;
+import quantum.gates.binary.CNOTGate;
+import quantum.gates.unary.HadamardGate;
+import quantum.gates.unary.RXGate;
+import quantum.gates.unary.TGate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelismTest {
+    private static final int NUM_QUBITS = 16;
+    private final int defaultThreshold = Parallelism.getThreshold();
+
+    @AfterEach
+    void restoreThreshold() {
+        Parallelism.setThreshold(defaultThreshold);
+    }
+
+    @Test
+    void testSerialAndParallelRunsAreBitIdentical() {
+        List<MeasurementResult> serialResults = new ArrayList<>();
+        List<MeasurementResult> parallelResults = new ArrayList<>();
+
+        Parallelism.setThreshold(Integer.MAX_VALUE);
+        QuantumRegister serial = runCircuit(serialResults);
+
+        Parallelism.setThreshold(1);
+        QuantumRegister parallel = runCircuit(parallelResults);
+
+        assertEquals(serialResults, parallelResults);
+
+        Vector serialState = serial.getState();
+        Vector parallelState = parallel.getState();
+        for (int i = 0; i < serialState.size(); i++) {
+            assertEquals(serialState.getReal(i), parallelState.getReal(i), 0.0, "Real part of amplitude " + i);
+            assertEquals(serialState.getImaginary(i), parallelState.getImaginary(i), 0.0, "Imaginary part of amplitude " + i);
+        }
+    }
+
+    @Test
+    void testSumUsesAllChunks() {
+        Parallelism.setThreshold(1);
+        int count = 10 * Parallelism.CHUNK_SIZE + 7;
+
+        double total = Parallelism.sum(count, (from, to) -> to - from);
+
+        assertEquals(count, total);
+    }
+
+    @Test
+    void testBucketSumUsesAllChunks() {
+        Parallelism.setThreshold(1);
+        int count = 100 * Parallelism.CHUNK_SIZE + 7;
+
+        double[] totals = Parallelism.sum(count, 3, (from, to, partial) -> {
+            for (long i = from; i < to; i++) {
+                partial[(int) (i % 3)]++;
+            }
+        });
+
+        assertArrayEquals(new double[]{count / 3 + 1, count / 3 + 1, count / 3}, totals);
+    }
+
+    @Test
+    void testBucketSumKeepsFewerPartialEntriesThanItems() {
+        Parallelism.setThreshold(1);
+        int count = 1 << 16;
+        Set<double[]> partials = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        double[] totals = Parallelism.sum(count, count / 2, (from, to, partial) -> {
+            synchronized (partials) {
+                partials.add(partial);
+            }
+            for (long i = from; i < to; i++) {
+                partial[(int) (i / 2)]++;
+            }
+        });
+
+        assertEquals(2, partials.size());
+        for (double total : totals) {
+            assertEquals(2, total);
+        }
+    }
+
+    private QuantumRegister runCircuit(List<MeasurementResult> results) {
+        QuantumRegister register = new QuantumRegister(NUM_QUBITS, 42L);
+
+        for (int i = 0; i < NUM_QUBITS; i++) {
+            register.applyGate(new HadamardGate(), i);
+            register.applyGate(new RXGate(0.1 * (i + 1)), i);
+        }
+        for (int i = 0; i < NUM_QUBITS - 1; i++) {
+            register.applyGate(new CNOTGate(), i, i + 1);
+            register.applyGate(new TGate(), i);
+        }
+        register.applyGate(ControlledGate.multiControlledX(3), 0, 5, 9, 15);
+
+        results.add(register.measure(3));
+        results.add(register.measure(12));
+        register.applyGate(new HadamardGate(), 7);
+        results.addAll(register.measure(10, 1, 14));
+
+        return register;
+    }
+}
@@ -0,0 +1,65 @@
+package quantum.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingularValueDecompositionTest {
+
+    @Test
+    void testReconstructsTallAndWideMatrices() {
+        Random random = new Random(3);
+        int[][] shapes = {{6, 4}, {4, 6}, {5, 5}, {1, 3}};
+        for (int[] shape : shapes) {
+            int rows = shape[0];
+            int cols = shape[1];
+            double[] a = new double[2 * rows * cols];
+            for (int i = 0; i < a.length; i++) {
+                a[i] = random.nextGaussian();
+            }
+
+            SingularValueDecomposition svd = SingularValueDecomposition.compute(a, rows, cols);
+            int rank = svd.rank();
+            assertEquals(Math.min(rows, cols), rank);
+            for (int k = 1; k < rank; k++) {
+                assertTrue(svd.singularValues()[k - 1] >= svd.singularValues()[k]);
+            }
+
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    double real = 0;
+                    double imaginary = 0;
+                    for (int k = 0; k < rank; k++) {
+                        double ur = svd.u()[2 * (i * rank + k)], ui = svd.u()[2 * (i * rank + k) + 1];
+                        double vr = svd.v()[2 * (j * rank + k)], vi = -svd.v()[2 * (j * rank + k) + 1];
+                        double s = svd.singularValues()[k];
+                        real += s * (ur * vr - ui * vi);
+                        imaginary += s * (ur * vi + ui * vr);
+                    }
+                    assertEquals(a[2 * (i * cols + j)], real, 1E-10);
+                    assertEquals(a[2 * (i * cols + j) + 1], imaginary, 1E-10);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRankDeficientMatrix() {
+        // Outer product of two vectors has a single nonzero singular value
+        double[] a = new double[2 * 3 * 3];
+        double[] x = {1, 2, 3};
+        double[] y = {4, 5, 6};
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                a[2 * (i * 3 + j)] = x[i] * y[j];
+            }
+        }
+
+        double[] singularValues = SingularValueDecomposition.compute(a, 3, 3).singularValues();
+        assertEquals(Math.sqrt(14) * Math.sqrt(77), singularValues[0], 1E-10);
+        assertEquals(0, singularValues[1], 1E-10);
+        assertEquals(0, singularValues[2], 1E-10);
+    }
+}
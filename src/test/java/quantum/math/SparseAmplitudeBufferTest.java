@@ -0,0 +1,52 @@
+package quantum.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseAmplitudeBufferTest {
+
+    @Test
+    void testMatchesReferenceMapUnderRandomUpdates() {
+        SparseAmplitudeBuffer buffer = new SparseAmplitudeBuffer(1L << 40);
+        Map<Long, Double> reference = new HashMap<>();
+        Random random = new Random(17);
+
+        for (int step = 0; step < 200_000; step++) {
+            // A small key range forces long probe chains, growth and many deletions
+            long index = (random.nextInt(4096) * 0x10000001L) & ((1L << 40) - 1);
+            double value = random.nextInt(3) == 0 ? 0 : random.nextDouble();
+            buffer.set(index, value, -value);
+            if (value == 0) {
+                reference.remove(index);
+            } else {
+                reference.put(index, value);
+            }
+        }
+
+        assertEquals(reference.size(), buffer.nonZeroCount());
+        for (Map.Entry<Long, Double> entry : reference.entrySet()) {
+            assertEquals(entry.getValue(), buffer.getReal(entry.getKey()));
+            assertEquals(-entry.getValue(), buffer.getImaginary(entry.getKey()));
+        }
+        long[] indices = buffer.nonZeroIndices();
+        for (int i = 1; i < indices.length; i++) {
+            assertTrue(indices[i - 1] < indices[i]);
+        }
+    }
+
+    @Test
+    void testEpsilonDropsTinyAmplitudes() {
+        SparseAmplitudeBuffer buffer = new SparseAmplitudeBuffer(8, 1E-6);
+        buffer.set(3, 1E-7, 1E-7);
+        buffer.set(5, 0.5, 0);
+
+        assertEquals(1, buffer.nonZeroCount());
+        assertEquals(0, buffer.getReal(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.set(8, 1, 0));
+    }
+}
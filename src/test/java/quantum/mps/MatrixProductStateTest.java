@@ -0,0 +1,105 @@
+package quantum.mps;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import quantum.core.MeasurementResult;
+import quantum.core.QuantumCircuit;
+import quantum.core.QuantumRegister;
+import quantum.gates.IQuantumGate;
+import quantum.gates.binary.CNOTGate;
+import quantum.gates.binary.SwapGate;
+import quantum.gates.composit.CCNOTGate;
+import quantum.gates.composit.UniversalGate;
+import quantum.gates.unary.*;
+import quantum.math.ComplexNumber;
+import quantum.math.Vector;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatrixProductStateTest {
+
+    @RepeatedTest(10)
+    void testMatchesStateVectorWithoutTruncation() {
+        Random random = new Random();
+        int numQubits = 6;
+        MatrixProductState mps = new MatrixProductState(numQubits, 64);
+        QuantumRegister register = new QuantumRegister(numQubits);
+
+        for (int step = 0; step < 40; step++) {
+            int[] qubits = distinctQubits(random, numQubits, 1 + random.nextInt(3));
+            IQuantumGate gate = switch (qubits.length) {
+                case 1 -> new UniversalGate(random.nextDouble() * Math.PI, random.nextDouble() * Math.PI, random.nextDouble() * Math.PI);
+                case 2 -> random.nextBoolean() ? new CNOTGate() : new SwapGate();
+                default -> new CCNOTGate();
+            };
+            mps.applyGate(gate, qubits);
+            register.applyGate(gate, qubits);
+        }
+
+        Vector state = register.getState();
+        for (long i = 0; i < state.length(); i++) {
+            ComplexNumber amplitude = mps.getAmplitude(i);
+            assertEquals(state.getReal(i), amplitude.getReal(), 1E-9);
+            assertEquals(state.getImaginary(i), amplitude.getImaginary(), 1E-9);
+        }
+        assertEquals(0, mps.getTruncationError(), 1E-12);
+    }
+
+    @Test
+    void testGhzMeasurementsAgree() {
+        MatrixProductState mps = new MatrixProductState(30, 2);
+        mps.applyGate(new HadamardGate(), 0);
+        for (int i = 1; i < 30; i++) {
+            mps.applyGate(new CNOTGate(), i - 1, i);
+        }
+
+        assertEquals(2, mps.getLargestBondDimension());
+        int first = mps.measure(17).value();
+        for (int i = 0; i < 30; i++) {
+            assertEquals(first, mps.measure(i).value());
+        }
+    }
+
+    // Three CNOT layers cross every cut of this 80-qubit brickwork, so bond dimension 8 is exact and 4 is not
+    @Test
+    void testShallowCircuitOnManyQubits() {
+        int numQubits = 80;
+        Random random = new Random(11);
+        QuantumCircuit circuit = new QuantumCircuit(numQubits, random);
+        for (int layer = 0; layer < 6; layer++) {
+            for (int i = 0; i < numQubits; i++) {
+                circuit.addGate(new UniversalGate(random.nextDouble() * Math.PI, random.nextDouble() * Math.PI, random.nextDouble() * Math.PI), i);
+            }
+            for (int i = layer % 2; i + 1 < numQubits; i += 2) {
+                circuit.addGate(new CNOTGate(), i, i + 1);
+            }
+        }
+        for (int i = 0; i < numQubits; i++) {
+            circuit.addMeasurement(i);
+        }
+
+        MatrixProductState exact = new MatrixProductState(numQubits, 8, random);
+        assertEquals(numQubits, circuit.execute(exact).size());
+        assertEquals(0, exact.getTruncationError(), 1E-9);
+
+        MatrixProductState truncated = new MatrixProductState(numQubits, 4, random);
+        assertEquals(numQubits, circuit.execute(truncated).size());
+        assertTrue(truncated.getLargestBondDimension() <= 4);
+        assertTrue(truncated.getTruncationError() > 1E-6);
+    }
+
+    @Test
+    void testRejectsInvalidGates() {
+        MatrixProductState mps = new MatrixProductState(3, 4);
+        assertThrows(IllegalArgumentException.class, () -> mps.applyGate(new CNOTGate(), 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> mps.applyGate(new HadamardGate(), 3));
+        assertThrows(IllegalArgumentException.class, () -> new MatrixProductState(3, 0));
+    }
+
+    private static int[] distinctQubits(Random random, int numQubits, int count) {
+        return random.ints(0, numQubits).distinct().limit(count).toArray();
+    }
+}
@@ -0,0 +1,132 @@
+package quantum.observables;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import quantum.core.QuantumRegister;
+import quantum.gates.binary.CNOTGate;
+import quantum.gates.composit.UniversalGate;
+import quantum.gates.unary.HadamardGate;
+import quantum.gates.unary.PauliXGate;
+import quantum.gates.unary.PauliYGate;
+import quantum.gates.unary.PauliZGate;
+import quantum.math.Vector;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HamiltonianTest {
+
+    private static QuantumRegister randomState(int numQubits, Random random) {
+        QuantumRegister register = new QuantumRegister(numQubits);
+        for (int layer = 0; layer < 3; layer++) {
+            for (int i = 0; i < numQubits; i++) {
+                register.applyGate(new UniversalGate(random.nextDouble() * Math.PI, random.nextDouble() * Math.PI, random.nextDouble() * Math.PI), i);
+            }
+            for (int i = 0; i + 1 < numQubits; i++) {
+                register.applyGate(new CNOTGate(), i, i + 1);
+            }
+        }
+        return register;
+    }
+
+    // Applies the Pauli gates to a copy of the state and takes the inner product with the original
+    private static double directExpectation(QuantumRegister register, PauliString term) {
+        Vector state = register.getState();
+        QuantumRegister copy = new QuantumRegister(register.getNumQubits());
+        for (long i = 0; i < state.length(); i++) {
+            copy.getState().set(i, state.getReal(i), state.getImaginary(i));
+        }
+        for (int qubit = 0; qubit < term.length(); qubit++) {
+            switch (term.getPauli(qubit)) {
+                case 'X' -> copy.applyGate(new PauliXGate(), qubit);
+                case 'Y' -> copy.applyGate(new PauliYGate(), qubit);
+                case 'Z' -> copy.applyGate(new PauliZGate(), qubit);
+                default -> {
+                }
+            }
+        }
+
+        Vector applied = copy.getState();
+        double real = 0;
+        for (long i = 0; i < state.length(); i++) {
+            real += state.getReal(i) * applied.getReal(i) + state.getImaginary(i) * applied.getImaginary(i);
+        }
+        return real;
+    }
+
+    @RepeatedTest(10)
+    void testMatchesDirectApplication() {
+        Random random = new Random();
+        int numQubits = 5;
+        QuantumRegister register = randomState(numQubits, random);
+
+        Hamiltonian hamiltonian = new Hamiltonian();
+        PauliString[] terms = new PauliString[12];
+        double[] coefficients = new double[terms.length];
+        double expected = 0;
+        for (int t = 0; t < terms.length; t++) {
+            StringBuilder paulis = new StringBuilder();
+            for (int qubit = 0; qubit < numQubits; qubit++) {
+                paulis.append("IXYZ".charAt(random.nextInt(4)));
+            }
+            terms[t] = PauliString.parse(paulis.toString());
+            coefficients[t] = random.nextGaussian();
+            hamiltonian.addTerm(coefficients[t], terms[t]);
+            expected += coefficients[t] * directExpectation(register, terms[t]);
+        }
+
+        double[] values = hamiltonian.termExpectations(register);
+        for (int t = 0; t < terms.length; t++) {
+            assertEquals(directExpectation(register, terms[t]), values[t], 1E-10, terms[t].toString());
+        }
+        assertEquals(expected, hamiltonian.expectation(register), 1E-10);
+    }
+
+    @Test
+    void testQubitWiseCommutingTermsShareAPass() {
+        Hamiltonian hamiltonian = new Hamiltonian();
+        hamiltonian.addTerm(1, "ZZI");
+        hamiltonian.addTerm(1, "ZII");
+        hamiltonian.addTerm(1, "XXI");
+        hamiltonian.addTerm(1, "IIX");
+        hamiltonian.addTerm(1, "IZZ");
+        assertEquals(2, hamiltonian.getGroupCount());
+
+        // Bell pair on qubits 0 and 1
+        QuantumRegister register = new QuantumRegister(3);
+        register.applyGate(new HadamardGate(), 0);
+        register.applyGate(new CNOTGate(), 0, 1);
+        assertArrayEquals(new double[]{1, 0, 1, 0, 0}, hamiltonian.termExpectations(register), 1E-12);
+        assertEquals(-1, PauliString.parse("YY").expectation(register), 1E-12);
+    }
+
+    @Test
+    void testWideAndSparseStates() {
+        Random random = new Random(4);
+        int numQubits = 12;
+        QuantumRegister register = randomState(numQubits, random);
+        PauliString wide = PauliString.parse("XYXYXYXYXYXY");
+        PauliString narrow = PauliString.parse("XYZIIIIIIIIZ");
+        assertEquals(directExpectation(register, wide), wide.expectation(register), 1E-10);
+        assertEquals(directExpectation(register, narrow), narrow.expectation(register), 1E-10);
+
+        // GHZ state on 40 qubits, far too large to store densely
+        QuantumRegister sparse = QuantumRegister.sparse(40);
+        sparse.applyGate(new HadamardGate(), 0);
+        for (int i = 1; i < 40; i++) {
+            sparse.applyGate(new CNOTGate(), i - 1, i);
+        }
+        assertEquals(1, PauliString.parse("X".repeat(40)).expectation(sparse), 1E-10);
+        assertEquals(1, PauliString.parse("Z" + "I".repeat(38) + "Z").expectation(sparse), 1E-10);
+        assertEquals(0, PauliString.parse("Z").expectation(sparse), 1E-10);
+    }
+
+    @Test
+    void testRejectsInvalidTerms() {
+        assertThrows(IllegalArgumentException.class, () -> PauliString.parse("XA"));
+        Hamiltonian hamiltonian = new Hamiltonian();
+        hamiltonian.addTerm(1, "IIIX");
+        assertThrows(IllegalArgumentException.class, () -> hamiltonian.expectation(new QuantumRegister(3)));
+    }
+}
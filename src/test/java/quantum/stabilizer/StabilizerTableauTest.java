@@ -0,0 +1,110 @@
+package quantum.stabilizer;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import quantum.core.MeasurementResult;
+import quantum.core.QuantumCircuit;
+import quantum.core.QuantumRegister;
+import quantum.gates.ControlledGate;
+import quantum.gates.IQuantumGate;
+import quantum.gates.binary.CNOTGate;
+import quantum.gates.binary.SwapGate;
+import quantum.gates.unary.*;
+import quantum.math.Vector;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StabilizerTableauTest {
+
+    @Test
+    void testBellPairStabilizers() {
+        StabilizerTableau tableau = new StabilizerTableau(2);
+        tableau.applyGate(new HadamardGate(), 0);
+        tableau.applyGate(new CNOTGate(), 0, 1);
+
+        assertEquals(List.of("+XX", "+ZZ"), tableau.getStabilizers());
+        assertEquals(tableau.measure(0).value(), tableau.measure(1).value());
+        assertThrows(IllegalArgumentException.class, () -> tableau.applyGate(new TGate(), 0));
+    }
+
+    // Every stabilizer generator P must satisfy P|psi> = |psi> for the state-vector simulation of the same circuit
+    @RepeatedTest(20)
+    void testStabilizersMatchStateVector() {
+        Random random = new Random();
+        int numQubits = 5;
+        StabilizerTableau tableau = new StabilizerTableau(numQubits);
+        QuantumRegister register = new QuantumRegister(numQubits);
+        IQuantumGate[] gates = {new HadamardGate(), new SGate(), new PauliXGate(), new PauliYGate(), new PauliZGate(),
+                new CNOTGate(), new SwapGate(), new ControlledGate(new PauliZGate(), 1), new ControlledGate(new PauliYGate(), 1)};
+
+        for (int step = 0; step < 40; step++) {
+            IQuantumGate gate = gates[random.nextInt(gates.length)];
+            int first = random.nextInt(numQubits);
+            int[] qubits = gate.getInputSize() == 1 ? new int[]{first} : new int[]{first, (first + 1 + random.nextInt(numQubits - 1)) % numQubits};
+            tableau.applyGate(gate, qubits);
+            register.applyGate(gate, qubits);
+        }
+
+        Vector state = register.getState();
+        for (String stabilizer : tableau.getStabilizers()) {
+            QuantumRegister copy = new QuantumRegister(numQubits);
+            for (long i = 0; i < state.length(); i++) {
+                copy.getState().set(i, state.getReal(i), state.getImaginary(i));
+            }
+            for (int qubit = 0; qubit < numQubits; qubit++) {
+                switch (stabilizer.charAt(qubit + 1)) {
+                    case 'X' -> copy.applyGate(new PauliXGate(), qubit);
+                    case 'Y' -> copy.applyGate(new PauliYGate(), qubit);
+                    case 'Z' -> copy.applyGate(new PauliZGate(), qubit);
+                    default -> {
+                    }
+                }
+            }
+            double sign = stabilizer.charAt(0) == '-' ? -1 : 1;
+            for (long i = 0; i < state.length(); i++) {
+                assertEquals(sign * state.getReal(i), copy.getState().getReal(i), 1E-9, stabilizer);
+                assertEquals(sign * state.getImaginary(i), copy.getState().getImaginary(i), 1E-9, stabilizer);
+            }
+        }
+    }
+
+    @Test
+    void testLargeCliffordCircuitRunsOnTableau() {
+        int numQubits = 1200;
+        QuantumCircuit circuit = new QuantumCircuit(numQubits, new Random(8));
+        circuit.addGate(new HadamardGate(), 0);
+        for (int i = 1; i < numQubits; i++) {
+            circuit.addGate(new CNOTGate(), i - 1, i);
+        }
+        circuit.addGate(new PauliXGate(), 700);
+        for (int i = 0; i < numQubits; i++) {
+            circuit.addMeasurement(i);
+        }
+
+        assertTrue(circuit.isClifford());
+        circuit.execute();
+
+        List<MeasurementResult> results = circuit.getMeasurementResults();
+        int first = results.get(0).value();
+        for (MeasurementResult result : results) {
+            assertEquals(result.qubitId() == 700 ? 1 - first : first, result.value());
+        }
+    }
+
+    @Test
+    void testUnboundCircuitSamplesFromTableau() {
+        QuantumCircuit circuit = new QuantumCircuit(100, new Random(2));
+        circuit.addGate(new HadamardGate(), 10);
+        circuit.addGate(new CNOTGate(), 10, 90);
+        circuit.addMeasurement(10);
+        circuit.addMeasurement(90);
+
+        var histogram = circuit.sample(1000);
+
+        assertArrayEquals(new long[]{0b00, 0b11}, histogram.outcomes());
+        assertEquals(1000, histogram.getTotalShots());
+    }
+}
@@ -0,0 +1,57 @@
+package utils;
+
+import quantum.core.QuantumRegister;
+import quantum.gates.unary.HadamardGate;
+import quantum.gates.unary.RXGate;
+import quantum.gates.unary.RYGate;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static utils.StateParser.parseState;
+
+// Shared fixtures for tests that check a specialized kernel against a dense reference
+public final class TestRegisters {
+    private TestRegisters() {
+    }
+
+    // A superposition with uneven, complex amplitudes that leaves qubit 2 untouched
+    public static QuantumRegister prepare(int numQubits, boolean sparse) {
+        QuantumRegister register = sparse ? QuantumRegister.sparse(numQubits) : new QuantumRegister(numQubits);
+        register.applyGate(new HadamardGate(), 0);
+        register.applyGate(new RYGate(0.9), 1);
+        if (numQubits > 3) {
+            register.applyGate(new RXGate(0.4), 3);
+        }
+        return register;
+    }
+
+    // The fixture followed by test-specific gates, e.g. to entangle it or add phases
+    public static QuantumRegister prepare(int numQubits, boolean sparse, Consumer<QuantumRegister> setup) {
+        QuantumRegister register = prepare(numQubits, sparse);
+        setup.accept(register);
+        return register;
+    }
+
+    public static void assertMatchesReference(int numQubits, Consumer<QuantumRegister> reference, Consumer<QuantumRegister> actual) {
+        assertMatchesReference(numQubits, register -> {
+        }, reference, actual);
+    }
+
+    // Applies reference and actual to two copies of the fixture, first on dense and then on sparse storage
+    public static void assertMatchesReference(int numQubits, Consumer<QuantumRegister> setup,
+                                              Consumer<QuantumRegister> reference, Consumer<QuantumRegister> actual) {
+        for (boolean sparse : new boolean[]{false, true}) {
+            QuantumRegister expected = prepare(numQubits, sparse, setup);
+            QuantumRegister result = prepare(numQubits, sparse, setup);
+            reference.accept(expected);
+            actual.accept(result);
+            assertSameState(expected, result);
+        }
+    }
+
+    public static void assertSameState(QuantumRegister expected, QuantumRegister actual) {
+        assertTrue(expected.getState().equals(actual.getState()),
+                "Expected: " + parseState(expected) + "\nActual: " + parseState(actual));
+    }
+}